@@ -1,40 +1,43 @@
 package com.chatq.assist.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 @Slf4j
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = List.of(
+        "embeddings",      // Cache for text embeddings
+        "responses"        // Cache for FAQ responses
+    );
+
     /**
-     * Cache for OpenAI embeddings
-     * - Same question = same embedding
-     * - TTL: 24 hours (embeddings don't change)
-     * - Max size: 10,000 entries
+     * Spring managed caches, each sized by its own spec (chat.cache.specs.<name>.*)
+     * - embeddings: bounded by estimated bytes, since each entry holds a 1536-float vector
+     * - Stats are recorded; Spring Boot binds them to Micrometer as cache.gets, cache.evictions, ...
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-            "embeddings",      // Cache for text embeddings
-            "responses",       // Cache for FAQ responses
-            "faqMatches"      // Cache for FAQ similarity matches
-        );
+    public CacheManager cacheManager(CacheFactory cacheFactory) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
 
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-            .maximumSize(10_000)
-            .expireAfterWrite(24, TimeUnit.HOURS)
-            .recordStats());
+        for (String name : CACHE_NAMES) {
+            cacheManager.registerCustomCache(name, cacheFactory
+                .builder(name, (Object key, Object value) ->
+                    CacheWeights.clamp((long) CacheWeights.estimate(key) + CacheWeights.estimate(value)), false)
+                .build());
+        }
 
-        log.info("Caffeine cache manager initialized with caches: embeddings, responses, faqMatches");
+        log.info("Caffeine cache manager initialized with caches: {}", String.join(", ", CACHE_NAMES));
         return cacheManager;
     }
 }
@@ -0,0 +1,73 @@
+package com.chatq.assist.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds Caffeine caches from {@link CacheProperties} and binds their statistics
+ * (hits, misses, evictions, load times) to Micrometer under the cache name.
+ * Used for caches managed by application components; the Spring cache manager caches
+ * are built in {@link CacheConfig} with the same specs.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheFactory {
+
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
+    public <K, V> Cache<K, V> build(String name, Weigher<? super K, ? super V> weigher) {
+        Cache<K, V> cache = builder(name, weigher, false).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    public <K, V> LoadingCache<K, V> build(String name, Weigher<? super K, ? super V> weigher,
+                                           CacheLoader<? super K, V> loader) {
+        LoadingCache<K, V> cache = builder(name, weigher, true).build(loader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    /**
+     * Caffeine builder configured from the spec of the given cache
+     */
+    @SuppressWarnings("unchecked")
+    <K, V> Caffeine<K, V> builder(String name, Weigher<? super K, ? super V> weigher, boolean hasLoader) {
+        CacheProperties.Spec spec = cacheProperties.spec(name);
+        Caffeine<K, V> builder = (Caffeine<K, V>) (Caffeine<?, ?>) Caffeine.newBuilder().recordStats();
+
+        if (spec.getMaximumWeight() != null) {
+            builder = builder.maximumWeight(spec.getMaximumWeight().toBytes()).weigher(weigher);
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.getRefreshAfterWrite() != null) {
+            if (hasLoader) {
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+            } else {
+                log.warn("Ignoring refresh-after-write for cache '{}' - it has no loader", name);
+            }
+        }
+
+        log.info("Cache '{}' configured (maximum size: {}, maximum weight: {}, expire after write: {}, refresh after write: {})",
+                 name, spec.getMaximumWeight() == null ? spec.getMaximumSize() : null, spec.getMaximumWeight(),
+                 spec.getExpireAfterWrite(), hasLoader ? spec.getRefreshAfterWrite() : null);
+        return builder;
+    }
+}
@@ -0,0 +1,44 @@
+package com.chatq.assist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine settings, e.g.
+ * <pre>
+ * chat.cache.specs.embeddings.maximum-weight=64MB
+ * chat.cache.specs.embeddings.expire-after-write=24h
+ * chat.cache.specs.tenant-settings.refresh-after-write=30s
+ * </pre>
+ * maximum-weight is an estimated heap size and takes precedence over maximum-size.
+ * refresh-after-write only applies to caches with a loader.
+ */
+@ConfigurationProperties(prefix = "chat.cache")
+@Getter
+@Setter
+public class CacheProperties {
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec spec(String cacheName) {
+        return specs.getOrDefault(cacheName, new Spec());
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private Long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private DataSize maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Duration refreshAfterWrite;
+    }
+}
@@ -0,0 +1,48 @@
+package com.chatq.assist.config;
+
+import org.springframework.cache.interceptor.SimpleKey;
+
+/**
+ * Rough heap size estimates for cache weighers.
+ * Not exact (no JOL), but proportional enough to bound a cache by bytes instead of entry count.
+ */
+public final class CacheWeights {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int DEFAULT_WEIGHT = 64;
+
+    private CacheWeights() {
+    }
+
+    public static int of(float[] value) {
+        return OBJECT_OVERHEAD + value.length * Float.BYTES;
+    }
+
+    public static int of(String value) {
+        // String object + backing array, assuming UTF-16 as the worst case
+        return 40 + value.length() * 2;
+    }
+
+    /**
+     * Estimate for keys and values of the Spring managed caches
+     */
+    public static int estimate(Object value) {
+        if (value instanceof float[] floats) {
+            return of(floats);
+        }
+        if (value instanceof String string) {
+            return of(string);
+        }
+        if (value instanceof SimpleKey key) {
+            return OBJECT_OVERHEAD + key.toString().length() * 2;
+        }
+        return DEFAULT_WEIGHT;
+    }
+
+    /**
+     * Caffeine weights are ints; clamp to at least 1 so every entry counts
+     */
+    public static int clamp(long weight) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, weight));
+    }
+}
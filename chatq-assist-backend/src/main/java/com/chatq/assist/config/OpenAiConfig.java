@@ -1,11 +1,9 @@
 package com.chatq.assist.config;
 
 import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -39,19 +37,6 @@ public class OpenAiConfig {
                 .build();
     }
 
-    @Bean
-    public StreamingChatLanguageModel streamingChatLanguageModel() {
-        log.info("Initializing OpenAI Streaming Chat Model: {}", chatModel);
-        return OpenAiStreamingChatModel.builder()
-                .apiKey(openAiApiKey)
-                .modelName(chatModel)
-                .temperature(0.7)
-                .timeout(Duration.ofSeconds(60))
-                .logRequests(true)
-                .logResponses(true)
-                .build();
-    }
-
     @Bean
     public EmbeddingModel embeddingModel() {
         log.info("Initializing OpenAI Embedding Model: {}", embeddingModel);
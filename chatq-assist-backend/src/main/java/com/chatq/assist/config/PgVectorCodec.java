@@ -0,0 +1,96 @@
+package com.chatq.assist.config;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codec for pgvector values.
+ * The binary layout is the one of pgvector's vector_send / vector_recv:
+ * int16 dimensions, int16 unused (0), then one big-endian float4 per dimension.
+ * A 1536-dimensional embedding is 6 KB in this form instead of ~20 KB as decimal text,
+ * and decoding needs no string splitting or float parsing.
+ */
+public final class PgVectorCodec {
+
+    private static final int HEADER_BYTES = 4;
+
+    private PgVectorCodec() {
+    }
+
+    /**
+     * Encode a vector in pgvector's binary format
+     */
+    public static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + vector.length * Float.BYTES);
+        buffer.putShort((short) vector.length);
+        buffer.putShort((short) 0);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    /**
+     * Decode a vector from pgvector's binary format
+     */
+    public static float[] decode(byte[] bytes) {
+        if (bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Invalid binary vector: " + bytes.length + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int dimensions = Short.toUnsignedInt(buffer.getShort());
+        buffer.getShort(); // unused
+
+        if (bytes.length != HEADER_BYTES + dimensions * Float.BYTES) {
+            throw new IllegalArgumentException("Invalid binary vector: " + bytes.length +
+                                               " bytes for " + dimensions + " dimensions");
+        }
+
+        float[] vector = new float[dimensions];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * Parse pgvector's text format: [0.1,0.2,0.3] -> float[].
+     * Only used where the binary form is not available (e.g. native SELECT * queries).
+     */
+    public static float[] parseText(String value) {
+        String trimmed = value.trim();
+        int start = trimmed.startsWith("[") ? 1 : 0;
+        int end = trimmed.endsWith("]") ? trimmed.length() - 1 : trimmed.length();
+
+        if (start >= end) {
+            return new float[0];
+        }
+
+        // Count separators first so the result is allocated once, without String.split
+        int dimensions = 1;
+        for (int i = start; i < end; i++) {
+            if (trimmed.charAt(i) == ',') {
+                dimensions++;
+            }
+        }
+
+        float[] vector = new float[dimensions];
+        int index = 0;
+        int tokenStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || trimmed.charAt(i) == ',') {
+                vector[index++] = Float.parseFloat(trimmed.substring(tokenStart, i).trim());
+                tokenStart = i + 1;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Format a vector in pgvector's text format: float[] -> [0.1,0.2,0.3]
+     */
+    public static String toText(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 12 + 2).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -38,7 +38,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll() // Test endpoints
                         .requestMatchers("/actuator/health").permitAll()
-                        .requestMatchers("/api/chat/**").permitAll() // Chat widget is public
+                        .requestMatchers("/actuator/metrics/**").hasRole("SUPER_ADMIN")
+                        .requestMatchers("/api/chat/**", "/api/v2/chat/**").permitAll() // Chat widget is public
 
                         // Tenant management - SUPER_ADMIN only
                         .requestMatchers("/api/tenants/**").hasAnyRole("SUPER_ADMIN", "TENANT_ADMIN")
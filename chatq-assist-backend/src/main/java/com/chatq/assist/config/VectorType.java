@@ -12,7 +12,10 @@ import java.sql.SQLException;
 import java.sql.Types;
 
 /**
- * Custom Hibernate UserType for pgvector's vector type
+ * Custom Hibernate UserType for pgvector's vector type.
+ * Entity columns are read through vector_send (see the @ColumnTransformer on the embedding fields)
+ * and decoded with {@link PgVectorCodec}; writes bind a float4[] parameter that the column
+ * transformer casts to vector. Both directions avoid the decimal text form.
  */
 public class VectorType implements UserType<float[]> {
 
@@ -45,23 +48,26 @@ public class VectorType implements UserType<float[]> {
     @Override
     public float[] nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
             throws SQLException {
-        String value = rs.getString(position);
+        Object value = rs.getObject(position);
         if (value == null) {
             return null;
         }
-        return parseVector(value);
+        if (value instanceof byte[] bytes) {
+            return PgVectorCodec.decode(bytes);
+        }
+        // Text form, e.g. when a native query selects the raw column
+        String text = value instanceof PGobject pgObject ? pgObject.getValue() : value.toString();
+        return text == null ? null : PgVectorCodec.parseText(text);
     }
 
     @Override
     public void nullSafeSet(PreparedStatement st, float[] value, int index, SharedSessionContractImplementor session)
             throws SQLException {
         if (value == null) {
-            st.setNull(index, Types.OTHER);
+            st.setNull(index, Types.ARRAY);
         } else {
-            PGobject pgObject = new PGobject();
-            pgObject.setType("vector");
-            pgObject.setValue(formatVector(value));
-            st.setObject(index, pgObject);
+            // Primitive float[] is sent by the driver as a binary float4[] array
+            st.setObject(index, value);
         }
     }
 
@@ -89,47 +95,4 @@ public class VectorType implements UserType<float[]> {
     public float[] replace(float[] detached, float[] managed, Object owner) throws HibernateException {
         return deepCopy(detached);
     }
-
-    /**
-     * Parse PostgreSQL vector format: [0.1,0.2,0.3] -> float[]
-     */
-    private float[] parseVector(String value) {
-        if (value == null || value.isEmpty()) {
-            return null;
-        }
-
-        // Remove brackets
-        String trimmed = value.trim();
-        if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
-            trimmed = trimmed.substring(1, trimmed.length() - 1);
-        }
-
-        if (trimmed.isEmpty()) {
-            return new float[0];
-        }
-
-        String[] parts = trimmed.split(",");
-        float[] result = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            result[i] = Float.parseFloat(parts[i].trim());
-        }
-        return result;
-    }
-
-    /**
-     * Format float[] to PostgreSQL vector format: float[] -> [0.1,0.2,0.3]
-     */
-    private String formatVector(float[] value) {
-        if (value == null || value.length == 0) {
-            return "[]";
-        }
-
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < value.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(value[i]);
-        }
-        sb.append("]");
-        return sb.toString();
-    }
 }
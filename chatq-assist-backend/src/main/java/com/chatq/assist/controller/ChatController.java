@@ -7,12 +7,14 @@ import com.chatq.assist.domain.dto.HandoffRequestDto;
 import com.chatq.assist.domain.dto.MessageDto;
 import com.chatq.assist.domain.entity.MessageFeedback;
 import com.chatq.assist.domain.entity.SupportTicket;
+import com.chatq.assist.exception.ChatOverloadedException;
 import com.chatq.assist.service.ChatServiceLLM;
 import com.chatq.assist.service.FeedbackService;
 import com.chatq.assist.service.SupportTicketService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,12 +25,13 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/chat")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.RETRY_AFTER)
 @RequiredArgsConstructor
 @Slf4j
 public class ChatController {
 
     private static final String DEFAULT_TENANT_ID = "default-tenant";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
 
     private final ChatServiceLLM chatService;
     private final FeedbackService feedbackService;
@@ -49,17 +52,55 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streams the answer as SSE. A saturated chat pipeline is answered with 429 + Retry-After and no body
+     * here rather than by GlobalExceptionHandler, whose JSON error cannot be written for a request
+     * accepting only text/event-stream.
+     */
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter chatStream(
+    public ResponseEntity<SseEmitter> chatStream(
             @Valid @RequestBody ChatRequest request,
-            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+
+        if (lastEventId != null) {
+            // Reconnect of a dropped stream - continue the answer instead of asking again
+            return ResponseEntity.ok(resumeStream(lastEventId, tenantId));
+        }
 
         log.info("Received streaming chat request for tenant: {}, question: {}", tenantId, request.getQuestion());
 
         SseEmitter emitter = new SseEmitter(60000L); // 60 second timeout
 
-        // Process chat asynchronously and stream response
-        chatService.processChatStreaming(request, tenantId, emitter);
+        try {
+            // Rejected if the chat pipeline is saturated, otherwise streamed from a virtual thread
+            chatService.processChatStreaming(request, tenantId, emitter);
+        } catch (ChatOverloadedException e) {
+            log.warn("Rejected streaming chat request for tenant {}: {}", tenantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Reconnect of an EventSource: replays the events after Last-Event-ID and follows the live answer
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resumeChatStream(
+            @RequestHeader(LAST_EVENT_ID) String lastEventId,
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+
+        return resumeStream(lastEventId, tenantId);
+    }
+
+    private SseEmitter resumeStream(String lastEventId, String tenantId) {
+        log.info("Resuming chat stream for tenant: {}, last event: {}", tenantId, lastEventId);
+
+        SseEmitter emitter = new SseEmitter(60000L);
+        chatService.resumeChatStreaming(lastEventId, tenantId, emitter);
 
         return emitter;
     }
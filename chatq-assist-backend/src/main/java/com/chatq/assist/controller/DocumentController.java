@@ -69,12 +69,44 @@ public class DocumentController {
         DocumentDto document = documentService.ingestFromUrl(
             request.getSourceUrl(),
             request.getTitle(),
+            request.getDocumentType(),
             tenantId
         );
 
         return ResponseEntity.status(HttpStatus.CREATED).body(document);
     }
 
+    /**
+     * Re-ingest a document from its source; only changed chunks are embedded again
+     */
+    @PostMapping("/{id}/refresh")
+    public ResponseEntity<DocumentDto> refreshDocument(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+
+        log.info("Refreshing document: id={}, tenant={}", id, tenantId);
+
+        DocumentDto document = documentService.refreshDocument(id, tenantId);
+
+        return ResponseEntity.accepted().body(document);
+    }
+
+    /**
+     * Replace the file of an uploaded document and re-ingest it incrementally
+     */
+    @PutMapping(value = "/{id}/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DocumentDto> replaceDocumentFile(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+
+        log.info("Replacing document file: id={}, size={} bytes, tenant={}", id, file.getSize(), tenantId);
+
+        DocumentDto document = documentService.replaceDocumentFile(id, file, tenantId);
+
+        return ResponseEntity.accepted().body(document);
+    }
+
     /**
      * Get all documents for tenant
      */
@@ -0,0 +1,51 @@
+package com.chatq.assist.controller;
+
+import com.chatq.assist.domain.dto.ChatRequest;
+import com.chatq.assist.domain.dto.ChatResponse;
+import com.chatq.assist.service.ReactiveChatService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the chat API ({@link ReactiveChatService}).
+ * Served by Spring MVC's support for reactive return types: the request thread is released at once
+ * and no thread is held while a stream is open. Events are written as they are emitted; a client
+ * that disconnects cancels the stream.
+ */
+@RestController
+@RequestMapping("/api/v2/chat")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveChatController {
+
+    private static final String DEFAULT_TENANT_ID = "default-tenant";
+
+    private final ReactiveChatService chatService;
+
+    @PostMapping
+    public Mono<ChatResponse> chat(
+            @Valid @RequestBody ChatRequest request,
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+
+        log.info("Received v2 chat request for tenant: {}", tenantId);
+
+        return chatService.chat(request, tenantId);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> chatStream(
+            @Valid @RequestBody ChatRequest request,
+            @RequestHeader(value = "X-Tenant-ID", required = false, defaultValue = DEFAULT_TENANT_ID) String tenantId) {
+
+        log.info("Received v2 streaming chat request for tenant: {}", tenantId);
+
+        return chatService.chatStream(request, tenantId);
+    }
+}
@@ -23,6 +23,7 @@ public class AnalyticsDto {
     private Double averageConfidence;
     private List<TopQuestion> topQuestions;
     private Map<LocalDate, Long> questionsByDate;
+    private Map<String, Long> answersBySource; // LLM, FAQ_DIRECT, SEMANTIC_CACHE, FALLBACK
 
     // Feedback metrics
     private FeedbackMetrics feedbackMetrics;
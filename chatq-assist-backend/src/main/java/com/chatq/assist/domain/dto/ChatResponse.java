@@ -1,5 +1,6 @@
 package com.chatq.assist.domain.dto;
 
+import com.chatq.assist.domain.enums.AnswerSource;
 import lombok.Builder;
 import lombok.Data;
 
@@ -15,6 +16,7 @@ public class ChatResponse {
     private List<SourceReference> sources;
     private boolean handoffTriggered;
     private String handoffMessage;
+    private AnswerSource answerSource; // How the answer was produced (LLM, cache, ...)
 
     @Data
     @Builder
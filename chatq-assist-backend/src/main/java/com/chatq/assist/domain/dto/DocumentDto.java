@@ -15,6 +15,7 @@ public class DocumentDto {
     private DocumentType documentType;
     private DocumentStatus status;
     private Integer chunkCount;
+    private Integer progress;
     private String errorMessage;
     private Instant createdAt;
     private Instant updatedAt;
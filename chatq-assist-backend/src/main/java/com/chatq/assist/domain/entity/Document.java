@@ -5,7 +5,10 @@ import com.chatq.assist.domain.enums.DocumentType;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,6 +39,10 @@ public class Document extends BaseEntity {
     @Column(name = "file_path", length = 1000)
     private String filePath;
 
+    @Column(name = "file_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String fileHash; // SHA-256 of the file, see FileBlobStore (null for files stored before)
+
     @Column(name = "file_size")
     private Long fileSize;
 
@@ -48,6 +55,23 @@ public class Document extends BaseEntity {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Column(name = "progress", nullable = false)
+    private Integer progress = 0; // Ingestion progress in percent
+
+    // Fetch state of URL documents (scheduled refresh with conditional GET)
+    @Column(name = "etag", length = 500)
+    private String etag;
+
+    @Column(name = "last_modified", length = 100)
+    private String lastModified;
+
+    @Column(name = "content_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String contentHash; // SHA-256 of the extracted text
+
+    @Column(name = "last_checked_at")
+    private Instant lastCheckedAt;
+
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DocumentChunk> chunks = new ArrayList<>();
 }
@@ -4,14 +4,18 @@ import com.chatq.assist.config.VectorType;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.Type;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 
 @Entity
 @Table(name = "document_chunks", indexes = {
     @Index(name = "idx_document_chunks_document", columnList = "document_id"),
-    @Index(name = "idx_document_chunks_tenant", columnList = "tenant_id")
+    @Index(name = "idx_document_chunks_tenant", columnList = "tenant_id"),
+    @Index(name = "idx_document_chunks_tenant_hash", columnList = "tenant_id, content_hash")
 })
 @Getter
 @Setter
@@ -24,7 +28,7 @@ public class DocumentChunk {
     @Column(name = "tenant_id", nullable = false)
     private String tenantId;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "document_id", nullable = false)
     private Document document;
 
@@ -34,7 +38,12 @@ public class DocumentChunk {
     @Column(name = "content", nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    @Column(name = "content_hash", nullable = false, length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String contentHash; // SHA-256 (hex) of content
+
     @Type(VectorType.class)
+    @ColumnTransformer(read = "vector_send(embedding)", write = "CAST(CAST(? AS real[]) AS vector)")
     @Column(name = "embedding", columnDefinition = "vector(1536)")
     private float[] embedding;
 
@@ -3,6 +3,7 @@ package com.chatq.assist.domain.entity;
 import com.chatq.assist.config.VectorType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.Type;
 
 import java.util.HashSet;
@@ -39,6 +40,7 @@ public class FaqEntry extends BaseEntity {
     private Long usageCount = 0L;
 
     @Type(VectorType.class)
+    @ColumnTransformer(read = "vector_send(embedding)", write = "CAST(CAST(? AS real[]) AS vector)")
     @Column(name = "embedding", columnDefinition = "vector(1536)")
     private float[] embedding;
 }
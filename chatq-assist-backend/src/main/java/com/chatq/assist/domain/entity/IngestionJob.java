@@ -0,0 +1,72 @@
+package com.chatq.assist.domain.entity;
+
+import com.chatq.assist.domain.enums.IngestionJobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "ingestion_jobs", indexes = {
+    @Index(name = "idx_ingestion_jobs_claim", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_ingestion_jobs_document", columnList = "document_id")
+})
+@Getter
+@Setter
+public class IngestionJob extends BaseEntity {
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 50)
+    private IngestionJobStatus status = IngestionJobStatus.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "max_attempts", nullable = false)
+    private Integer maxAttempts = 5;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private Instant lockedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "file_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String fileHash; // Blob referenced by the running attempt, see FileBlobStore
+
+    @Column(name = "source_text", columnDefinition = "TEXT")
+    private String sourceText; // Page text fetched by UrlRefreshService, ingested instead of fetching again
+
+    // Fetch state of the ingested page, recorded on the document once the job succeeds
+    @Column(name = "source_etag", length = 500)
+    private String sourceEtag;
+
+    @Column(name = "source_last_modified", length = 100)
+    private String sourceLastModified;
+
+    @Column(name = "source_content_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String sourceContentHash;
+
+    /**
+     * Remember the fetch state of the page this job ingests
+     */
+    public void setFetchState(String etag, String lastModified, String contentHash) {
+        this.sourceEtag = etag;
+        this.sourceLastModified = lastModified;
+        this.sourceContentHash = contentHash;
+    }
+}
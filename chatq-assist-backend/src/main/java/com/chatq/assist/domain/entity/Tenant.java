@@ -50,6 +50,10 @@ public class Tenant {
     @JdbcTypeCode(SqlTypes.JSON)
     private String settings; // JSON string for tenant-specific settings
 
+    // Maintained by TenantRepository.incrementKbVersion only, never written through the entity
+    @Column(name = "kb_version", nullable = false, insertable = false, updatable = false)
+    private Long kbVersion = 0L;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
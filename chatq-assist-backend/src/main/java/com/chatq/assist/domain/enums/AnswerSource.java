@@ -0,0 +1,8 @@
+package com.chatq.assist.domain.enums;
+
+public enum AnswerSource {
+    LLM,
+    FAQ_DIRECT,
+    SEMANTIC_CACHE,
+    FALLBACK
+}
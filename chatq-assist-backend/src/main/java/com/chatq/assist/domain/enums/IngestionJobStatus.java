@@ -0,0 +1,8 @@
+package com.chatq.assist.domain.enums;
+
+public enum IngestionJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
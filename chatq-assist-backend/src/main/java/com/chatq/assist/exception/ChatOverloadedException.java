@@ -0,0 +1,19 @@
+package com.chatq.assist.exception;
+
+/**
+ * Thrown when the chat pipeline is saturated and a request is rejected instead of queued.
+ * Answered with 429 Too Many Requests and a Retry-After header.
+ */
+public class ChatOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ChatOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
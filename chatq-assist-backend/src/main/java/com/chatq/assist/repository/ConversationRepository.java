@@ -3,6 +3,9 @@ package com.chatq.assist.repository;
 import com.chatq.assist.domain.entity.Conversation;
 import com.chatq.assist.domain.enums.ConversationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -16,6 +19,16 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
 
     List<Conversation> findByTenantIdAndStatus(String tenantId, ConversationStatus status);
 
+    // Bulk updates used by the chat pipeline, so concurrent turns of a session never hit an optimistic lock
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastActivityAt = :lastActivityAt WHERE c.id = :id")
+    int updateLastActivity(@Param("id") Long id, @Param("lastActivityAt") Instant lastActivityAt);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.status = :status, c.lastActivityAt = :lastActivityAt WHERE c.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") ConversationStatus status,
+                     @Param("lastActivityAt") Instant lastActivityAt);
+
     // Analytics methods
     long countByTenantIdAndCreatedAtAfter(String tenantId, Instant startDate);
 
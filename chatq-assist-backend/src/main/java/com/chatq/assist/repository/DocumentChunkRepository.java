@@ -2,6 +2,7 @@ package com.chatq.assist.repository;
 
 import com.chatq.assist.domain.entity.DocumentChunk;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,47 +14,63 @@ public interface DocumentChunkRepository extends JpaRepository<DocumentChunk, Lo
 
     List<DocumentChunk> findByDocumentIdOrderByChunkIndexAsc(Long documentId);
 
-    void deleteByDocumentId(Long documentId);
+    /**
+     * Delete all chunks of a document in one statement, without loading them
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentChunk c WHERE c.document.id = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
 
     long countByDocumentId(Long documentId);
 
     /**
      * Find document chunks by vector similarity using pgvector cosine distance
-     * Returns top N most similar chunks for given embedding that meet the similarity threshold
+     * Returns top N most similar chunks for given embedding that are closer than maxDistance
      * Cosine distance: 0 = identical, 1 = orthogonal, 2 = opposite
-     * We use 0.25 as threshold (corresponding to ~0.75 cosine similarity)
+     * The default cutoff is 0.25 (corresponding to ~0.75 cosine similarity), configurable per tenant
+     * The embedding is bound as a binary float4[] array and cast to vector on the server
+     * Returns a projection with the document title joined in, without the embedding column
      */
     @Query(value = """
-        SELECT * FROM document_chunks
-        WHERE tenant_id = :tenantId
-        AND embedding IS NOT NULL
-        AND (embedding <=> CAST(:embedding AS vector)) < 0.25
-        ORDER BY embedding <=> CAST(:embedding AS vector)
+        SELECT dc.id AS "id", dc.document_id AS "documentId", d.title AS "documentTitle",
+               dc.chunk_index AS "chunkIndex", dc.content AS "content",
+               dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector) AS "distance"
+        FROM document_chunks dc
+        INNER JOIN documents d ON dc.document_id = d.id
+        WHERE dc.tenant_id = :tenantId
+        AND dc.embedding IS NOT NULL
+        AND (dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)) < :maxDistance
+        ORDER BY dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)
         LIMIT :limit
         """, nativeQuery = true)
-    List<DocumentChunk> findSimilarByEmbedding(
+    List<SimilarDocumentChunk> findSimilarByEmbedding(
         @Param("tenantId") String tenantId,
-        @Param("embedding") String embedding,
+        @Param("embedding") float[] embedding,
+        @Param("maxDistance") double maxDistance,
         @Param("limit") int limit
     );
 
     /**
      * Find document chunks by vector similarity for specific documents
-     * Only returns completed documents with similarity above threshold
+     * Only returns completed documents closer than maxDistance
      */
     @Query(value = """
-        SELECT dc.* FROM document_chunks dc
+        SELECT dc.id AS "id", dc.document_id AS "documentId", d.title AS "documentTitle",
+               dc.chunk_index AS "chunkIndex", dc.content AS "content",
+               dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector) AS "distance"
+        FROM document_chunks dc
         INNER JOIN documents d ON dc.document_id = d.id
         WHERE dc.tenant_id = :tenantId
         AND d.status = 'COMPLETED'
         AND dc.embedding IS NOT NULL
-        AND (dc.embedding <=> CAST(:embedding AS vector)) < 0.25
-        ORDER BY dc.embedding <=> CAST(:embedding AS vector)
+        AND (dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)) < :maxDistance
+        ORDER BY dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)
         LIMIT :limit
         """, nativeQuery = true)
-    List<DocumentChunk> findSimilarCompletedDocumentChunks(
+    List<SimilarDocumentChunk> findSimilarCompletedDocumentChunks(
         @Param("tenantId") String tenantId,
-        @Param("embedding") String embedding,
+        @Param("embedding") float[] embedding,
+        @Param("maxDistance") double maxDistance,
         @Param("limit") int limit
     );
 }
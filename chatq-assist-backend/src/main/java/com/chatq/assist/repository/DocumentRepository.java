@@ -3,10 +3,19 @@ package com.chatq.assist.repository;
 import com.chatq.assist.domain.entity.Document;
 import com.chatq.assist.domain.enums.DocumentStatus;
 import com.chatq.assist.domain.enums.DocumentType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
@@ -22,4 +31,60 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     long countByTenantIdAndStatus(String tenantId, DocumentStatus status);
 
     long countByTenantId(String tenantId);
+
+    /**
+     * Lock documents in the given statuses without an active (queued or running) ingestion job,
+     * e.g. left behind by a crash before the job queue existed. Rows locked by another instance are
+     * skipped, like in {@link IngestionJobRepository#lockDueJobs}. Must run inside a transaction.
+     */
+    @Query(value = """
+        SELECT * FROM documents d
+        WHERE d.status IN (:statuses)
+        AND NOT EXISTS (
+            SELECT 1 FROM ingestion_jobs j
+            WHERE j.document_id = d.id AND j.status IN ('QUEUED', 'RUNNING')
+        )
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Document> lockWithoutActiveIngestionJob(@Param("statuses") Collection<String> statuses);
+
+    /**
+     * Load a document and lock its row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id = :id")
+    Optional<Document> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.progress = :progress WHERE d.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    /**
+     * Lock completed URL documents that were not checked for changes since {@code checkedBefore}.
+     * Rows locked by other instances are skipped, so each refresh run gets a disjoint batch.
+     * Must run inside a transaction.
+     */
+    @Query(value = """
+        SELECT * FROM documents
+        WHERE document_type = 'URL'
+        AND status = 'COMPLETED'
+        AND (last_checked_at IS NULL OR last_checked_at < :checkedBefore)
+        ORDER BY last_checked_at NULLS FIRST
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Document> lockDueForRefresh(@Param("checkedBefore") Instant checkedBefore, @Param("limit") int limit);
+
+    /**
+     * Record the state of the latest fetch of a document's source
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Document d
+        SET d.etag = :etag, d.lastModified = :lastModified, d.contentHash = :contentHash, d.lastCheckedAt = :checkedAt
+        WHERE d.id = :id
+        """)
+    int updateFetchState(@Param("id") Long id, @Param("etag") String etag, @Param("lastModified") String lastModified,
+                         @Param("contentHash") String contentHash, @Param("checkedAt") Instant checkedAt);
 }
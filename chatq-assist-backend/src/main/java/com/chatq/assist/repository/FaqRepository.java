@@ -2,9 +2,11 @@ package com.chatq.assist.repository;
 
 import com.chatq.assist.domain.entity.FaqEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,24 +19,38 @@ public interface FaqRepository extends JpaRepository<FaqEntry, Long> {
     // Analytics methods
     List<FaqEntry> findByTenantIdOrderByUsageCountDesc(String tenantId);
 
+    /**
+     * Atomically increment the usage counter of an FAQ.
+     * Used instead of load-modify-save so that cached (detached) FAQ entries are never merged back.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FaqEntry f SET f.usageCount = COALESCE(f.usageCount, 0) + 1 WHERE f.id = :id")
+    int incrementUsageCount(@Param("id") Long id);
+
     /**
      * Find FAQs by vector similarity using pgvector cosine distance
-     * Returns top N most similar FAQs for given embedding that meet the similarity threshold
+     * Returns top N most similar FAQs for given embedding that are closer than maxDistance
      * Cosine distance: 0 = identical, 1 = orthogonal, 2 = opposite
-     * We use 0.25 as threshold (corresponding to ~0.75 cosine similarity)
+     * The default cutoff is 0.25 (corresponding to ~0.75 cosine similarity), configurable per tenant
+     * The embedding is bound as a binary float4[] array and cast to vector on the server
+     * Returns a projection without the embedding column
      */
     @Query(value = """
-        SELECT * FROM faq_entries
-        WHERE tenant_id = :tenantId
-        AND is_active = true
-        AND embedding IS NOT NULL
-        AND (embedding <=> CAST(:embedding AS vector)) < 0.25
-        ORDER BY embedding <=> CAST(:embedding AS vector)
+        SELECT f.id AS "id", f.question AS "question", f.answer AS "answer",
+               f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector) AS "distance"
+        FROM faq_entries f
+        WHERE f.tenant_id = :tenantId
+        AND f.is_active = true
+        AND f.embedding IS NOT NULL
+        AND (f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)) < :maxDistance
+        ORDER BY f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)
         LIMIT :limit
         """, nativeQuery = true)
-    List<FaqEntry> findSimilarByEmbedding(
+    List<SimilarFaq> findSimilarByEmbedding(
         @Param("tenantId") String tenantId,
-        @Param("embedding") String embedding,
+        @Param("embedding") float[] embedding,
+        @Param("maxDistance") double maxDistance,
         @Param("limit") int limit
     );
 }
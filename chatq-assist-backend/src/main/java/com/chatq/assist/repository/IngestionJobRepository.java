@@ -0,0 +1,69 @@
+package com.chatq.assist.repository;
+
+import com.chatq.assist.domain.entity.IngestionJob;
+import com.chatq.assist.domain.enums.IngestionJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, Long> {
+
+    /**
+     * Lock due jobs for claiming. Rows locked by other workers are skipped instead of waited for,
+     * so concurrent pollers each get a disjoint set of jobs. A follow-up job of a document waits until
+     * the document's running job has ended. Must run inside a transaction.
+     */
+    @Query(value = """
+        SELECT * FROM ingestion_jobs j
+        WHERE j.status = 'QUEUED'
+        AND j.next_attempt_at <= :now
+        AND NOT EXISTS (
+            SELECT 1 FROM ingestion_jobs r
+            WHERE r.document_id = j.document_id AND r.status = 'RUNNING'
+        )
+        ORDER BY j.next_attempt_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<IngestionJob> lockDueJobs(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Lock running jobs whose worker stopped sending heartbeats (crashed or was killed)
+     */
+    @Query(value = """
+        SELECT * FROM ingestion_jobs
+        WHERE status = 'RUNNING'
+        AND locked_at < :lockedBefore
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<IngestionJob> lockStaleJobs(@Param("lockedBefore") Instant lockedBefore);
+
+    boolean existsByDocumentIdAndStatus(Long documentId, IngestionJobStatus status);
+
+    boolean existsByDocumentIdAndStatusIn(Long documentId, Collection<IngestionJobStatus> statuses);
+
+    boolean existsByDocumentIdAndStatusAndIdNot(Long documentId, IngestionJobStatus status, Long id);
+
+    List<IngestionJob> findByDocumentIdAndFileHashIsNotNull(Long documentId);
+
+    /**
+     * Record the blob read by the running attempt of a job
+     */
+    @Modifying
+    @Query("UPDATE IngestionJob j SET j.fileHash = :fileHash WHERE j.id = :id AND j.lockedBy = :workerId")
+    int pinFile(@Param("id") Long id, @Param("workerId") String workerId, @Param("fileHash") String fileHash);
+
+    /**
+     * Refresh the lock of a running job (heartbeat)
+     */
+    @Modifying
+    @Query("UPDATE IngestionJob j SET j.lockedAt = :now WHERE j.id = :id AND j.lockedBy = :workerId")
+    int refreshLock(@Param("id") Long id, @Param("workerId") String workerId, @Param("now") Instant now);
+}
@@ -15,6 +15,8 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
 
+    List<Message> findTop5ByConversationIdOrderByCreatedAtDesc(Long conversationId);
+
     // Analytics methods
     @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c WHERE c.tenantId = :tenantId AND m.createdAt >= :startDate")
     Long countByTenantIdAndCreatedAtAfter(@Param("tenantId") String tenantId, @Param("startDate") Instant startDate);
@@ -39,4 +41,19 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
         ORDER BY date
         """, nativeQuery = true)
     List<Object[]> countUserMessagesByTenantGroupedByDate(@Param("tenantId") String tenantId, @Param("startDate") Instant startDate);
+
+    /**
+     * Count assistant answers by answer source (LLM, FAQ_DIRECT, SEMANTIC_CACHE, FALLBACK)
+     * as recorded in the message metadata
+     */
+    @Query(value = """
+        SELECT CAST(m.metadata AS jsonb) ->> 'answerSource' as source, COUNT(m.id) as count
+        FROM messages m
+        WHERE m.tenant_id = :tenantId
+        AND m.role = 'ASSISTANT'
+        AND m.created_at >= :startDate
+        AND m.metadata LIKE '{"answerSource"%'
+        GROUP BY CAST(m.metadata AS jsonb) ->> 'answerSource'
+        """, nativeQuery = true)
+    List<Object[]> countAssistantMessagesByAnswerSource(@Param("tenantId") String tenantId, @Param("startDate") Instant startDate);
 }
@@ -0,0 +1,130 @@
+package com.chatq.assist.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.Value;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+
+/**
+ * Vector similarity search on R2DBC for the reactive chat stack.
+ * Same queries as {@link FaqRepository#findSimilarByEmbedding} and
+ * {@link DocumentChunkRepository#findSimilarCompletedDocumentChunks}, returning the same projections.
+ * <p>
+ * Like the JDBC retrieval, each search runs with its timeout as statement_timeout: cancelling the Flux
+ * does not stop the query on the server, so a timed-out search would otherwise keep its connection busy.
+ */
+@Repository
+public class ReactiveSimilarityRepository {
+
+    private static final String SIMILAR_FAQS = """
+        SELECT f.id, f.question, f.answer,
+               f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector) AS distance
+        FROM faq_entries f
+        WHERE f.tenant_id = :tenantId
+        AND f.is_active = true
+        AND f.embedding IS NOT NULL
+        AND (f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)) < :maxDistance
+        ORDER BY f.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)
+        LIMIT :limit
+        """;
+
+    private static final String SIMILAR_DOCUMENT_CHUNKS = """
+        SELECT dc.id, dc.document_id, d.title AS document_title, dc.chunk_index, dc.content,
+               dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector) AS distance
+        FROM document_chunks dc
+        INNER JOIN documents d ON dc.document_id = d.id
+        WHERE dc.tenant_id = :tenantId
+        AND d.status = 'COMPLETED'
+        AND dc.embedding IS NOT NULL
+        AND (dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)) < :maxDistance
+        ORDER BY dc.embedding <=> CAST(CAST(:embedding AS real[]) AS vector)
+        LIMIT :limit
+        """;
+
+    private final DatabaseClient databaseClient;
+
+    // Local to this repository: an R2DBC transaction manager bean would make @Transactional ambiguous next to JPA's
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveSimilarityRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Flux<SimilarFaq> findSimilarFaqs(String tenantId, float[] embedding, double maxDistance, int limit,
+                                            long timeoutMs) {
+        return withStatementTimeout(timeoutMs, databaseClient.sql(SIMILAR_FAQS)
+            .bind("tenantId", tenantId)
+            .bind("embedding", boxed(embedding))
+            .bind("maxDistance", maxDistance)
+            .bind("limit", limit)
+            .map((row, metadata) -> (SimilarFaq) new FaqMatch(
+                row.get("id", Long.class),
+                row.get("question", String.class),
+                row.get("answer", String.class),
+                row.get("distance", Double.class)))
+            .all());
+    }
+
+    public Flux<SimilarDocumentChunk> findSimilarDocumentChunks(String tenantId, float[] embedding, double maxDistance,
+                                                                int limit, long timeoutMs) {
+        return withStatementTimeout(timeoutMs, databaseClient.sql(SIMILAR_DOCUMENT_CHUNKS)
+            .bind("tenantId", tenantId)
+            .bind("embedding", boxed(embedding))
+            .bind("maxDistance", maxDistance)
+            .bind("limit", limit)
+            .map((row, metadata) -> (SimilarDocumentChunk) new DocumentChunkMatch(
+                row.get("id", Long.class),
+                row.get("document_id", Long.class),
+                row.get("document_title", String.class),
+                row.get("chunk_index", Integer.class),
+                row.get("content", String.class),
+                row.get("distance", Double.class)))
+            .all());
+    }
+
+    /**
+     * Run a query in a transaction with the given statement_timeout. Transaction-local (SET LOCAL),
+     * so the pooled connection gets its default back when the transaction ends.
+     */
+    private <T> Flux<T> withStatementTimeout(long timeoutMs, Flux<T> query) {
+        return databaseClient.sql("SELECT set_config('statement_timeout', :timeout, true)")
+            .bind("timeout", timeoutMs + "ms")
+            .fetch()
+            .first()
+            .thenMany(query)
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * The R2DBC driver binds Float[] (not float[]) as a float4[] array
+     */
+    private static Float[] boxed(float[] embedding) {
+        Float[] values = new Float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            values[i] = embedding[i];
+        }
+        return values;
+    }
+
+    @Value
+    private static class FaqMatch implements SimilarFaq {
+        Long id;
+        String question;
+        String answer;
+        Double distance;
+    }
+
+    @Value
+    private static class DocumentChunkMatch implements SimilarDocumentChunk {
+        Long id;
+        Long documentId;
+        String documentTitle;
+        Integer chunkIndex;
+        String content;
+        Double distance;
+    }
+}
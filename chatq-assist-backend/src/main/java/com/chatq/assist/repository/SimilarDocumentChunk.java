@@ -0,0 +1,23 @@
+package com.chatq.assist.repository;
+
+/**
+ * Projection of a document chunk similarity hit, joined with its document title,
+ * without the embedding
+ */
+public interface SimilarDocumentChunk {
+
+    Long getId();
+
+    Long getDocumentId();
+
+    String getDocumentTitle();
+
+    Integer getChunkIndex();
+
+    String getContent();
+
+    /**
+     * Cosine distance to the question embedding (0 = identical)
+     */
+    Double getDistance();
+}
@@ -0,0 +1,19 @@
+package com.chatq.assist.repository;
+
+/**
+ * Projection of an FAQ similarity hit - only the columns the chat pipeline needs,
+ * without the embedding
+ */
+public interface SimilarFaq {
+
+    Long getId();
+
+    String getQuestion();
+
+    String getAnswer();
+
+    /**
+     * Cosine distance to the question embedding (0 = identical)
+     */
+    Double getDistance();
+}
@@ -2,6 +2,9 @@ package com.chatq.assist.repository;
 
 import com.chatq.assist.domain.entity.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +24,15 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
     boolean existsByTenantId(String tenantId);
 
     boolean existsByApiKey(String apiKey);
+
+    @Query("SELECT t.kbVersion FROM Tenant t WHERE t.tenantId = :tenantId")
+    Optional<Long> findKbVersionByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Increment the knowledge base version of a tenant.
+     * Runs as a bulk update so it never conflicts with the optimistic lock of the entity.
+     */
+    @Modifying
+    @Query("UPDATE Tenant t SET t.kbVersion = t.kbVersion + 1 WHERE t.tenantId = :tenantId")
+    int incrementKbVersion(@Param("tenantId") String tenantId);
 }
@@ -3,6 +3,7 @@ package com.chatq.assist.service;
 import com.chatq.assist.domain.dto.AnalyticsDto;
 import com.chatq.assist.domain.entity.FaqEntry;
 import com.chatq.assist.domain.entity.MessageFeedback;
+import com.chatq.assist.domain.enums.AnswerSource;
 import com.chatq.assist.domain.enums.ConversationStatus;
 import com.chatq.assist.domain.enums.FeedbackType;
 import com.chatq.assist.repository.*;
@@ -43,6 +44,7 @@ public class AnalyticsService {
                 .topFaqs(calculateTopFaqs(tenantId, 10))
                 .conversationMetrics(calculateConversationMetrics(tenantId, startDate))
                 .questionsByDate(calculateQuestionsByDate(tenantId, startDate))
+                .answersBySource(calculateAnswersBySource(tenantId, startDate))
                 .totalQuestions(messageRepository.countUserMessagesByTenantAndDateAfter(tenantId, startDate))
                 .build();
     }
@@ -152,4 +154,17 @@ public class AnalyticsService {
 
         return questionsByDate;
     }
+
+    private Map<String, Long> calculateAnswersBySource(String tenantId, Instant startDate) {
+        Map<String, Long> answersBySource = new LinkedHashMap<>();
+        for (AnswerSource source : AnswerSource.values()) {
+            answersBySource.put(source.name(), 0L);
+        }
+
+        for (Object[] result : messageRepository.countAssistantMessagesByAnswerSource(tenantId, startDate)) {
+            answersBySource.put((String) result[0], ((Number) result[1]).longValue());
+        }
+
+        return answersBySource;
+    }
 }
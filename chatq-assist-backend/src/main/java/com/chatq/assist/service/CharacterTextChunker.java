@@ -0,0 +1,119 @@
+package com.chatq.assist.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Character-budgeted chunker (document.chunk.strategy=character): chunks of up to
+ * {@code chunkSize} characters, cut at sentence boundaries where possible and overlapping by
+ * {@code chunkOverlap} characters. Only about one chunk of text is buffered at a time.
+ */
+public class CharacterTextChunker implements TextChunker {
+
+    private final int chunkSize;
+    private final int chunkOverlap;
+    private final Consumer<TextChunk> sink;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private final List<Marker> markers = new ArrayList<>(); // Where each buffered block starts
+
+    public CharacterTextChunker(int chunkSize, int chunkOverlap, Consumer<TextChunk> sink) {
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+        this.sink = sink;
+    }
+
+    @Override
+    public void accept(TextBlock block) {
+        if (block.text() == null || block.text().isBlank()) {
+            return;
+        }
+        if (!buffer.isEmpty() && !Character.isWhitespace(buffer.charAt(buffer.length() - 1))) {
+            buffer.append('\n');
+        }
+        markers.add(new Marker(buffer.length(), block.pageNumber(), block.heading(), block.sourceUrl()));
+        buffer.append(block.text());
+        drain(false);
+    }
+
+    @Override
+    public void finish() {
+        drain(true);
+    }
+
+    private void drain(boolean last) {
+        while (buffer.length() > chunkSize || (last && !buffer.isEmpty())) {
+            int end = Math.min(chunkSize, buffer.length());
+
+            // Try to break at sentence boundary
+            if (end < buffer.length()) {
+                int lastPeriod = buffer.lastIndexOf(".", end);
+                int lastQuestion = buffer.lastIndexOf("?", end);
+                int lastExclamation = buffer.lastIndexOf("!", end);
+                int sentenceEnd = Math.max(lastPeriod, Math.max(lastQuestion, lastExclamation));
+
+                if (sentenceEnd > 0) {
+                    end = sentenceEnd + 1;
+                }
+            }
+
+            emit(end);
+
+            if (end >= buffer.length()) {
+                buffer.setLength(0);
+                markers.clear();
+                return;
+            }
+
+            // Keep the overlap for the next chunk, but always move forward
+            int nextStart = end - chunkOverlap;
+            if (nextStart <= 0) {
+                nextStart = end;
+            }
+            discard(nextStart);
+        }
+    }
+
+    private void emit(int end) {
+        String content = buffer.substring(0, end).trim();
+        if (content.isEmpty()) {
+            return;
+        }
+
+        Marker first = markers.get(0);
+        Integer lastPage = first.pageNumber();
+        for (Marker marker : markers) {
+            if (marker.start() >= end) {
+                break;
+            }
+            if (marker.pageNumber() != null) {
+                lastPage = marker.pageNumber();
+            }
+        }
+        sink.accept(new TextChunk(content, first.pageNumber(), lastPage, first.heading(), first.sourceUrl()));
+    }
+
+    /**
+     * Drop the first {@code count} buffered characters. The block the new start falls into
+     * becomes the first marker.
+     */
+    private void discard(int count) {
+        buffer.delete(0, count);
+
+        List<Marker> shifted = new ArrayList<>(markers.size());
+        for (Marker marker : markers) {
+            int start = marker.start() - count;
+            if (start <= 0) {
+                shifted.clear();
+                start = 0;
+            }
+            shifted.add(new Marker(start, marker.pageNumber(), marker.heading(), marker.sourceUrl()));
+        }
+        markers.clear();
+        markers.addAll(shifted);
+    }
+
+    private record Marker(int start, Integer pageNumber, String heading, String sourceUrl) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.exception.ChatOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Execution layer of streaming chat requests.
+ * Each stream runs on its own virtual thread, so waiting for the embedding provider, the database or
+ * the LLM does not tie up platform threads. Nothing is queued: a stream is only admitted while fewer
+ * than {@code max-concurrent-streams} are open and no pipeline stage is saturated, and each stage has
+ * its own concurrency limit. Requests that cannot be admitted fail fast on the request thread with
+ * {@link ChatOverloadedException} (429 + Retry-After) instead of waiting for the emitter timeout; a
+ * stage that saturates after admission rejects the stream with the same exception from {@link #enter}.
+ * <p>
+ * The LLM stream is read with the JDK HTTP client ({@link OpenAiStreamingClient}); embeddings are
+ * requested from the platform threads of the retrieval executor and the embedding batcher.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatExecutor {
+
+    public enum Stage {
+        EMBEDDING,
+        DATABASE,
+        LLM
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.executor.max-concurrent-streams:1000}")
+    private int maxConcurrentStreams;
+
+    @Value("${chat.executor.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    @Value("${chat.executor.stage.embedding.max-concurrent:64}")
+    private int maxConcurrentEmbeddings;
+
+    // Keep at or below the connection pool size, so requests wait here instead of in the pool
+    @Value("${chat.executor.stage.database.max-concurrent:10}")
+    private int maxConcurrentDatabase;
+
+    @Value("${chat.executor.stage.llm.max-concurrent:200}")
+    private int maxConcurrentLlm;
+
+    // How long a stage may wait for a free slot before the request is rejected
+    @Value("${chat.executor.stage.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    private final Map<Stage, Semaphore> stageLimits = new EnumMap<>(Stage.class);
+
+    private Semaphore streams;
+    private ExecutorService executor;
+    private Counter rejections;
+
+    @PostConstruct
+    void init() {
+        streams = new Semaphore(maxConcurrentStreams);
+        stageLimits.put(Stage.EMBEDDING, new Semaphore(maxConcurrentEmbeddings));
+        stageLimits.put(Stage.DATABASE, new Semaphore(maxConcurrentDatabase));
+        stageLimits.put(Stage.LLM, new Semaphore(maxConcurrentLlm));
+
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("chat-", 0).factory());
+
+        rejections = Counter.builder("chat.executor.rejections")
+            .description("Chat requests rejected because the pipeline was saturated").register(meterRegistry);
+        Gauge.builder("chat.executor.active.streams", streams, semaphore -> maxConcurrentStreams - semaphore.availablePermits())
+            .description("Open chat streams").register(meterRegistry);
+        stageLimits.forEach((stage, limit) -> {
+            int max = limit.availablePermits();
+            Gauge.builder("chat.executor.stage.active", limit, semaphore -> max - semaphore.availablePermits())
+                .tag("stage", stage.name().toLowerCase())
+                .description("Chat requests in a pipeline stage").register(meterRegistry);
+        });
+
+        log.info("Chat executor initialized (streams: {}, embedding: {}, database: {}, llm: {})",
+                 maxConcurrentStreams, maxConcurrentEmbeddings, maxConcurrentDatabase, maxConcurrentLlm);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a streaming request on a virtual thread. The stream's slot is held until the task returns;
+     * the task streams the whole answer, also after its client disconnected (see {@link ChatStreamRegistry}).
+     *
+     * @throws ChatOverloadedException if the maximum number of streams is open or a stage has no free slot
+     */
+    public void submitStream(Runnable task) {
+        // Non-blocking check, so requests are not admitted only to time out in a stage after the response started
+        stageLimits.forEach((stage, limit) -> {
+            if (limit.availablePermits() == 0) {
+                throw reject("Chat stage " + stage + " is saturated");
+            }
+        });
+        if (!streams.tryAcquire()) {
+            throw reject("Too many open chat streams");
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    streams.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            streams.release();
+            throw reject("Chat executor is shut down");
+        }
+    }
+
+    /**
+     * Enter a pipeline stage; the returned permit must be closed when the stage is done
+     *
+     * @throws ChatOverloadedException if the stage stays saturated for {@code acquire-timeout-ms}
+     */
+    public Permit enter(Stage stage) {
+        Semaphore limit = stageLimits.get(stage);
+        try {
+            if (!limit.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw reject("Chat stage " + stage + " is saturated");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted while waiting for chat stage " + stage);
+        }
+        return new Permit(limit);
+    }
+
+    private ChatOverloadedException reject(String message) {
+        rejections.increment();
+        return new ChatOverloadedException(message, retryAfterSeconds);
+    }
+
+    /**
+     * Slot in a pipeline stage. Closing it more than once has no effect, so it can be released
+     * both by a completion callback and a fallback path.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+    }
+}
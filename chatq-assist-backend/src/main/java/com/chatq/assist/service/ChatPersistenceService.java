@@ -0,0 +1,174 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.dto.ChatRequest;
+import com.chatq.assist.domain.entity.Conversation;
+import com.chatq.assist.domain.entity.Message;
+import com.chatq.assist.domain.enums.AnswerSource;
+import com.chatq.assist.domain.enums.ConversationStatus;
+import com.chatq.assist.domain.enums.MessageRole;
+import com.chatq.assist.repository.ConversationRepository;
+import com.chatq.assist.repository.FaqRepository;
+import com.chatq.assist.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Persistence units of a chat turn.
+ * Each method runs in its own short transaction, so no database connection is held
+ * while the chat pipeline waits for the embedding provider or the LLM.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatPersistenceService {
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final FaqRepository faqRepository;
+
+    /**
+     * Load or create the conversation, read the recent history and save the user message
+     */
+    @Transactional
+    public ChatTurn startTurn(ChatRequest request, String tenantId) {
+        Conversation conversation = getOrCreateConversation(request, tenantId);
+
+        // Last messages before the current question, oldest first
+        List<Message> history = new ArrayList<>(
+            messageRepository.findTop5ByConversationIdOrderByCreatedAtDesc(conversation.getId()));
+        Collections.reverse(history);
+
+        Message userMessage = saveMessage(conversation, MessageRole.USER, request.getQuestion(), null, null, null);
+
+        return new ChatTurn(conversation.getId(), conversation.getSessionId(), tenantId, userMessage.getId(), history);
+    }
+
+    /**
+     * Save the assistant answer, count FAQ usage and update the conversation
+     */
+    @Transactional
+    public Message completeTurn(ChatTurn turn, String answer, Double confidenceScore, Long faqEntryId,
+                                AnswerSource answerSource) {
+        if (faqEntryId != null) {
+            faqRepository.incrementUsageCount(faqEntryId);
+        }
+
+        Conversation conversation = conversationRepository.getReferenceById(turn.conversationId());
+        Message message = saveMessage(conversation, MessageRole.ASSISTANT, answer, confidenceScore, faqEntryId, answerSource);
+
+        conversationRepository.updateLastActivity(turn.conversationId(), Instant.now());
+        return message;
+    }
+
+    /**
+     * Save the fallback answer and hand the conversation off to a human agent
+     */
+    @Transactional
+    public Message handoffTurn(ChatTurn turn, String answer, Double confidenceScore) {
+        Conversation conversation = conversationRepository.getReferenceById(turn.conversationId());
+        Message message = saveMessage(conversation, MessageRole.ASSISTANT, answer, confidenceScore, null, AnswerSource.FALLBACK);
+
+        conversationRepository.updateStatus(turn.conversationId(), ConversationStatus.HANDED_OFF, Instant.now());
+        return message;
+    }
+
+    /**
+     * Mark the user message of a turn as failed when no answer could be generated.
+     * The question stays in the history, but is recognisable as unanswered.
+     */
+    @Transactional
+    public void failTurn(ChatTurn turn, Throwable error) {
+        messageRepository.findById(turn.userMessageId()).ifPresent(message -> {
+            message.setMetadata("{\"status\":\"FAILED\"}");
+            messageRepository.save(message);
+        });
+        conversationRepository.updateLastActivity(turn.conversationId(), Instant.now());
+        log.warn("Chat turn failed for session: {} - {}", turn.sessionId(), error.getMessage());
+    }
+
+    /**
+     * Remove the question of a turn that was rejected before it was answered; the client asks it again
+     */
+    @Transactional
+    public void withdrawTurn(ChatTurn turn) {
+        messageRepository.deleteById(turn.userMessageId());
+        log.info("Chat turn withdrawn for session: {}", turn.sessionId());
+    }
+
+    /**
+     * Save the part of an answer that was streamed before the stream was abandoned, marked as truncated.
+     * FAQ usage is not counted for an answer the user did not receive completely.
+     */
+    @Transactional
+    public void truncateTurn(ChatTurn turn, String partialAnswer, Double confidenceScore, Long faqEntryId) {
+        if (partialAnswer.isBlank()) {
+            failTurn(turn, new CancellationException("Stream abandoned before the first token"));
+            return;
+        }
+
+        Conversation conversation = conversationRepository.getReferenceById(turn.conversationId());
+        Message message = saveMessage(conversation, MessageRole.ASSISTANT, partialAnswer, confidenceScore, faqEntryId,
+                                      AnswerSource.LLM);
+        message.setMetadata("{\"answerSource\":\"" + AnswerSource.LLM.name() + "\",\"status\":\"TRUNCATED\"}");
+
+        conversationRepository.updateLastActivity(turn.conversationId(), Instant.now());
+    }
+
+    private Conversation getOrCreateConversation(ChatRequest request, String tenantId) {
+        String sessionId = request.getSessionId();
+
+        if (sessionId != null && !sessionId.isBlank()) {
+            Optional<Conversation> existing = conversationRepository.findBySessionIdAndTenantId(sessionId, tenantId);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        // Create new conversation
+        Conversation conversation = new Conversation();
+        conversation.setSessionId(sessionId != null && !sessionId.isBlank() ? sessionId : UUID.randomUUID().toString());
+        conversation.setTenantId(tenantId);
+        conversation.setUserEmail(request.getUserEmail());
+        conversation.setStatus(ConversationStatus.ACTIVE);
+        conversation.setLastActivityAt(Instant.now());
+
+        return conversationRepository.save(conversation);
+    }
+
+    private Message saveMessage(Conversation conversation, MessageRole role, String content, Double confidenceScore,
+                                Long faqEntryId, AnswerSource answerSource) {
+        Message message = new Message();
+        message.setConversation(conversation);
+        message.setRole(role);
+        message.setContent(content);
+        message.setConfidenceScore(confidenceScore);
+        message.setFaqEntryId(faqEntryId);
+        message.setTenantId(conversation.getTenantId());
+        if (answerSource != null) {
+            message.setMetadata("{\"answerSource\":\"" + answerSource.name() + "\"}");
+        }
+
+        return messageRepository.save(message);
+    }
+
+    /**
+     * State of a chat turn carried between the persistence units
+     */
+    public record ChatTurn(Long conversationId, String sessionId, String tenantId, Long userMessageId,
+                           List<Message> history) {
+
+        public boolean hasPriorContext() {
+            return !history.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.dto.ChatResponse;
+import com.chatq.assist.domain.entity.Message;
+import com.chatq.assist.domain.enums.MessageRole;
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Prompt and source building shared by the servlet ({@link ChatServiceLLM}) and the reactive
+ * ({@link ReactiveChatService}) chat stack
+ */
+final class ChatPrompts {
+
+    private ChatPrompts() {
+    }
+
+    static List<ChatResponse.SourceReference> buildSources(List<SimilarFaq> faqs, List<SimilarDocumentChunk> documentChunks) {
+        List<ChatResponse.SourceReference> sources = new ArrayList<>();
+
+        for (SimilarFaq faq : faqs) {
+            sources.add(ChatResponse.SourceReference.builder()
+                .type("FAQ")
+                .title(faq.getQuestion())
+                .id(faq.getId())
+                .build());
+        }
+
+        for (SimilarDocumentChunk chunk : documentChunks) {
+            sources.add(ChatResponse.SourceReference.builder()
+                .type("DOCUMENT")
+                .title(chunk.getDocumentTitle() + " (Chunk " + chunk.getChunkIndex() + ")")
+                .id(chunk.getDocumentId())
+                .build());
+        }
+
+        return sources;
+    }
+
+    static List<Map<String, Object>> toSourceData(List<ChatResponse.SourceReference> sources) {
+        return sources.stream()
+            .map(source -> Map.<String, Object>of(
+                "type", source.getType(),
+                "title", source.getTitle(),
+                "id", source.getId()
+            ))
+            .collect(Collectors.toList());
+    }
+
+    static String buildContextFromFaqsAndDocuments(List<SimilarFaq> faqs, List<SimilarDocumentChunk> documentChunks) {
+        StringBuilder context = new StringBuilder();
+
+        if (!faqs.isEmpty()) {
+            context.append("Relevante FAQ-Einträge aus unserer Wissensdatenbank:\n\n");
+            for (int i = 0; i < faqs.size(); i++) {
+                SimilarFaq faq = faqs.get(i);
+                context.append(String.format("%d. Frage: %s\n", i + 1, faq.getQuestion()));
+                context.append(String.format("   Antwort: %s\n\n", faq.getAnswer()));
+            }
+        }
+
+        if (!documentChunks.isEmpty()) {
+            context.append("Relevante Informationen aus unseren Dokumenten:\n\n");
+            for (int i = 0; i < documentChunks.size(); i++) {
+                SimilarDocumentChunk chunk = documentChunks.get(i);
+                context.append(String.format("%d. Aus Dokument '%s':\n", i + 1, chunk.getDocumentTitle()));
+                context.append(String.format("   %s\n\n", chunk.getContent()));
+            }
+        }
+
+        return context.toString();
+    }
+
+    /**
+     * Build the prompt. The history holds the messages before the current question, oldest first.
+     */
+    static String buildPrompt(String question, String context, List<Message> history) {
+        StringBuilder prompt = new StringBuilder();
+
+        prompt.append("Du bist ein hilfreicher Kundenservice-Assistent. ");
+        prompt.append("Beantworte Fragen basierend auf den bereitgestellten FAQ-Informationen. ");
+        prompt.append("Sei freundlich, professionell und präzise. ");
+        prompt.append("Wenn die Informationen nicht ausreichen, sage das ehrlich.\n\n");
+
+        prompt.append(context);
+        prompt.append("\n");
+
+        // Add recent conversation history (last 5 messages)
+        if (!history.isEmpty()) {
+            prompt.append("Bisherige Konversation:\n");
+            for (Message msg : history) {
+                prompt.append(String.format("%s: %s\n",
+                    msg.getRole() == MessageRole.USER ? "Kunde" : "Assistent",
+                    msg.getContent()));
+            }
+            prompt.append("\n");
+        }
+
+        prompt.append("Aktuelle Frage des Kunden: ").append(question).append("\n\n");
+        prompt.append("Deine Antwort:");
+
+        return prompt.toString();
+    }
+}
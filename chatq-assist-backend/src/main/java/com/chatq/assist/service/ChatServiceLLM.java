@@ -4,33 +4,34 @@ import com.chatq.assist.domain.dto.ChatRequest;
 import com.chatq.assist.domain.dto.ChatResponse;
 import com.chatq.assist.domain.dto.MessageDto;
 import com.chatq.assist.domain.entity.Conversation;
-import com.chatq.assist.domain.entity.DocumentChunk;
 import com.chatq.assist.domain.entity.FaqEntry;
 import com.chatq.assist.domain.entity.Message;
-import com.chatq.assist.domain.enums.ConversationStatus;
-import com.chatq.assist.domain.enums.MessageRole;
+import com.chatq.assist.domain.enums.AnswerSource;
+import com.chatq.assist.exception.ChatOverloadedException;
 import com.chatq.assist.repository.ConversationRepository;
-import com.chatq.assist.repository.DocumentChunkRepository;
-import com.chatq.assist.repository.FaqRepository;
 import com.chatq.assist.repository.MessageRepository;
-import dev.langchain4j.data.message.AiMessage;
-import dev.langchain4j.model.StreamingResponseHandler;
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+import com.chatq.assist.service.ChatPersistenceService.ChatTurn;
 import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.chat.StreamingChatLanguageModel;
-import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+/**
+ * Chat pipeline with retrieval augmented generation.
+ * Deliberately not transactional: all writes go through the short units of {@link ChatPersistenceService},
+ * so no database connection is held while waiting for the embedding provider or the LLM.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -38,162 +39,163 @@ public class ChatServiceLLM {
 
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
-    private final FaqRepository faqRepository;
-    private final DocumentChunkRepository documentChunkRepository;
-    private final EmbeddingService embeddingService;
+    private final ChatPersistenceService chatPersistenceService;
+    private final RetrievalService retrievalService;
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final TenantSettingsService tenantSettingsService;
     private final ChatLanguageModel chatLanguageModel;
-    private final StreamingChatLanguageModel streamingChatLanguageModel;
+    private final OpenAiStreamingClient openAiStreamingClient;
+    private final ChatExecutor chatExecutor;
+    private final SseTokenWriter sseTokenWriter;
+    private final ChatStreamRegistry chatStreamRegistry;
+    private final MeterRegistry meterRegistry;
 
-    private static final double CONFIDENCE_THRESHOLD = 0.75; // Cosine similarity threshold
-    private static final int MAX_SIMILAR_FAQS = 3;
-    private static final int MAX_SIMILAR_DOCUMENT_CHUNKS = 5;
+    @Value("${chat.fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    // Cosine distance below which the stored FAQ answer is returned as is
+    @Value("${chat.fast-path.max-distance:0.05}")
+    private double fastPathMaxDistance;
 
-    @Transactional
     public ChatResponse processChat(ChatRequest request, String tenantId) {
         log.info("Processing chat request with LLM for tenant: {}, question: {}", tenantId, request.getQuestion());
 
-        // Get or create conversation
-        Conversation conversation = getOrCreateConversation(request, tenantId);
+        // Start embedding the question while the conversation is persisted
+        CompletableFuture<float[]> embeddingFuture = retrievalService.embedAsync(request.getQuestion());
 
-        // Save user message
-        saveMessage(conversation, MessageRole.USER, request.getQuestion(), null, null);
+        // Get or create conversation, load recent history and save user message
+        ChatTurn turn = chatPersistenceService.startTurn(request, tenantId);
 
-        // Generate embedding for the user's question
-        float[] questionEmbedding = embeddingService.generateEmbedding(request.getQuestion());
+        try {
+            return answer(request, tenantId, turn, embeddingFuture);
+        } catch (RuntimeException e) {
+            chatPersistenceService.failTurn(turn, e);
+            throw e;
+        }
+    }
 
-        // Find similar FAQs using vector similarity
-        List<FaqEntry> similarFaqs = findSimilarFaqs(questionEmbedding, tenantId);
+    private ChatResponse answer(ChatRequest request, String tenantId, ChatTurn turn,
+                                CompletableFuture<float[]> embeddingFuture) {
+        float[] questionEmbedding = retrievalService.awaitEmbedding(embeddingFuture);
+        long kbVersion = knowledgeBaseVersionService.currentVersion(tenantId);
+
+        // Near-duplicate questions without prior context are answered from the semantic cache
+        if (!turn.hasPriorContext()) {
+            Optional<SemanticAnswerCache.CachedAnswer> cachedAnswer =
+                semanticAnswerCache.lookup(tenantId, kbVersion, questionEmbedding);
+            if (cachedAnswer.isPresent()) {
+                return respondFromCache(turn, cachedAnswer.get());
+            }
+        }
 
-        // Find similar document chunks using vector similarity
-        List<DocumentChunk> similarDocumentChunks = findSimilarDocumentChunks(questionEmbedding, tenantId);
+        // Find similar FAQs and document chunks in parallel using vector similarity
+        TenantSettingsService.RetrievalSettings settings = tenantSettingsService.getRetrievalSettings(tenantId);
+        RetrievalResult retrieval = retrievalService.retrieve(questionEmbedding, tenantId, settings.maxDistance());
+        List<SimilarFaq> similarFaqs = retrieval.faqs();
+        List<SimilarDocumentChunk> similarDocumentChunks = retrieval.documentChunks();
 
         String answer;
         List<ChatResponse.SourceReference> sources = new ArrayList<>();
+        AnswerSource answerSource;
         boolean handoffTriggered = false;
-        Double confidenceScore = null;
-
-        if (!similarFaqs.isEmpty() || !similarDocumentChunks.isEmpty()) {
-            // We have similar FAQs or documents - use them as context for GPT-4
-            FaqEntry bestMatch = similarFaqs.isEmpty() ? null : similarFaqs.get(0);
+        Double confidenceScore = retrieval.confidence();
+
+        // Near-identical FAQ - return its stored answer without rephrasing it through the LLM
+        Optional<SimilarFaq> directMatch = directFaqMatch(retrieval);
+        if (directMatch.isPresent()) {
+            SimilarFaq faq = directMatch.get();
+            return respondWithStoredAnswer(turn, faq.getAnswer(), ChatPrompts.buildSources(List.of(faq), List.of()),
+                                           1.0 - faq.getDistance(), faq.getId(), AnswerSource.FAQ_DIRECT);
+        }
 
-            // Calculate approximate confidence (inverse of cosine distance would be better, but we'll estimate)
-            confidenceScore = 0.8; // High confidence when we have vector matches
+        if (!retrieval.isEmpty() && confidenceScore >= settings.minConfidence()) {
+            // We have close enough FAQs or documents - use them as context for GPT-4
+            SimilarFaq bestMatch = retrieval.bestFaq();
 
             // Build context from similar FAQs and documents
-            String context = buildContextFromFaqsAndDocuments(similarFaqs, similarDocumentChunks);
+            String context = ChatPrompts.buildContextFromFaqsAndDocuments(similarFaqs, similarDocumentChunks);
 
-            // Generate answer using GPT-4 with RAG
-            answer = generateAnswerWithRAG(request.getQuestion(), context, conversation);
+            // Generate answer using GPT-4 with RAG - no transaction is open during the call
+            answer = generateAnswerWithRAG(request.getQuestion(), context, turn.history());
 
-            // Track usage for best matching FAQ
-            if (bestMatch != null) {
-                bestMatch.setUsageCount(bestMatch.getUsageCount() + 1);
-                faqRepository.save(bestMatch);
-            }
+            // Add source references for FAQs and documents
+            sources.addAll(ChatPrompts.buildSources(similarFaqs, similarDocumentChunks));
+            answerSource = AnswerSource.LLM;
 
-            // Add source references for FAQs
-            for (FaqEntry faq : similarFaqs) {
-                sources.add(ChatResponse.SourceReference.builder()
-                    .type("FAQ")
-                    .title(faq.getQuestion())
-                    .id(faq.getId())
-                    .build());
-            }
+            // Save assistant message and track usage for best matching FAQ
+            Long faqEntryId = bestMatch != null ? bestMatch.getId() : null;
+            chatPersistenceService.completeTurn(turn, answer, confidenceScore, faqEntryId, answerSource);
 
-            // Add source references for documents
-            for (DocumentChunk chunk : similarDocumentChunks) {
-                sources.add(ChatResponse.SourceReference.builder()
-                    .type("DOCUMENT")
-                    .title(chunk.getDocument().getTitle() + " (Chunk " + chunk.getChunkIndex() + ")")
-                    .id(chunk.getDocument().getId())
-                    .build());
+            if (!turn.hasPriorContext()) {
+                semanticAnswerCache.store(tenantId, kbVersion, questionEmbedding, answer, sources, confidenceScore, faqEntryId);
             }
 
-            // Save assistant message
-            saveMessage(conversation, MessageRole.ASSISTANT, answer, confidenceScore,
-                       bestMatch != null ? bestMatch.getId() : null);
-
         } else {
-            // No similar FAQs found - trigger handoff
-            log.warn("No similar FAQs found for question: {}", request.getQuestion());
+            // No or only weak matches - trigger handoff without calling the LLM
+            log.warn("No sufficiently similar FAQs found for question: {} (confidence: {}, minimum: {})",
+                     request.getQuestion(), confidenceScore, settings.minConfidence());
 
             answer = "Entschuldigung, ich konnte in unserer Wissensdatenbank keine passende Antwort finden. " +
                      "Ich verbinde Sie gerne mit einem unserer Mitarbeiter, der Ihnen weiterhelfen kann.";
 
             handoffTriggered = true;
-            confidenceScore = 0.0;
-
-            // Update conversation status
-            conversation.setStatus(ConversationStatus.HANDED_OFF);
-            conversationRepository.save(conversation);
+            answerSource = AnswerSource.FALLBACK;
 
-            // Save assistant message
-            saveMessage(conversation, MessageRole.ASSISTANT, answer, confidenceScore, null);
+            // Save assistant message and update conversation status
+            chatPersistenceService.handoffTurn(turn, answer, confidenceScore);
         }
 
-        // Update last activity
-        conversation.setLastActivityAt(Instant.now());
-        conversationRepository.save(conversation);
-
         log.info("Chat response generated - sessionId: {}, confidence: {}, handoff: {}, sources: {}",
-                 conversation.getSessionId(), confidenceScore, handoffTriggered, sources.size());
+                 turn.sessionId(), confidenceScore, handoffTriggered, sources.size());
 
         return ChatResponse.builder()
-            .sessionId(conversation.getSessionId())
+            .sessionId(turn.sessionId())
             .answer(answer)
             .confidenceScore(confidenceScore)
             .sources(sources)
             .handoffTriggered(handoffTriggered)
             .handoffMessage(handoffTriggered ? "Keine passende Antwort gefunden. Ein Mitarbeiter wird sich bei Ihnen melden." : null)
+            .answerSource(answerSource)
             .build();
     }
 
-    @Cacheable(value = "faqMatches", key = "#tenantId + '_' + T(java.util.Arrays).hashCode(#embedding)")
-    private List<FaqEntry> findSimilarFaqs(float[] embedding, String tenantId) {
-        // Convert float[] to PostgreSQL vector format string
-        String embeddingString = vectorToString(embedding);
-        return faqRepository.findSimilarByEmbedding(tenantId, embeddingString, MAX_SIMILAR_FAQS);
-    }
-
-    @Cacheable(value = "documentChunkMatches", key = "#tenantId + '_' + T(java.util.Arrays).hashCode(#embedding)")
-    private List<DocumentChunk> findSimilarDocumentChunks(float[] embedding, String tenantId) {
-        // Convert float[] to PostgreSQL vector format string
-        String embeddingString = vectorToString(embedding);
-        return documentChunkRepository.findSimilarCompletedDocumentChunks(tenantId, embeddingString, MAX_SIMILAR_DOCUMENT_CHUNKS);
+    /**
+     * Answer a question from the semantic answer cache without calling the LLM
+     */
+    private ChatResponse respondFromCache(ChatTurn turn, SemanticAnswerCache.CachedAnswer cachedAnswer) {
+        return respondWithStoredAnswer(turn, cachedAnswer.answer(), cachedAnswer.sources(),
+                                       cachedAnswer.confidenceScore(), cachedAnswer.faqEntryId(), AnswerSource.SEMANTIC_CACHE);
     }
 
-    private String vectorToString(float[] embedding) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(embedding[i]);
-        }
-        sb.append("]");
-        return sb.toString();
-    }
+    /**
+     * Answer with an already available answer (cached or stored FAQ answer) without calling the LLM
+     */
+    private ChatResponse respondWithStoredAnswer(ChatTurn turn, String answer, List<ChatResponse.SourceReference> sources,
+                                                 Double confidenceScore, Long faqEntryId, AnswerSource answerSource) {
+        chatPersistenceService.completeTurn(turn, answer, confidenceScore, faqEntryId, answerSource);
 
-    private String buildContextFromFaqsAndDocuments(List<FaqEntry> faqs, List<DocumentChunk> documentChunks) {
-        StringBuilder context = new StringBuilder();
+        log.info("Chat response served without LLM - sessionId: {}, source: {}", turn.sessionId(), answerSource);
 
-        if (!faqs.isEmpty()) {
-            context.append("Relevante FAQ-Einträge aus unserer Wissensdatenbank:\n\n");
-            for (int i = 0; i < faqs.size(); i++) {
-                FaqEntry faq = faqs.get(i);
-                context.append(String.format("%d. Frage: %s\n", i + 1, faq.getQuestion()));
-                context.append(String.format("   Antwort: %s\n\n", faq.getAnswer()));
-            }
-        }
+        return ChatResponse.builder()
+            .sessionId(turn.sessionId())
+            .answer(answer)
+            .confidenceScore(confidenceScore)
+            .sources(new ArrayList<>(sources))
+            .handoffTriggered(false)
+            .answerSource(answerSource)
+            .build();
+    }
 
-        if (!documentChunks.isEmpty()) {
-            context.append("Relevante Informationen aus unseren Dokumenten:\n\n");
-            for (int i = 0; i < documentChunks.size(); i++) {
-                DocumentChunk chunk = documentChunks.get(i);
-                context.append(String.format("%d. Aus Dokument '%s':\n", i + 1, chunk.getDocument().getTitle()));
-                context.append(String.format("   %s\n\n", chunk.getContent()));
-            }
+    /**
+     * The best FAQ match if it is close enough to answer the question directly
+     */
+    private Optional<SimilarFaq> directFaqMatch(RetrievalResult retrieval) {
+        SimilarFaq bestFaq = retrieval.bestFaq();
+        if (!fastPathEnabled || bestFaq == null || bestFaq.getDistance() == null) {
+            return Optional.empty();
         }
-
-        return context.toString();
+        return bestFaq.getDistance() <= fastPathMaxDistance ? Optional.of(bestFaq) : Optional.empty();
     }
 
     private String buildContextFromFaqs(List<FaqEntry> faqs) {
@@ -209,249 +211,249 @@ public class ChatServiceLLM {
         return context.toString();
     }
 
-    private String generateAnswerWithRAG(String question, String context, Conversation conversation) {
-        // Get conversation history
-        List<Message> history = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversation.getId());
-
+    private String generateAnswerWithRAG(String question, String context, List<Message> history) {
         // Build prompt with system instructions, context, history, and question
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("Du bist ein hilfreicher Kundenservice-Assistent. ");
-        prompt.append("Beantworte Fragen basierend auf den bereitgestellten FAQ-Informationen. ");
-        prompt.append("Sei freundlich, professionell und präzise. ");
-        prompt.append("Wenn die Informationen nicht ausreichen, sage das ehrlich.\n\n");
-
-        prompt.append(context);
-        prompt.append("\n");
-
-        // Add recent conversation history (last 5 messages)
-        if (history.size() > 1) { // More than just the current message
-            prompt.append("Bisherige Konversation:\n");
-            int startIndex = Math.max(0, history.size() - 6);
-            for (int i = startIndex; i < history.size() - 1; i++) {
-                Message msg = history.get(i);
-                prompt.append(String.format("%s: %s\n",
-                    msg.getRole() == MessageRole.USER ? "Kunde" : "Assistent",
-                    msg.getContent()));
-            }
-            prompt.append("\n");
-        }
-
-        prompt.append("Aktuelle Frage des Kunden: ").append(question).append("\n\n");
-        prompt.append("Deine Antwort:");
+        String prompt = ChatPrompts.buildPrompt(question, context, history);
 
         log.debug("Sending prompt to GPT-4: {}", prompt.substring(0, Math.min(200, prompt.length())));
 
         // Call GPT-4
-        String response = chatLanguageModel.generate(prompt.toString());
+        String response = chatLanguageModel.generate(prompt);
 
         log.debug("Received response from GPT-4: {}", response.substring(0, Math.min(100, response.length())));
 
         return response;
     }
 
-    private Conversation getOrCreateConversation(ChatRequest request, String tenantId) {
-        String sessionId = request.getSessionId();
-
-        if (sessionId != null && !sessionId.isBlank()) {
-            Optional<Conversation> existing = conversationRepository.findBySessionIdAndTenantId(sessionId, tenantId);
-            if (existing.isPresent()) {
-                return existing.get();
-            }
-        }
-
-        // Create new conversation
-        Conversation conversation = new Conversation();
-        conversation.setSessionId(sessionId != null && !sessionId.isBlank() ? sessionId : UUID.randomUUID().toString());
-        conversation.setTenantId(tenantId);
-        conversation.setUserEmail(request.getUserEmail());
-        conversation.setStatus(ConversationStatus.ACTIVE);
-        conversation.setLastActivityAt(Instant.now());
-
-        return conversationRepository.save(conversation);
-    }
-
-    private Message saveMessage(Conversation conversation, MessageRole role, String content, Double confidenceScore, Long faqEntryId) {
-        Message message = new Message();
-        message.setConversation(conversation);
-        message.setRole(role);
-        message.setContent(content);
-        message.setConfidenceScore(confidenceScore);
-        message.setFaqEntryId(faqEntryId);
-        message.setTenantId(conversation.getTenantId());
-
-        return messageRepository.save(message);
+    /**
+     * Process chat with streaming response via SSE.
+     * Admission is checked on the calling thread: with all streams open or a pipeline stage saturated, the
+     * request is rejected with 429 before the stream starts. The pipeline itself runs on a virtual thread of
+     * {@link ChatExecutor}; a stage that saturates later ends the stream with an {@code overloaded} event.
+     * Events are numbered and can be replayed with {@link #resumeChatStreaming}.
+     */
+    public void processChatStreaming(ChatRequest request, String tenantId, SseEmitter emitter) {
+        chatExecutor.submitStream(() -> streamChat(request, tenantId, emitter));
     }
 
     /**
-     * Process chat with streaming response via SSE
+     * Reattach a client to a chat stream: the events after {@code lastEventId} are replayed, then the
+     * client receives the rest of the live answer. No new answer is generated.
      */
-    @Async
-    public void processChatStreaming(ChatRequest request, String tenantId, SseEmitter emitter) {
+    public void resumeChatStreaming(String lastEventId, String tenantId, SseEmitter emitter) {
+        chatStreamRegistry.resume(lastEventId, tenantId, emitter);
+    }
+
+    private void streamChat(ChatRequest request, String tenantId, SseEmitter emitter) {
+        ChatTurn turn = null;
+        ChatStreamRegistry.ChatStream stream = null;
         try {
             log.info("Processing streaming chat request for tenant: {}, question: {}", tenantId, request.getQuestion());
 
-            // Get or create conversation
-            Conversation conversation = getOrCreateConversation(request, tenantId);
-
-            // Save user message
-            saveMessage(conversation, MessageRole.USER, request.getQuestion(), null, null);
+            // Start embedding the question while the conversation is persisted
+            ChatExecutor.Permit embeddingPermit = chatExecutor.enter(ChatExecutor.Stage.EMBEDDING);
+            CompletableFuture<float[]> embeddingFuture = retrievalService.embedAsync(request.getQuestion());
+            embeddingFuture.whenComplete((embedding, error) -> embeddingPermit.close());
 
-            // Generate embedding for the user's question
-            float[] questionEmbedding = embeddingService.generateEmbedding(request.getQuestion());
-
-            // Find similar FAQs using vector similarity
-            List<FaqEntry> similarFaqs = findSimilarFaqs(questionEmbedding, tenantId);
+            // Get or create conversation, load recent history and save user message
+            try (ChatExecutor.Permit ignored = chatExecutor.enter(ChatExecutor.Stage.DATABASE)) {
+                turn = chatPersistenceService.startTurn(request, tenantId);
+            }
+            // From here on the client may reconnect and resume
+            stream = chatStreamRegistry.open(turn, emitter);
+
+            float[] questionEmbedding = retrievalService.awaitEmbedding(embeddingFuture);
+            long kbVersion = knowledgeBaseVersionService.currentVersion(tenantId);
+
+            // Near-duplicate questions without prior context are answered from the semantic cache
+            if (!turn.hasPriorContext()) {
+                Optional<SemanticAnswerCache.CachedAnswer> cachedAnswer =
+                    semanticAnswerCache.lookup(tenantId, kbVersion, questionEmbedding);
+                if (cachedAnswer.isPresent()) {
+                    streamFromCache(turn, cachedAnswer.get(), stream);
+                    return;
+                }
+            }
 
-            // Find similar document chunks using vector similarity
-            List<DocumentChunk> similarDocumentChunks = findSimilarDocumentChunks(questionEmbedding, tenantId);
+            // Find similar FAQs and document chunks in parallel using vector similarity
+            TenantSettingsService.RetrievalSettings settings = tenantSettingsService.getRetrievalSettings(tenantId);
+            RetrievalResult retrieval;
+            try (ChatExecutor.Permit ignored = chatExecutor.enter(ChatExecutor.Stage.DATABASE)) {
+                retrieval = retrievalService.retrieve(questionEmbedding, tenantId, settings.maxDistance());
+            }
+            List<SimilarFaq> similarFaqs = retrieval.faqs();
+            List<SimilarDocumentChunk> similarDocumentChunks = retrieval.documentChunks();
+            double confidenceScore = retrieval.confidence();
+
+            // Near-identical FAQ - stream its stored answer without rephrasing it through the LLM
+            Optional<SimilarFaq> directMatch = directFaqMatch(retrieval);
+            if (directMatch.isPresent()) {
+                SimilarFaq faq = directMatch.get();
+                streamStoredAnswer(turn, faq.getAnswer(), ChatPrompts.buildSources(List.of(faq), List.of()),
+                                   1.0 - faq.getDistance(), faq.getId(), AnswerSource.FAQ_DIRECT, stream);
+                return;
+            }
 
-            if (similarFaqs.isEmpty() && similarDocumentChunks.isEmpty()) {
-                // No FAQs found - send handoff message
+            if (retrieval.isEmpty() || confidenceScore < settings.minConfidence()) {
+                // No or only weak matches - send handoff message without calling the LLM
+                log.warn("No sufficiently similar FAQs found for question: {} (confidence: {}, minimum: {})",
+                         request.getQuestion(), confidenceScore, settings.minConfidence());
                 String fallbackMessage = "Entschuldigung, ich konnte in unserer Wissensdatenbank keine passende Antwort finden.";
 
-                emitter.send(SseEmitter.event()
-                    .name("message")
-                    .data(fallbackMessage));
+                stream.send("message", fallbackMessage);
 
-                emitter.send(SseEmitter.event()
-                    .name("metadata")
-                    .data(Map.of(
-                        "sessionId", conversation.getSessionId(),
-                        "handoffTriggered", true,
-                        "confidenceScore", 0.0
-                    )));
+                stream.send("metadata", Map.of(
+                    "sessionId", turn.sessionId(),
+                    "handoffTriggered", true,
+                    "confidenceScore", confidenceScore,
+                    "answerSource", AnswerSource.FALLBACK
+                ));
 
-                saveMessage(conversation, MessageRole.ASSISTANT, fallbackMessage, 0.0, null);
-                conversation.setStatus(ConversationStatus.HANDED_OFF);
-                conversationRepository.save(conversation);
+                chatPersistenceService.handoffTurn(turn, fallbackMessage, confidenceScore);
 
-                emitter.complete();
+                stream.complete();
                 return;
             }
 
             // Build context from FAQs and documents
-            String context = buildContextFromFaqsAndDocuments(similarFaqs, similarDocumentChunks);
-            List<Message> history = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversation.getId());
-            String prompt = buildPrompt(request.getQuestion(), context, history);
-
-            // Track usage for best matching FAQ
-            FaqEntry bestMatch = similarFaqs.isEmpty() ? null : similarFaqs.get(0);
-            if (bestMatch != null) {
-                bestMatch.setUsageCount(bestMatch.getUsageCount() + 1);
-                faqRepository.save(bestMatch);
-            }
+            String context = ChatPrompts.buildContextFromFaqsAndDocuments(similarFaqs, similarDocumentChunks);
+            String prompt = ChatPrompts.buildPrompt(request.getQuestion(), context, turn.history());
 
-            // Stream response from GPT-4
-            StringBuilder fullResponse = new StringBuilder();
+            SimilarFaq bestMatch = retrieval.bestFaq();
 
-            streamingChatLanguageModel.generate(prompt, new StreamingResponseHandler<AiMessage>() {
-                @Override
-                public void onNext(String token) {
-                    log.debug("Received token from OpenAI: [{}]", token);
+            // Stream response from GPT-4 on this thread. A client that went away and did not reconnect within
+            // the grace period cancels the upstream request, so an abandoned chat stops consuming tokens.
+            OpenAiStreamingClient.StreamingCall call = openAiStreamingClient.newCall(prompt);
+            stream.onAbandon(call::cancel);
+
+            // Tokens are coalesced into a few events per second
+            SseTokenWriter.Session tokens = sseTokenWriter.open(stream);
+
+            StringBuilder fullResponse = new StringBuilder();
+            Long faqEntryId = bestMatch != null ? bestMatch.getId() : null;
+            try (ChatExecutor.Permit ignored = chatExecutor.enter(ChatExecutor.Stage.LLM)) {
+                call.execute(token -> {
                     fullResponse.append(token);
-                    try {
-                        emitter.send(SseEmitter.event()
-                            .name("token")
-                            .data(token));
-                    } catch (IOException e) {
-                        log.error("Error sending SSE token", e);
-                    }
-                }
+                    tokens.append(token);
+                });
+            } catch (CancellationException e) {
+                tokens.discard();
+                abandon(turn, call.cancelReason(), fullResponse.toString(), confidenceScore, faqEntryId, stream);
+                return;
+            }
+            tokens.finish();
+
+            // Send metadata with sources from both FAQs and documents
+            List<ChatResponse.SourceReference> sources = ChatPrompts.buildSources(similarFaqs, similarDocumentChunks);
+
+            stream.send("metadata", Map.of(
+                "sessionId", turn.sessionId(),
+                "confidenceScore", confidenceScore,
+                "sources", ChatPrompts.toSourceData(sources),
+                "handoffTriggered", false,
+                "answerSource", AnswerSource.LLM
+            ));
+
+            // Save complete message and track usage for best matching FAQ
+            String answer = fullResponse.toString();
+            Message savedMessage = chatPersistenceService.completeTurn(
+                turn, answer, confidenceScore, faqEntryId, AnswerSource.LLM);
+
+            if (!turn.hasPriorContext()) {
+                semanticAnswerCache.store(tenantId, kbVersion, questionEmbedding, answer, sources, confidenceScore, faqEntryId);
+            }
 
-                @Override
-                public void onComplete(Response<AiMessage> response) {
-                    try {
-                        // Send metadata with sources from both FAQs and documents
-                        List<Map<String, Object>> sourcesData = new ArrayList<>();
-
-                        // Add FAQ sources
-                        similarFaqs.stream()
-                            .map(faq -> Map.of(
-                                "type", (Object) "FAQ",
-                                "title", faq.getQuestion(),
-                                "id", faq.getId()
-                            ))
-                            .forEach(sourcesData::add);
-
-                        // Add document sources
-                        similarDocumentChunks.stream()
-                            .map(chunk -> Map.of(
-                                "type", (Object) "DOCUMENT",
-                                "title", chunk.getDocument().getTitle() + " (Chunk " + chunk.getChunkIndex() + ")",
-                                "id", chunk.getDocument().getId()
-                            ))
-                            .forEach(sourcesData::add);
-
-                        emitter.send(SseEmitter.event()
-                            .name("metadata")
-                            .data(Map.of(
-                                "sessionId", conversation.getSessionId(),
-                                "confidenceScore", 0.8,
-                                "sources", sourcesData,
-                                "handoffTriggered", false
-                            )));
-
-                        // Save complete message
-                        Message savedMessage = saveMessage(conversation, MessageRole.ASSISTANT, fullResponse.toString(), 0.8,
-                                                          bestMatch != null ? bestMatch.getId() : null);
-                        conversation.setLastActivityAt(Instant.now());
-                        conversationRepository.save(conversation);
-
-                        // Send message ID for feedback
-                        emitter.send(SseEmitter.event()
-                            .name("messageId")
-                            .data(Map.of("messageId", savedMessage.getId())));
-
-                        emitter.complete();
-                        log.info("Streaming chat completed for session: {}", conversation.getSessionId());
-                    } catch (IOException e) {
-                        log.error("Error completing SSE stream", e);
-                        emitter.completeWithError(e);
-                    }
-                }
+            // Send message ID for feedback
+            stream.send("messageId", Map.of("messageId", savedMessage.getId()));
 
-                @Override
-                public void onError(Throwable error) {
-                    log.error("Error during streaming chat", error);
-                    emitter.completeWithError(error);
-                }
-            });
+            stream.complete();
+            log.info("Streaming chat completed for session: {}", turn.sessionId());
 
+        } catch (ChatOverloadedException e) {
+            overloaded(turn, stream, emitter, e);
         } catch (Exception e) {
             log.error("Error processing streaming chat", e);
-            emitter.completeWithError(e);
+            if (turn != null) {
+                chatPersistenceService.failTurn(turn, e);
+            }
+            if (stream != null) {
+                stream.fail(e);
+            } else {
+                emitter.completeWithError(e);
+            }
         }
     }
 
-    private String buildPrompt(String question, String context, List<Message> history) {
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("Du bist ein hilfreicher Kundenservice-Assistent. ");
-        prompt.append("Beantworte Fragen basierend auf den bereitgestellten FAQ-Informationen. ");
-        prompt.append("Sei freundlich, professionell und präzise. ");
-        prompt.append("Wenn die Informationen nicht ausreichen, sage das ehrlich.\n\n");
-
-        prompt.append(context);
-        prompt.append("\n");
-
-        // Add recent conversation history (last 5 messages)
-        if (history.size() > 1) {
-            prompt.append("Bisherige Konversation:\n");
-            int startIndex = Math.max(0, history.size() - 6);
-            for (int i = startIndex; i < history.size() - 1; i++) {
-                Message msg = history.get(i);
-                prompt.append(String.format("%s: %s\n",
-                    msg.getRole() == MessageRole.USER ? "Kunde" : "Assistent",
-                    msg.getContent()));
-            }
-            prompt.append("\n");
+    /**
+     * End a stream rejected by a saturated pipeline stage. Stages are entered before any answer is sent, so
+     * the client only gets an {@code overloaded} event with the retry delay, and the question is withdrawn
+     * instead of being recorded as a failed turn.
+     */
+    private void overloaded(ChatTurn turn, ChatStreamRegistry.ChatStream stream, SseEmitter emitter,
+                            ChatOverloadedException e) {
+        log.warn("Streaming chat rejected: {}", e.getMessage());
+        Map<String, Object> data = Map.of("retryAfterSeconds", e.getRetryAfterSeconds());
+
+        if (turn != null) {
+            chatPersistenceService.withdrawTurn(turn);
         }
+        if (stream != null) {
+            stream.send("overloaded", data);
+            stream.complete();
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("overloaded").data(data));
+            emitter.complete();
+        } catch (IOException | IllegalStateException sendError) {
+            log.debug("Client went away before the overloaded event: {}", sendError.getMessage());
+        }
+    }
+
+    /**
+     * Record a stream whose LLM request was cancelled: the answer streamed so far is saved as truncated
+     */
+    private void abandon(ChatTurn turn, String reason, String partialAnswer, double confidenceScore, Long faqEntryId,
+                         ChatStreamRegistry.ChatStream stream) {
+        meterRegistry.counter("chat.streams.abandoned", "reason", reason).increment();
+        log.info("Streaming chat abandoned ({}) for session: {} after {} characters",
+                 reason, turn.sessionId(), partialAnswer.length());
+
+        chatPersistenceService.truncateTurn(turn, partialAnswer, confidenceScore, faqEntryId);
+        stream.complete();
+    }
+
+    /**
+     * Stream a cached answer as a single token event followed by the usual metadata
+     */
+    private void streamFromCache(ChatTurn turn, SemanticAnswerCache.CachedAnswer cachedAnswer,
+                                 ChatStreamRegistry.ChatStream stream) {
+        streamStoredAnswer(turn, cachedAnswer.answer(), cachedAnswer.sources(), cachedAnswer.confidenceScore(),
+                           cachedAnswer.faqEntryId(), AnswerSource.SEMANTIC_CACHE, stream);
+    }
+
+    /**
+     * Stream an already available answer as a single token event followed by the usual metadata
+     */
+    private void streamStoredAnswer(ChatTurn turn, String answer, List<ChatResponse.SourceReference> sources,
+                                    Double confidenceScore, Long faqEntryId, AnswerSource answerSource,
+                                    ChatStreamRegistry.ChatStream stream) {
+        stream.send("token", answer);
+
+        stream.send("metadata", Map.of(
+            "sessionId", turn.sessionId(),
+            "confidenceScore", confidenceScore,
+            "sources", ChatPrompts.toSourceData(sources),
+            "handoffTriggered", false,
+            "answerSource", answerSource
+        ));
+
+        Message savedMessage = chatPersistenceService.completeTurn(turn, answer, confidenceScore, faqEntryId, answerSource);
 
-        prompt.append("Aktuelle Frage des Kunden: ").append(question).append("\n\n");
-        prompt.append("Deine Antwort:");
+        stream.send("messageId", Map.of("messageId", savedMessage.getId()));
 
-        return prompt.toString();
+        stream.complete();
+        log.info("Streaming chat served without LLM for session: {}, source: {}", turn.sessionId(), answerSource);
     }
 
     /**
@@ -0,0 +1,306 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.exception.ResourceNotFoundException;
+import com.chatq.assist.service.ChatPersistenceService.ChatTurn;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Resumable chat streams.
+ * The events of each streamed answer are numbered and kept in a bounded ring, keyed by session and
+ * user message. Event ids have the form {@code <sessionId>:<userMessageId>:<sequence>}, so a client
+ * that reconnects with {@code Last-Event-ID} gets the events it missed replayed and is attached to the
+ * live stream - the answer is not generated again.
+ * <p>
+ * A stream outlives its connection: when the client goes away, the answer keeps streaming into the
+ * ring for {@code grace-ms}, and is only abandoned if nobody reattaches in time. Finished streams can
+ * be replayed for {@code retention-ms}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatStreamRegistry {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.stream.replay.max-events:1024}")
+    private int maxEvents;
+
+    @Value("${chat.stream.replay.grace-ms:15000}")
+    private long graceMs;
+
+    @Value("${chat.stream.replay.retention-ms:60000}")
+    private long retentionMs;
+
+    private final Map<String, ChatStream> streams = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Counter resumes;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-stream-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resumes = Counter.builder("chat.streams.resumed")
+            .description("Chat streams resumed with Last-Event-ID").register(meterRegistry);
+        Gauge.builder("chat.streams.replayable", streams, Map::size)
+            .description("Chat streams kept for replay").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Start a replayable stream for a chat turn, attached to the emitter of the request
+     */
+    public ChatStream open(ChatTurn turn, SseEmitter emitter) {
+        String key = turn.sessionId() + ":" + turn.userMessageId();
+        ChatStream stream = new ChatStream(key, turn.tenantId());
+        streams.put(key, stream);
+        stream.attach(emitter, 0);
+        return stream;
+    }
+
+    /**
+     * Replay the events after {@code lastEventId} to the emitter and attach it to the stream
+     *
+     * @throws ResourceNotFoundException if the stream is unknown, expired or the missed events are no
+     *                                   longer buffered
+     */
+    public void resume(String lastEventId, String tenantId, SseEmitter emitter) {
+        int separator = lastEventId.lastIndexOf(':');
+        long lastSequence;
+        try {
+            lastSequence = separator > 0 ? Long.parseLong(lastEventId.substring(separator + 1)) : -1;
+        } catch (NumberFormatException e) {
+            lastSequence = -1;
+        }
+        ChatStream stream = lastSequence >= 0 ? streams.get(lastEventId.substring(0, separator)) : null;
+        if (stream == null || !stream.tenantId.equals(tenantId)) {
+            throw new ResourceNotFoundException("Chat stream not found: " + lastEventId);
+        }
+
+        if (!stream.attach(emitter, lastSequence)) {
+            throw new ResourceNotFoundException("Chat stream can no longer be resumed: " + lastEventId);
+        }
+        resumes.increment();
+        log.info("Resumed chat stream {} after event {}", stream.key, lastSequence);
+    }
+
+    private record Event(long sequence, String name, Object data) {
+    }
+
+    /**
+     * The events of one streamed answer. Written by the streaming thread; emitters attach and detach
+     * from request and container threads.
+     */
+    public class ChatStream {
+
+        private final String key;
+        private final String tenantId;
+
+        // Not synchronized: sending blocks, which would pin the virtual thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Event[] ring = new Event[maxEvents];
+        private long sequence;
+        private SseEmitter attached;
+        private ScheduledFuture<?> graceTimer;
+        private boolean finished;
+        private String abandonReason;
+        private Consumer<String> onAbandon;
+
+        private ChatStream(String key, String tenantId) {
+            this.key = key;
+            this.tenantId = tenantId;
+        }
+
+        /**
+         * Register the handler called with the detach reason ("disconnect", "timeout" or "error") once
+         * no client reattached within the grace period; called at once if that already happened
+         */
+        public void onAbandon(Consumer<String> handler) {
+            String reason;
+            lock.lock();
+            try {
+                onAbandon = handler;
+                reason = abandonReason;
+            } finally {
+                lock.unlock();
+            }
+            if (reason != null) {
+                handler.accept(reason);
+            }
+        }
+
+        /**
+         * Buffer an event and send it to the attached client, if any. Never fails: a client that
+         * cannot be written to is detached.
+         */
+        public void send(String name, Object data) {
+            lock.lock();
+            try {
+                if (finished) {
+                    return;
+                }
+                Event event = new Event(++sequence, name, data);
+                ring[(int) (event.sequence() % ring.length)] = event;
+                if (attached != null && !deliver(attached, event)) {
+                    detach(attached, "disconnect");
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * End the stream; it stays replayable for the retention period
+         */
+        public void complete() {
+            lock.lock();
+            try {
+                if (finish() && attached != null) {
+                    attached.complete();
+                }
+            } finally {
+                lock.unlock();
+            }
+            scheduler.schedule(() -> streams.remove(key, this), retentionMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * End the stream with an error; it is not replayable
+         */
+        public void fail(Throwable error) {
+            streams.remove(key, this);
+            lock.lock();
+            try {
+                if (finish() && attached != null) {
+                    attached.completeWithError(error);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            if (graceTimer != null) {
+                graceTimer.cancel(false);
+                graceTimer = null;
+            }
+            return true;
+        }
+
+        /**
+         * Replay the events after {@code lastSequence} and attach the emitter. A previously attached
+         * emitter is completed. Returns false if some of the missed events were already overwritten.
+         */
+        private boolean attach(SseEmitter emitter, long lastSequence) {
+            lock.lock();
+            try {
+                if (lastSequence > sequence || lastSequence < sequence - ring.length) {
+                    return false;
+                }
+                if (attached != null) {
+                    attached.complete();
+                    attached = null;
+                }
+
+                attached = emitter;
+                if (graceTimer != null) {
+                    graceTimer.cancel(false);
+                    graceTimer = null;
+                }
+                // An emitter holds one callback of each kind; the stream owns them
+                emitter.onCompletion(() -> detach(emitter, "disconnect"));
+                emitter.onTimeout(() -> detach(emitter, "timeout"));
+                emitter.onError(error -> detach(emitter, "error"));
+
+                for (long next = lastSequence + 1; next <= sequence; next++) {
+                    if (!deliver(emitter, ring[(int) (next % ring.length)])) {
+                        detach(emitter, "disconnect"); // Gone again, the client can retry from its new position
+                        return true;
+                    }
+                }
+                if (finished) {
+                    emitter.complete();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void detach(SseEmitter emitter, String reason) {
+            lock.lock();
+            try {
+                if (attached != emitter) {
+                    return;
+                }
+                attached = null;
+                if (!finished && graceTimer == null) {
+                    graceTimer = scheduler.schedule(() -> abandon(reason), graceMs, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void abandon(String reason) {
+            Consumer<String> handler;
+            lock.lock();
+            try {
+                graceTimer = null;
+                if (finished || attached != null) {
+                    return;
+                }
+                abandonReason = reason;
+                handler = onAbandon;
+            } finally {
+                lock.unlock();
+            }
+            log.debug("No client reattached to chat stream {} ({})", key, reason);
+            if (handler != null) {
+                handler.accept(reason);
+            }
+        }
+
+        private boolean deliver(SseEmitter emitter, Event event) {
+            try {
+                emitter.send(SseEmitter.event()
+                    .id(key + ":" + event.sequence())
+                    .name(event.name())
+                    .data(event.data()));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
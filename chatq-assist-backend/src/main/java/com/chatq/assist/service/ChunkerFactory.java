@@ -0,0 +1,54 @@
+package com.chatq.assist.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Creates the configured {@link TextChunker} for a document:
+ * <ul>
+ *   <li>{@code token} (default) - token-budgeted, respects paragraphs and headings, see {@link TokenTextChunker}</li>
+ *   <li>{@code character} - the previous character-based splitter, see {@link CharacterTextChunker}</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkerFactory {
+
+    private final TokenCounter tokenCounter;
+
+    @Value("${document.chunk.strategy:token}")
+    private String strategy;
+
+    @Value("${document.chunk.max-tokens:300}")
+    private int maxTokens;
+
+    @Value("${document.chunk.overlap-tokens:50}")
+    private int overlapTokens;
+
+    @Value("${document.chunk.size:1000}")
+    private int chunkSize; // Characters per chunk (character strategy)
+
+    @Value("${document.chunk.overlap:200}")
+    private int chunkOverlap; // Overlapping characters between chunks (character strategy)
+
+    @PostConstruct
+    void init() {
+        if (!strategy.equals("token") && !strategy.equals("character")) {
+            throw new IllegalStateException("Unknown document.chunk.strategy: " + strategy);
+        }
+        log.info("Chunking strategy: {}", strategy);
+    }
+
+    public TextChunker create(Consumer<TextChunk> sink) {
+        if (strategy.equals("character")) {
+            return new CharacterTextChunker(chunkSize, chunkOverlap, sink);
+        }
+        return new TokenTextChunker(tokenCounter, maxTokens, overlapTokens, sink);
+    }
+}
@@ -0,0 +1,327 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.PgVectorCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Embeds and stores the chunks of a document as they are produced.
+ * Chunks are embedded in provider-sized windows, with a bounded number of windows in flight,
+ * and inserted with plain JDBC batches (rewritten to multi-row inserts by the driver) in
+ * fixed-size transactions. No entities are created, and a session never holds more than
+ * {@code embedding-concurrency} windows plus one write batch, so memory stays flat for large documents.
+ * <p>
+ * Re-ingestion is incremental: every chunk carries a SHA-256 content hash, and the new chunk set is
+ * diffed against the stored one. Unchanged chunks are kept (and only re-indexed if they moved),
+ * removed chunks are deleted, and only added chunks are inserted. Added chunks whose text already
+ * exists in another chunk of the tenant reuse that embedding instead of calling the provider.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentChunkWriter {
+
+    private static final String INSERT_CHUNK = """
+        INSERT INTO document_chunks (tenant_id, document_id, chunk_index, content, content_hash, embedding,
+                                     token_count, metadata, created_at)
+        VALUES (:tenantId, :documentId, :chunkIndex, :content, :contentHash, CAST(CAST(:embedding AS real[]) AS vector),
+                :tokenCount, :metadata, :createdAt)
+        """;
+
+    private static final String UPDATE_CHUNK_POSITION =
+        "UPDATE document_chunks SET chunk_index = :chunkIndex, metadata = :metadata WHERE id = :id";
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final EmbeddingService embeddingService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TokenCounter tokenCounter;
+
+    @Value("${document.ingestion.embedding-window:64}")
+    private int embeddingWindow; // Chunks per embedding request
+
+    @Value("${document.ingestion.embedding-concurrency:4}")
+    private int embeddingConcurrency; // Embedding windows in flight per document
+
+    @Value("${document.ingestion.write-batch-size:256}")
+    private int writeBatchSize; // Chunks per insert transaction
+
+    /**
+     * Start writing the chunks of a document, diffing against its stored chunks.
+     * The session must be finished to store the last chunks and delete removed ones, and closed in any case.
+     */
+    public Session open(Long documentId, String tenantId) {
+        return new Session(documentId, tenantId, loadExistingChunks(documentId));
+    }
+
+    /**
+     * SHA-256 (hex) of a chunk's content, as stored in document_chunks.content_hash
+     */
+    public static String contentHash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Chunk writing session of one document. Not thread-safe.
+     */
+    public class Session implements AutoCloseable {
+
+        private final Long documentId;
+        private final String tenantId;
+        private final Timestamp createdAt = Timestamp.from(Instant.now());
+        private final Map<String, Deque<ExistingChunk>> existingByHash;
+
+        private final Deque<Window> inFlight = new ArrayDeque<>();
+        private final List<SqlParameterSource> inserts = new ArrayList<>();
+        private final List<SqlParameterSource> updates = new ArrayList<>();
+        private List<PendingChunk> window = new ArrayList<>();
+
+        private int nextChunkIndex = 0;
+        private int added = 0;
+        private int kept = 0;
+        private int reusedEmbeddings = 0;
+
+        private Session(Long documentId, String tenantId, Map<String, Deque<ExistingChunk>> existingByHash) {
+            this.documentId = documentId;
+            this.tenantId = tenantId;
+            this.existingByHash = existingByHash;
+        }
+
+        /**
+         * Queue a chunk; blocks when too many embedding windows are in flight
+         */
+        public void add(TextChunk chunk) {
+            int chunkIndex = nextChunkIndex++;
+            String hash = contentHash(chunk.content());
+            String metadata = metadata(chunk);
+
+            Deque<ExistingChunk> existing = existingByHash.get(hash);
+            ExistingChunk unchanged = existing != null ? existing.poll() : null;
+            if (unchanged != null) {
+                kept++;
+                if (unchanged.chunkIndex() != chunkIndex || !Objects.equals(unchanged.metadata(), metadata)) {
+                    updates.add(new MapSqlParameterSource()
+                        .addValue("id", unchanged.id())
+                        .addValue("chunkIndex", chunkIndex)
+                        .addValue("metadata", metadata));
+                    if (updates.size() >= writeBatchSize) {
+                        flush();
+                    }
+                }
+                return;
+            }
+
+            window.add(new PendingChunk(chunk.content(), hash, chunkIndex, metadata));
+            if (window.size() >= embeddingWindow) {
+                submitWindow();
+            }
+            while (inFlight.size() >= embeddingConcurrency) {
+                writeOldestWindow();
+            }
+        }
+
+        /**
+         * Embed and store all remaining chunks and delete chunks that are no longer part of the document
+         */
+        public Result finish() {
+            submitWindow();
+            while (!inFlight.isEmpty()) {
+                writeOldestWindow();
+            }
+            flush();
+            int removed = deleteRemovedChunks();
+
+            Result result = new Result(nextChunkIndex, added, kept, removed, reusedEmbeddings);
+            log.info("Stored chunks for document {}: {} added ({} reused embeddings), {} unchanged, {} removed",
+                     documentId, added, reusedEmbeddings, kept, removed);
+            return result;
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(pending -> pending.embeddings().cancel(false));
+            inFlight.clear();
+        }
+
+        private void submitWindow() {
+            if (window.isEmpty()) {
+                return;
+            }
+
+            List<PendingChunk> chunks = window;
+            window = new ArrayList<>();
+
+            // Identical text already embedded for this tenant (another document, or a moved chunk)
+            Map<String, float[]> reusable = findEmbeddingsByHash(tenantId,
+                chunks.stream().map(PendingChunk::contentHash).distinct().toList());
+            List<String> toEmbed = chunks.stream()
+                .filter(chunk -> !reusable.containsKey(chunk.contentHash()))
+                .map(PendingChunk::content)
+                .toList();
+            reusedEmbeddings += chunks.size() - toEmbed.size();
+
+            CompletableFuture<List<float[]>> embeddings = embeddingService.generateEmbeddingsAsync(toEmbed)
+                .thenApply(generated -> {
+                    Iterator<float[]> next = generated.iterator();
+                    return chunks.stream()
+                        .map(chunk -> reusable.containsKey(chunk.contentHash()) ? reusable.get(chunk.contentHash()) : next.next())
+                        .toList();
+                });
+            inFlight.add(new Window(chunks, embeddings));
+        }
+
+        private void writeOldestWindow() {
+            Window oldest = inFlight.poll();
+            List<float[]> embeddings = oldest.embeddings().join();
+
+            for (int i = 0; i < oldest.chunks().size(); i++) {
+                PendingChunk chunk = oldest.chunks().get(i);
+                float[] embedding = embeddings.get(i);
+                inserts.add(new MapSqlParameterSource()
+                    .addValue("tenantId", tenantId)
+                    .addValue("documentId", documentId)
+                    .addValue("chunkIndex", chunk.chunkIndex())
+                    .addValue("content", chunk.content())
+                    .addValue("contentHash", chunk.contentHash())
+                    .addValue("embedding", embedding.length > 0 ? embedding : null)
+                    .addValue("tokenCount", tokenCounter.count(chunk.content()))
+                    .addValue("metadata", chunk.metadata())
+                    .addValue("createdAt", createdAt));
+                added++;
+
+                if (inserts.size() >= writeBatchSize) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            if (inserts.isEmpty() && updates.isEmpty()) {
+                return;
+            }
+            SqlParameterSource[] insertRows = inserts.toArray(SqlParameterSource[]::new);
+            SqlParameterSource[] updateRows = updates.toArray(SqlParameterSource[]::new);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (insertRows.length > 0) {
+                    jdbcTemplate.batchUpdate(INSERT_CHUNK, insertRows);
+                }
+                if (updateRows.length > 0) {
+                    jdbcTemplate.batchUpdate(UPDATE_CHUNK_POSITION, updateRows);
+                }
+            });
+            inserts.clear();
+            updates.clear();
+        }
+
+        private int deleteRemovedChunks() {
+            List<Long> removedIds = existingByHash.values().stream()
+                .flatMap(Collection::stream)
+                .map(ExistingChunk::id)
+                .toList();
+
+            for (int start = 0; start < removedIds.size(); start += DELETE_BATCH_SIZE) {
+                List<Long> ids = removedIds.subList(start, Math.min(start + DELETE_BATCH_SIZE, removedIds.size()));
+                jdbcTemplate.update("DELETE FROM document_chunks WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+            }
+            existingByHash.clear();
+            return removedIds.size();
+        }
+    }
+
+    /**
+     * Outcome of a session. {@code changed} is false if the document's chunks are exactly as before.
+     */
+    public record Result(int chunkCount, int added, int kept, int removed, int reusedEmbeddings) {
+
+        public boolean changed() {
+            return added > 0 || removed > 0;
+        }
+    }
+
+    private Map<String, Deque<ExistingChunk>> loadExistingChunks(Long documentId) {
+        Map<String, Deque<ExistingChunk>> existing = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT id, chunk_index, content_hash, metadata FROM document_chunks
+            WHERE document_id = :documentId
+            ORDER BY chunk_index
+            """, new MapSqlParameterSource("documentId", documentId), rs -> {
+                existing.computeIfAbsent(rs.getString("content_hash"), hash -> new ArrayDeque<>())
+                    .add(new ExistingChunk(rs.getLong("id"), rs.getInt("chunk_index"), rs.getString("metadata")));
+            });
+        return existing;
+    }
+
+    private Map<String, float[]> findEmbeddingsByHash(String tenantId, List<String> hashes) {
+        Map<String, float[]> embeddings = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT DISTINCT ON (content_hash) content_hash, vector_send(embedding) AS embedding
+            FROM document_chunks
+            WHERE tenant_id = :tenantId
+            AND content_hash IN (:hashes)
+            AND embedding IS NOT NULL
+            """, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("hashes", hashes), rs -> {
+                embeddings.put(rs.getString("content_hash"), PgVectorCodec.decode(rs.getBytes("embedding")));
+            });
+        return embeddings;
+    }
+
+    /**
+     * Chunk metadata JSON: page range, heading and source URL, where known
+     */
+    private String metadata(TextChunk chunk) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        if (chunk.firstPage() != null) {
+            metadata.put("pageStart", chunk.firstPage());
+            metadata.put("pageEnd", chunk.lastPage());
+        }
+        if (chunk.heading() != null) {
+            metadata.put("heading", chunk.heading());
+        }
+        if (chunk.sourceUrl() != null) {
+            metadata.put("url", chunk.sourceUrl());
+        }
+        if (metadata.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize chunk metadata", e);
+        }
+    }
+
+    private record ExistingChunk(long id, int chunkIndex, String metadata) {
+    }
+
+    private record PendingChunk(String content, String contentHash, int chunkIndex, String metadata) {
+    }
+
+    private record Window(List<PendingChunk> chunks, CompletableFuture<List<float[]>> embeddings) {
+    }
+}
@@ -2,33 +2,24 @@ package com.chatq.assist.service;
 
 import com.chatq.assist.domain.dto.DocumentDto;
 import com.chatq.assist.domain.entity.Document;
-import com.chatq.assist.domain.entity.DocumentChunk;
+import com.chatq.assist.domain.entity.IngestionJob;
 import com.chatq.assist.domain.enums.DocumentStatus;
 import com.chatq.assist.domain.enums.DocumentType;
-import com.chatq.assist.repository.DocumentChunkRepository;
 import com.chatq.assist.repository.DocumentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.jsoup.Jsoup;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.net.URI;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -36,20 +27,20 @@ import java.util.UUID;
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
-    private final DocumentChunkRepository chunkRepository;
-    private final EmbeddingService embeddingService;
-
-    @Value("${document.storage.path:./uploads}")
-    private String storageBasePath;
-
-    @Value("${document.chunk.size:1000}")
-    private int chunkSize; // Characters per chunk
-
-    @Value("${document.chunk.overlap:200}")
-    private int chunkOverlap; // Overlapping characters between chunks
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
+    private final IngestionJobService ingestionJobService;
+    private final PdfTextExtractor pdfTextExtractor;
+    private final DocxTextExtractor docxTextExtractor;
+    private final ChunkerFactory chunkerFactory;
+    private final SitemapCrawler sitemapCrawler;
+    private final PageFetcher pageFetcher;
+    private final FileBlobStore blobStore;
+
+    // Paragraphs of text files longer than this are passed to the chunker in several blocks
+    private static final int MAX_TXT_BLOCK_CHARS = 8192;
 
     /**
-     * Upload and process a document file (PDF, DOCX, TXT)
+     * Upload a document file (PDF, DOCX, TXT) and queue it for ingestion
      */
     @Transactional
     public DocumentDto uploadDocument(MultipartFile file, String title, DocumentType documentType, String tenantId) {
@@ -67,311 +58,336 @@ public class DocumentService {
         document.setTitle(title);
         document.setDocumentType(documentType);
         document.setStatus(DocumentStatus.PENDING);
-        document.setFileSize(file.getSize());
         document.setMimeType(file.getContentType());
 
-        // Save to get ID
-        document = documentRepository.save(document);
-
         try {
-            // Store file on disk
-            String filePath = storeFile(file, document.getId(), tenantId);
-            document.setFilePath(filePath);
-            document = documentRepository.save(document);
-
-            // Process document asynchronously
-            processDocumentAsync(document.getId(), tenantId);
-
-            return toDto(document);
+            // Store file on disk, once per content
+            storeFile(document, file);
         } catch (Exception e) {
             log.error("Failed to upload document: {}", title, e);
-            document.setStatus(DocumentStatus.FAILED);
-            document.setErrorMessage("Upload failed: " + e.getMessage());
-            documentRepository.save(document);
             throw new RuntimeException("Failed to upload document", e);
         }
+        document = documentRepository.save(document);
+
+        // Processed by an IngestionWorker once this transaction commits
+        ingestionJobService.enqueue(document);
+
+        return toDto(document);
     }
 
     /**
-     * Ingest document from URL
+     * Queue a document from URL for ingestion. SITEMAP documents crawl all pages of the sitemap.
      */
     @Transactional
-    public DocumentDto ingestFromUrl(String url, String title, String tenantId) {
-        log.info("Ingesting document from URL: {} for tenant: {}", url, tenantId);
+    public DocumentDto ingestFromUrl(String url, String title, DocumentType documentType, String tenantId) {
+        log.info("Ingesting {} document from URL: {} for tenant: {}", documentType, url, tenantId);
 
         Document document = new Document();
         document.setTenantId(tenantId);
         document.setTitle(title);
         document.setSourceUrl(url);
-        document.setDocumentType(DocumentType.URL);
+        document.setDocumentType(documentType == DocumentType.SITEMAP ? DocumentType.SITEMAP : DocumentType.URL);
         document.setStatus(DocumentStatus.PENDING);
 
         document = documentRepository.save(document);
+        ingestionJobService.enqueue(document);
 
-        // Process URL asynchronously
-        processUrlAsync(document.getId(), url, tenantId);
+        return toDto(document);
+    }
+
+    /**
+     * Re-ingest a document from its current source (URL or stored file).
+     * Only chunks whose content changed are embedded again.
+     */
+    @Transactional
+    public DocumentDto refreshDocument(Long id, String tenantId) {
+        Document document = findOwnedDocument(id, tenantId);
+        log.info("Refreshing document: {} for tenant: {}", id, tenantId);
 
+        requeue(document);
         return toDto(document);
     }
 
     /**
-     * Process document asynchronously
+     * Re-ingest a URL document from a page the caller has already fetched (see UrlRefreshService).
+     * The extracted text is handed to the ingestion job, so the page is not downloaded again. The page's
+     * validators and text hash are only recorded once the job succeeds, so until then the next check
+     * still sees the page as changed.
      */
-    @Async
     @Transactional
-    public void processDocumentAsync(Long documentId, String tenantId) {
-        Document document = documentRepository.findById(documentId)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
+    public void refreshFetchedPage(Long id, PageFetcher.FetchedPage page, String text) {
+        Document document = documentRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
+        log.info("Document {} changed at {}, queueing re-ingestion", id, document.getSourceUrl());
 
-        try {
-            log.info("Processing document: {} (type: {})", document.getTitle(), document.getDocumentType());
-            document.setStatus(DocumentStatus.PROCESSING);
-            documentRepository.save(document);
+        document.setLastCheckedAt(Instant.now());
+        requeue(document, page, text);
+    }
 
-            // Extract text based on document type
-            String fullText = extractText(document);
+    /**
+     * Replace the file of an uploaded document and re-ingest it incrementally.
+     * The previous blob is released once the change is committed; a job still extracting it keeps
+     * its own reference (see {@link #beginIngestion}) and is followed by a job for the new file.
+     */
+    @Transactional
+    public DocumentDto replaceDocumentFile(Long id, MultipartFile file, String tenantId) {
+        Document document = findOwnedDocument(id, tenantId);
+        log.info("Replacing file of document: {} (size: {} bytes) for tenant: {}", id, file.getSize(), tenantId);
 
-            // Split into chunks
-            List<String> chunks = splitIntoChunks(fullText);
-            log.info("Split document into {} chunks", chunks.size());
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (document.getFilePath() == null) {
+            throw new IllegalArgumentException("Document has no file: " + id);
+        }
 
-            // Generate embeddings and save chunks
-            int chunkIndex = 0;
-            for (String chunkText : chunks) {
-                DocumentChunk chunk = new DocumentChunk();
-                chunk.setDocument(document);
-                chunk.setTenantId(tenantId);
-                chunk.setChunkIndex(chunkIndex++);
-                chunk.setContent(chunkText);
-                chunk.setTokenCount(estimateTokenCount(chunkText));
+        String previousPath = document.getFilePath();
+        String previousHash = document.getFileHash();
+        try {
+            storeFile(document, file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store document file", e);
+        }
+        document.setMimeType(file.getContentType());
 
-                // Generate embedding
-                float[] embedding = embeddingService.generateEmbedding(chunkText);
-                chunk.setEmbedding(embedding);
+        requeue(document);
+        deleteFile(previousPath, previousHash);
+        return toDto(document);
+    }
 
-                chunkRepository.save(chunk);
-            }
+    /**
+     * Ingestion step 1: mark the document as processing and pin its file for the job. Its stored chunks
+     * are kept and diffed against the new ones by DocumentChunkWriter. A completed document stays
+     * completed, so its chunks remain searchable while it is re-ingested.
+     */
+    @Transactional
+    public Document beginIngestion(IngestionJob job, String workerId) {
+        Long documentId = job.getDocumentId();
+        // Locked, so a concurrent file replacement either happens before (the new file is pinned) or after the pin
+        Document document = documentRepository.findByIdForUpdate(documentId)
+            .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
 
-            // Update document status
-            document.setChunkCount(chunks.size());
-            document.setStatus(DocumentStatus.COMPLETED);
-            documentRepository.save(document);
+        log.info("Processing document: {} (type: {})", document.getTitle(), document.getDocumentType());
 
-            log.info("Successfully processed document: {} ({} chunks)", document.getTitle(), chunks.size());
+        if (document.getFileHash() != null) {
+            ingestionJobService.pinFile(job, workerId, document.getFileHash());
+        }
+        if (document.getStatus() != DocumentStatus.COMPLETED) {
+            document.setStatus(DocumentStatus.PROCESSING);
+        }
+        document.setProgress(0);
+        return documentRepository.save(document);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to process document: {}", document.getTitle(), e);
-            document.setStatus(DocumentStatus.FAILED);
-            document.setErrorMessage("Processing failed: " + e.getMessage());
-            documentRepository.save(document);
+    /**
+     * Ingestion step 2: stream the text of a file or URL document through the chunker.
+     * Runs outside of any transaction, since fetching and parsing can take a while.
+     *
+     * @param job      the job ingesting the document; carries the page text if it was already fetched
+     * @param sink     receives the chunks in document order
+     * @param progress receives the percentage of the source extracted, where known
+     */
+    public void extractChunks(Document document, IngestionJob job, Consumer<TextChunk> sink, IntConsumer progress)
+            throws IOException {
+        TextChunker chunker = chunkerFactory.create(sink);
+
+        switch (document.getDocumentType()) {
+            case URL -> chunker.accept(TextBlock.of(job.getSourceText() != null ? job.getSourceText()
+                                                                                : fetchUrlText(document, job)));
+            case SITEMAP -> sitemapCrawler.crawl(document.getSourceUrl(),
+                page -> chunker.accept(new TextBlock(page.text(), null, page.title(), page.url())), progress);
+            default -> extractText(document, chunker::accept, progress);
         }
+
+        chunker.finish();
     }
 
     /**
-     * Process URL asynchronously
+     * Ingestion step 3 (after the chunks are written by DocumentChunkWriter): mark the document
+     * as completed, which makes its chunks searchable, and record the fetch state of the ingested page
      */
-    @Async
     @Transactional
-    public void processUrlAsync(Long documentId, String url, String tenantId) {
+    public void completeIngestion(IngestionJob job, DocumentChunkWriter.Result result) {
+        Long documentId = job.getDocumentId();
         Document document = documentRepository.findById(documentId)
             .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
 
-        try {
-            log.info("Fetching content from URL: {}", url);
-            document.setStatus(DocumentStatus.PROCESSING);
-            documentRepository.save(document);
-
-            // Fetch and parse HTML
-            org.jsoup.nodes.Document jsoupDoc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (compatible; ChatQ-Assist/1.0)")
-                .timeout(10000)
-                .get();
-
-            // Extract text content
-            String fullText = jsoupDoc.body().text();
-            log.info("Extracted {} characters from URL", fullText.length());
-
-            // Split into chunks
-            List<String> chunks = splitIntoChunks(fullText);
-            log.info("Split URL content into {} chunks", chunks.size());
-
-            // Generate embeddings and save chunks
-            int chunkIndex = 0;
-            for (String chunkText : chunks) {
-                DocumentChunk chunk = new DocumentChunk();
-                chunk.setDocument(document);
-                chunk.setTenantId(tenantId);
-                chunk.setChunkIndex(chunkIndex++);
-                chunk.setContent(chunkText);
-                chunk.setTokenCount(estimateTokenCount(chunkText));
-
-                // Generate embedding
-                float[] embedding = embeddingService.generateEmbedding(chunkText);
-                chunk.setEmbedding(embedding);
-
-                chunkRepository.save(chunk);
-            }
-
-            // Update document status
-            document.setChunkCount(chunks.size());
-            document.setStatus(DocumentStatus.COMPLETED);
-            documentRepository.save(document);
+        if (job.getSourceContentHash() != null) {
+            document.setEtag(job.getSourceEtag());
+            document.setLastModified(job.getSourceLastModified());
+            document.setContentHash(job.getSourceContentHash());
+            document.setLastCheckedAt(Instant.now());
+        }
 
-            log.info("Successfully processed URL: {} ({} chunks)", url, chunks.size());
+        int chunkCount = result.chunkCount();
+        document.setChunkCount(chunkCount);
+        document.setProgress(100);
+        document.setStatus(DocumentStatus.COMPLETED);
+        document.setErrorMessage(null);
+        documentRepository.save(document);
 
-        } catch (Exception e) {
-            log.error("Failed to process URL: {}", url, e);
-            document.setStatus(DocumentStatus.FAILED);
-            document.setErrorMessage("URL processing failed: " + e.getMessage());
-            documentRepository.save(document);
+        // Cached answers only need to be invalidated if the searchable content changed
+        if (result.changed()) {
+            knowledgeBaseVersionService.bump(document.getTenantId());
         }
+
+        log.info("Successfully processed document: {} ({} chunks)", document.getTitle(), chunkCount);
     }
 
-    /**
-     * Extract text from document based on type
-     */
-    private String extractText(Document document) throws IOException {
-        String filePath = document.getFilePath();
-        if (filePath == null) {
-            throw new IllegalStateException("Document file path is null");
-        }
+    private Document findOwnedDocument(Long id, String tenantId) {
+        Document document = documentRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
 
-        File file = new File(filePath);
-        if (!file.exists()) {
-            throw new FileNotFoundException("Document file not found: " + filePath);
+        if (!document.getTenantId().equals(tenantId)) {
+            throw new RuntimeException("Access denied");
         }
-
-        return switch (document.getDocumentType()) {
-            case PDF -> extractTextFromPdf(file);
-            case DOCX -> extractTextFromDocx(file);
-            case TXT -> extractTextFromTxt(file);
-            default -> throw new UnsupportedOperationException(
-                "Unsupported document type: " + document.getDocumentType()
-            );
-        };
+        return document;
     }
 
     /**
-     * Extract text from PDF using Apache PDFBox
+     * Queue a document for re-ingestion, as a follow-up if a job is running. A completed document keeps
+     * its status, so its current chunks stay searchable until the new ones are written.
      */
-    private String extractTextFromPdf(File file) throws IOException {
-        log.debug("Extracting text from PDF: {}", file.getName());
-
-        try (PDDocument document = Loader.loadPDF(file)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            log.debug("Extracted {} characters from PDF", text.length());
-            return text;
+    private void requeue(Document document) {
+        requeue(document, null, null);
+    }
+
+    private void requeue(Document document, PageFetcher.FetchedPage page, String sourceText) {
+        if (ingestionJobService.hasQueuedJob(document.getId())) {
+            log.info("Document {} is already queued for ingestion", document.getId());
+            return;
+        }
+        if (document.getStatus() != DocumentStatus.COMPLETED) {
+            document.setStatus(DocumentStatus.PENDING);
+            document.setProgress(0);
+            documentRepository.save(document);
         }
+        ingestionJobService.enqueue(document, page, sourceText);
     }
 
     /**
-     * Extract text from DOCX using Apache POI
+     * Fetch a web page and extract its text content. The response's validators and the text hash
+     * are kept on the job and recorded for the scheduled refresh (see UrlRefreshService) once it succeeds.
      */
-    private String extractTextFromDocx(File file) throws IOException {
-        log.debug("Extracting text from DOCX: {}", file.getName());
+    private String fetchUrlText(Document document, IngestionJob job) throws IOException {
+        String url = document.getSourceUrl();
+        log.info("Fetching content from URL: {}", url);
 
-        try (FileInputStream fis = new FileInputStream(file);
-             XWPFDocument document = new XWPFDocument(fis)) {
-
-            StringBuilder text = new StringBuilder();
-            for (XWPFParagraph paragraph : document.getParagraphs()) {
-                text.append(paragraph.getText()).append("\n");
-            }
-
-            String result = text.toString();
-            log.debug("Extracted {} characters from DOCX", result.length());
-            return result;
+        PageFetcher.FetchedPage page = pageFetcher.fetch(URI.create(url));
+        if (!page.isSuccess()) {
+            throw new IOException("URL returned HTTP " + page.status() + ": " + url);
         }
+
+        String fullText = pageText(page);
+        job.setFetchState(page.etag(), page.lastModified(), DocumentChunkWriter.contentHash(fullText));
+        log.info("Extracted {} characters from URL", fullText.length());
+        return fullText;
     }
 
     /**
-     * Extract text from TXT file
+     * Text of a fetched web page, as ingested for URL documents
      */
-    private String extractTextFromTxt(File file) throws IOException {
-        log.debug("Reading text file: {}", file.getName());
-        String text = Files.readString(file.toPath());
-        log.debug("Read {} characters from TXT", text.length());
-        return text;
+    static String pageText(PageFetcher.FetchedPage page) throws IOException {
+        org.jsoup.nodes.Document html = page.parseHtml();
+        return html.body() != null ? html.body().text() : "";
     }
 
     /**
-     * Split text into overlapping chunks for better context preservation
+     * Extract text from document based on type
      */
-    private List<String> splitIntoChunks(String text) {
-        List<String> chunks = new ArrayList<>();
+    private void extractText(Document document, Consumer<TextBlock> sink, IntConsumer progress) throws IOException {
+        String filePath = document.getFilePath();
+        if (filePath == null) {
+            throw new IllegalStateException("Document file path is null");
+        }
 
-        if (text == null || text.isEmpty()) {
-            return chunks;
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new FileNotFoundException("Document file not found: " + filePath);
         }
 
-        int start = 0;
-        while (start < text.length()) {
-            int end = Math.min(start + chunkSize, text.length());
+        String fileHash = document.getFileHash();
+        if (fileHash == null) {
+            extractFile(file, document.getDocumentType(), sink, progress);
+            return;
+        }
 
-            // Try to break at sentence boundary
-            if (end < text.length()) {
-                int lastPeriod = text.lastIndexOf('.', end);
-                int lastQuestion = text.lastIndexOf('?', end);
-                int lastExclamation = text.lastIndexOf('!', end);
-                int sentenceEnd = Math.max(lastPeriod, Math.max(lastQuestion, lastExclamation));
+        // Documents with the same file share the extracted text
+        if (blobStore.readText(fileHash, document.getDocumentType(), sink)) {
+            log.info("Using cached text of blob {} for document {}", fileHash, document.getId());
+            return;
+        }
+        try (FileBlobStore.TextCacheWriter cache = blobStore.openTextCache(fileHash, document.getDocumentType())) {
+            extractFile(file, document.getDocumentType(), block -> {
+                cache.accept(block);
+                sink.accept(block);
+            }, progress);
+            cache.commit();
+        }
+    }
 
-                if (sentenceEnd > start) {
-                    end = sentenceEnd + 1;
-                }
-            }
+    private void extractFile(File file, DocumentType documentType, Consumer<TextBlock> sink, IntConsumer progress)
+            throws IOException {
+        switch (documentType) {
+            case PDF -> pdfTextExtractor.extract(file, sink, progress);
+            case DOCX -> docxTextExtractor.extract(file, sink);
+            case TXT -> extractTextFromTxt(file, sink, progress);
+            default -> throw new UnsupportedOperationException("Unsupported document type: " + documentType);
+        }
+    }
 
-            String chunk = text.substring(start, end).trim();
-            if (!chunk.isEmpty()) {
-                chunks.add(chunk);
-            }
+    /**
+     * Read a TXT file line by line, one block per paragraph (separated by blank lines)
+     */
+    private void extractTextFromTxt(File file, Consumer<TextBlock> sink, IntConsumer progress) throws IOException {
+        log.debug("Reading text file: {}", file.getName());
 
-            // Move start position forward, minus overlap for context
-            // Ensure we always move forward and don't go negative
-            int nextStart = end - chunkOverlap;
-            if (nextStart <= start) {
-                // If overlap would not move us forward, just move to end
-                nextStart = end;
-            }
+        long fileSize = Math.max(1, file.length());
+        long charsRead = 0;
+        StringBuilder block = new StringBuilder();
 
-            start = nextStart;
-            if (start >= text.length()) {
-                break;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    block.append(line).append('\n');
+                }
+                if ((line.isBlank() && !block.isEmpty()) || block.length() >= MAX_TXT_BLOCK_CHARS) {
+                    charsRead += block.length();
+                    sink.accept(TextBlock.of(block.toString()));
+                    block.setLength(0);
+                    progress.accept((int) Math.min(100, charsRead * 100 / fileSize));
+                }
             }
         }
-
-        return chunks;
+        sink.accept(TextBlock.of(block.toString()));
     }
 
     /**
-     * Store uploaded file on disk
+     * Store uploaded file in the blob store and point the document to it
      */
-    private String storeFile(MultipartFile file, Long documentId, String tenantId) throws IOException {
-        // Create directory structure: uploads/{tenantId}/{documentId}/
-        Path tenantDir = Paths.get(storageBasePath, tenantId, documentId.toString());
-        Files.createDirectories(tenantDir);
-
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String filename = UUID.randomUUID().toString() + extension;
-
-        // Store file
-        Path filePath = tenantDir.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        log.info("Stored file: {}", filePath);
-        return filePath.toString();
+    private void storeFile(Document document, MultipartFile file) throws IOException {
+        FileBlobStore.StoredBlob blob = blobStore.store(file);
+        document.setFileHash(blob.hash());
+        document.setFilePath(blob.path().toString());
+        document.setFileSize(blob.size());
     }
 
     /**
-     * Estimate token count (rough approximation: 1 token ≈ 4 characters)
+     * Release a document's blob once the transaction has committed, or delete its file right away
+     * if it was stored before the blob store existed
      */
-    private int estimateTokenCount(String text) {
-        return text.length() / 4;
+    private void deleteFile(String filePath, String fileHash) {
+        if (fileHash != null) {
+            blobStore.releaseAfterCommit(fileHash);
+        } else if (filePath != null) {
+            try {
+                Files.deleteIfExists(Paths.get(filePath));
+                log.info("Deleted file: {}", filePath);
+            } catch (IOException e) {
+                log.warn("Failed to delete file: {}", filePath, e);
+            }
+        }
     }
 
     /**
@@ -410,18 +426,13 @@ public class DocumentService {
             throw new RuntimeException("Access denied");
         }
 
-        // Delete file from disk
-        if (document.getFilePath() != null) {
-            try {
-                Files.deleteIfExists(Paths.get(document.getFilePath()));
-                log.info("Deleted file: {}", document.getFilePath());
-            } catch (IOException e) {
-                log.warn("Failed to delete file: {}", document.getFilePath(), e);
-            }
-        }
-
-        // Delete from database (cascades to chunks)
+        // Delete from database (cascades to chunks and jobs)
+        ingestionJobService.releasePinnedFiles(id);
         documentRepository.delete(document);
+
+        // Delete file from disk, unless other documents share it
+        deleteFile(document.getFilePath(), document.getFileHash());
+        knowledgeBaseVersionService.bump(tenantId);
         log.info("Deleted document: {}", id);
     }
 
@@ -436,6 +447,7 @@ public class DocumentService {
         dto.setDocumentType(document.getDocumentType());
         dto.setStatus(document.getStatus());
         dto.setChunkCount(document.getChunkCount());
+        dto.setProgress(document.getProgress());
         dto.setErrorMessage(document.getErrorMessage());
         dto.setCreatedAt(document.getCreatedAt());
         dto.setUpdatedAt(document.getUpdatedAt());
@@ -0,0 +1,291 @@
+package com.chatq.assist.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streaming DOCX text extraction.
+ * Reads word/document.xml with StAX straight from the OOXML package instead of building an
+ * XWPFDocument DOM, so heap use does not grow with the document. Emits one {@link TextBlock} per
+ * paragraph and per table row (cells joined with " | "), each carrying the current heading path
+ * (e.g. "Installation > Requirements"). Heading levels come from the paragraph style, resolved
+ * through styles.xml, or from an explicit outline level. Paragraphs nested in a paragraph (text boxes)
+ * are emitted as blocks of their own.
+ */
+@Component
+@Slf4j
+public class DocxTextExtractor {
+
+    private static final String WORDML_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final int MAX_HEADING_LEVELS = 9;
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public DocxTextExtractor() {
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Extract the paragraphs and tables of a DOCX file in document order
+     */
+    public void extract(File file, Consumer<TextBlock> sink) throws IOException {
+        log.debug("Extracting text from DOCX: {}", file.getName());
+
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            PackagePart documentPart = mainDocumentPart(pkg);
+            Map<String, Integer> headingStyles = readHeadingStyles(documentPart);
+
+            try (InputStream in = documentPart.getInputStream()) {
+                new BodyReader(headingStyles, sink).read(xmlInputFactory.createXMLStreamReader(in));
+            }
+        } catch (InvalidFormatException | XMLStreamException e) {
+            throw new IOException("Invalid DOCX file: " + file.getName(), e);
+        }
+    }
+
+    private PackagePart mainDocumentPart(OPCPackage pkg) throws InvalidFormatException {
+        PackageRelationshipCollection relationships = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+        if (relationships.size() == 0) {
+            relationships = pkg.getRelationshipsByType(PackageRelationshipTypes.STRICT_CORE_DOCUMENT);
+        }
+        if (relationships.size() == 0) {
+            throw new InvalidFormatException("No main document part");
+        }
+        return pkg.getPart(relationships.getRelationship(0));
+    }
+
+    /**
+     * Map paragraph style ids to heading levels (0-based). Built-in heading styles keep their
+     * English names ("heading 1") in every Word locale, while the style ids are localized.
+     */
+    private Map<String, Integer> readHeadingStyles(PackagePart documentPart)
+            throws InvalidFormatException, IOException, XMLStreamException {
+        Map<String, Integer> headingStyles = new HashMap<>();
+
+        PackageRelationshipCollection relationships = documentPart.getRelationshipsByType(PackageRelationshipTypes.STYLE_PART);
+        if (relationships.size() == 0) {
+            return headingStyles;
+        }
+
+        try (InputStream in = documentPart.getRelatedPart(relationships.getRelationship(0)).getInputStream()) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            String styleId = null;
+            Integer level = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "style" -> {
+                            styleId = attribute(reader, "styleId");
+                            level = null;
+                        }
+                        case "name" -> {
+                            String name = Objects.toString(attribute(reader, "val"), "").toLowerCase(Locale.ROOT);
+                            if (name.equals("title")) {
+                                level = 0;
+                            } else if (name.matches("heading [1-9]")) {
+                                level = name.charAt(name.length() - 1) - '1';
+                            }
+                        }
+                        case "outlineLvl" -> level = parseLevel(attribute(reader, "val"));
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("style")) {
+                    if (styleId != null && level != null) {
+                        headingStyles.put(styleId, level);
+                    }
+                    styleId = null;
+                }
+            }
+            reader.close();
+        }
+        return headingStyles;
+    }
+
+    private static String attribute(XMLStreamReader reader, String localName) {
+        String value = reader.getAttributeValue(WORDML_NS, localName);
+        return value != null ? value : reader.getAttributeValue(null, localName);
+    }
+
+    private static Integer parseLevel(String value) {
+        try {
+            int level = Integer.parseInt(value);
+            return level >= 0 && level < MAX_HEADING_LEVELS ? level : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * State machine over the events of word/document.xml
+     */
+    private static class BodyReader {
+
+        private final Map<String, Integer> headingStyles;
+        private final Consumer<TextBlock> sink;
+
+        private final String[] headingPath = new String[MAX_HEADING_LEVELS];
+        private String currentHeading;
+
+        // Open paragraphs, innermost first; a text box's paragraphs are nested in the paragraph anchoring it
+        private final Deque<Paragraph> paragraphs = new ArrayDeque<>();
+
+        private int tableDepth;
+        private final StringBuilder cell = new StringBuilder();
+        private final List<String> row = new ArrayList<>();
+
+        BodyReader(Map<String, Integer> headingStyles, Consumer<TextBlock> sink) {
+            this.headingStyles = headingStyles;
+            this.sink = sink;
+        }
+
+        void read(XMLStreamReader reader) throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement(reader);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    endElement(reader.getLocalName());
+                }
+            }
+            reader.close();
+        }
+
+        private void startElement(XMLStreamReader reader) throws XMLStreamException {
+            String localName = reader.getLocalName();
+            if (localName.equals("p")) {
+                paragraphs.push(new Paragraph());
+                return;
+            }
+
+            Paragraph paragraph = paragraphs.peek();
+            switch (localName) {
+                case "pStyle" -> {
+                    Integer level = headingStyles.get(attribute(reader, "val"));
+                    if (level != null && paragraph != null) {
+                        paragraph.level = level;
+                    }
+                }
+                case "outlineLvl" -> {
+                    if (paragraph != null) {
+                        paragraph.level = parseLevel(attribute(reader, "val"));
+                    }
+                }
+                case "r" -> {
+                    if (paragraph != null) {
+                        paragraph.runDepth++;
+                    }
+                }
+                case "t" -> {
+                    String text = reader.getElementText();
+                    if (paragraph != null) {
+                        paragraph.text.append(text);
+                    }
+                }
+                // Only inside runs: in the paragraph properties, tab elements define tab stops
+                case "tab" -> {
+                    if (paragraph != null && paragraph.runDepth > 0) {
+                        paragraph.text.append('\t');
+                    }
+                }
+                case "br", "cr" -> {
+                    if (paragraph != null && paragraph.runDepth > 0) {
+                        paragraph.text.append('\n');
+                    }
+                }
+                case "tbl" -> tableDepth++;
+                case "tc" -> {
+                    if (tableDepth == 1) {
+                        cell.setLength(0);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void endElement(String localName) {
+            switch (localName) {
+                case "p" -> {
+                    if (!paragraphs.isEmpty()) {
+                        endParagraph(paragraphs.pop());
+                    }
+                }
+                case "r" -> {
+                    if (!paragraphs.isEmpty()) {
+                        paragraphs.peek().runDepth--;
+                    }
+                }
+                case "tc" -> {
+                    if (tableDepth == 1) {
+                        row.add(cell.toString().trim());
+                    }
+                }
+                case "tr" -> {
+                    if (tableDepth == 1) {
+                        emit(String.join(" | ", row));
+                        row.clear();
+                    }
+                }
+                case "tbl" -> tableDepth--;
+                default -> {
+                }
+            }
+        }
+
+        private void endParagraph(Paragraph paragraph) {
+            String text = paragraph.text.toString().trim();
+            if (text.isEmpty()) {
+                return;
+            }
+
+            if (tableDepth > 0) {
+                // Paragraphs of nested tables are flattened into the outer cell
+                if (!cell.isEmpty()) {
+                    cell.append(' ');
+                }
+                cell.append(text);
+                return;
+            }
+
+            if (paragraph.level != null) {
+                headingPath[paragraph.level] = text;
+                Arrays.fill(headingPath, paragraph.level + 1, MAX_HEADING_LEVELS, null);
+                currentHeading = String.join(" > ", Arrays.stream(headingPath).filter(Objects::nonNull).toList());
+            }
+            emit(text);
+        }
+
+        private void emit(String text) {
+            if (!text.isBlank()) {
+                sink.accept(new TextBlock(text, null, currentHeading));
+            }
+        }
+    }
+
+    private static class Paragraph {
+        private final StringBuilder text = new StringBuilder();
+        private Integer level;
+        private int runDepth;
+    }
+}
@@ -0,0 +1,244 @@
+package com.chatq.assist.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Micro-batching front end for the embedding model.
+ * Texts submitted by concurrent callers are collected for up to {@code max-wait-ms} (or until
+ * {@code max-batch-size} texts / {@code max-batch-tokens} tokens are reached) and sent as
+ * one embedAll request. Each caller gets its own future, completed from the shared response.
+ * <p>
+ * Texts are queued in two lanes: interactive texts (chat questions) are always taken first, bulk texts
+ * (document chunks) fill at most {@code max-bulk-per-batch} places of a batch. A batch is only formed once one of
+ * the {@code concurrency} request slots is free, so queued bulk texts never build up ahead of a question.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingBatcher {
+
+    /**
+     * Lane of a submitted text
+     */
+    public enum Priority {
+        INTERACTIVE,
+        BULK
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final TokenCounter tokenCounter;
+
+    @Value("${chat.embedding.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.embedding.batch.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${chat.embedding.batch.max-batch-size:64}")
+    private int maxBatchSize;
+
+    // Places of a batch open to bulk texts; the rest stays free for interactive texts
+    @Value("${chat.embedding.batch.max-bulk-per-batch:48}")
+    private int maxBulkPerBatch;
+
+    // Guard against the provider's per-request token limit, counted with the embedding model's tokenizer
+    @Value("${chat.embedding.batch.max-batch-tokens:50000}")
+    private int maxBatchTokens;
+
+    @Value("${chat.embedding.batch.concurrency:4}")
+    private int concurrency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Deque<PendingEmbedding> interactive = new ArrayDeque<>();
+    private final Deque<PendingEmbedding> bulk = new ArrayDeque<>();
+
+    private Semaphore requestSlots;
+    private ExecutorService requestExecutor;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("Embedding batching disabled");
+            return;
+        }
+
+        maxBulkPerBatch = Math.max(1, maxBulkPerBatch);
+
+        // Bounded number of embedAll requests in flight; texts wait in their lanes until a slot is free
+        requestSlots = new Semaphore(concurrency);
+        AtomicInteger threadCounter = new AtomicInteger();
+        requestExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "embedding-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        log.info("Embedding batcher started (max wait: {}ms, max batch size: {}, max bulk per batch: {}, max batch tokens: {})",
+                 maxWaitMs, maxBatchSize, maxBulkPerBatch, maxBatchTokens);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
+        lock.lock();
+        try {
+            IllegalStateException shutDown = new IllegalStateException("Embedding batcher shut down");
+            interactive.forEach(pending -> pending.future().completeExceptionally(shutDown));
+            bulk.forEach(pending -> pending.future().completeExceptionally(shutDown));
+            interactive.clear();
+            bulk.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue a text for embedding
+     */
+    public CompletableFuture<float[]> submit(String text, Priority priority) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(embeddingModel.embed(text).content().vector());
+        }
+
+        PendingEmbedding pending = new PendingEmbedding(text, Math.max(1, tokenCounter.count(text)),
+                                                         new CompletableFuture<>());
+        lock.lock();
+        try {
+            (priority == Priority.INTERACTIVE ? interactive : bulk).add(pending);
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return pending.future();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                requestSlots.acquire();
+                List<PendingEmbedding> batch;
+                try {
+                    batch = nextBatch();
+                } catch (InterruptedException e) {
+                    requestSlots.release();
+                    throw e;
+                }
+                requestExecutor.execute(() -> embedBatch(batch));
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RejectedExecutionException e) {
+                log.warn("Embedding batch rejected - batcher is shutting down");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait for the first text, then collect more until the batch is full or max-wait-ms has passed.
+     * Interactive texts are taken before bulk texts.
+     */
+    private List<PendingEmbedding> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (interactive.isEmpty() && bulk.isEmpty()) {
+                pendingAvailable.await();
+            }
+
+            List<PendingEmbedding> batch = new ArrayList<>();
+            int batchTokens = 0;
+            int bulkCount = 0;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+            while (batch.size() < maxBatchSize) {
+                Deque<PendingEmbedding> lane = !interactive.isEmpty() ? interactive
+                    : bulkCount < maxBulkPerBatch && !bulk.isEmpty() ? bulk
+                    : null;
+
+                if (lane == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    pendingAvailable.awaitNanos(remaining);
+                    continue;
+                }
+
+                PendingEmbedding next = lane.peek();
+                if (!batch.isEmpty() && batchTokens + next.tokens() > maxBatchTokens) {
+                    // Would exceed the token guard - stays queued for the next batch
+                    break;
+                }
+                lane.poll();
+                batch.add(next);
+                batchTokens += next.tokens();
+                if (lane == bulk) {
+                    bulkCount++;
+                }
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void embedBatch(List<PendingEmbedding> batch) {
+        try {
+            List<TextSegment> segments = batch.stream()
+                .map(pending -> TextSegment.from(pending.text()))
+                .toList();
+
+            List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+            if (embeddings.size() != batch.size()) {
+                throw new IllegalStateException("Embedding provider returned " + embeddings.size() +
+                                                " embeddings for " + batch.size() + " texts");
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(embeddings.get(i).vector());
+            }
+            log.debug("Embedded batch of {} texts", batch.size());
+
+        } catch (Exception e) {
+            log.error("Embedding batch of {} texts failed", batch.size(), e);
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+        } finally {
+            requestSlots.release();
+        }
+    }
+
+    private record PendingEmbedding(String text, int tokens, CompletableFuture<float[]> future) {
+    }
+}
@@ -1,22 +1,29 @@
 package com.chatq.assist.service;
 
-import dev.langchain4j.data.embedding.Embedding;
-import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.model.output.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmbeddingService {
 
-    private final EmbeddingModel embeddingModel;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final PersistentEmbeddingCache persistentEmbeddingCache;
 
     /**
-     * Generate embedding vector for given text using OpenAI
+     * Generate embedding vector for given text using OpenAI.
+     * Heap cache first ("embeddings"), then the persistent cache; on a miss the request is
+     * micro-batched with concurrent callers by {@link EmbeddingBatcher} and written behind to the persistent cache.
+     * Sent in the interactive lane, ahead of queued document chunks.
      */
     @Cacheable("embeddings")
     public float[] generateEmbedding(String text) {
@@ -26,17 +33,63 @@ public class EmbeddingService {
         }
 
         try {
-            log.debug("Generating embedding for text: {}", text.substring(0, Math.min(50, text.length())));
-            Response<Embedding> response = embeddingModel.embed(text);
-            Embedding embedding = response.content();
+            Optional<float[]> persisted = persistentEmbeddingCache.get(text);
+            if (persisted.isPresent()) {
+                return persisted.get();
+            }
 
-            return embedding.vector();
+            log.debug("Generating embedding for text: {}", text.substring(0, Math.min(50, text.length())));
+            float[] embedding = embeddingBatcher.submit(text, EmbeddingBatcher.Priority.INTERACTIVE).join();
+            persistentEmbeddingCache.put(text, embedding);
+            return embedding;
         } catch (Exception e) {
             log.error("Failed to generate embedding for text: {}", text, e);
             throw new RuntimeException("Failed to generate embedding", e);
         }
     }
 
+    /**
+     * Generate embeddings for several texts (e.g. document chunks).
+     * All texts are queued at once in the bulk lane, so the batcher sends them in as few requests as its limits allow.
+     * Blank texts get an empty vector, like in {@link #generateEmbedding(String)}.
+     * Texts already in the persistent cache are not sent to the provider.
+     */
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        try {
+            return generateEmbeddingsAsync(texts).join();
+        } catch (Exception e) {
+            log.error("Failed to generate embeddings for {} texts", texts.size(), e);
+            throw new RuntimeException("Failed to generate embeddings", e);
+        }
+    }
+
+    /**
+     * Like {@link #generateEmbeddings(List)}, without blocking the caller. Lets callers keep
+     * several batches in flight while they process earlier results.
+     */
+    public CompletableFuture<List<float[]>> generateEmbeddingsAsync(List<String> texts) {
+        Map<String, float[]> persisted = persistentEmbeddingCache.getAll(
+            texts.stream().filter(text -> text != null && !text.isBlank()).toList());
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                futures.add(CompletableFuture.completedFuture(new float[0]));
+            } else if (persisted.containsKey(text)) {
+                futures.add(CompletableFuture.completedFuture(persisted.get(text)));
+            } else {
+                futures.add(embeddingBatcher.submit(text, EmbeddingBatcher.Priority.BULK)
+                    .thenApply(embedding -> {
+                        persistentEmbeddingCache.put(text, embedding);
+                        return embedding;
+                    }));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
     /**
      * Generate embedding for FAQ entry (question + answer + tags)
      */
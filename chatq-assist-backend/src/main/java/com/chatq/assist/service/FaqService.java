@@ -19,6 +19,7 @@ public class FaqService {
 
     private final FaqRepository faqRepository;
     private final EmbeddingService embeddingService;
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
 
     public List<FaqEntryDto> getAllFaqs(String tenantId) {
         return faqRepository.findByTenantIdOrderByDisplayOrderAsc(tenantId)
@@ -46,7 +47,9 @@ public class FaqService {
         );
         entity.setEmbedding(embedding);
 
-        return toDto(faqRepository.save(entity));
+        FaqEntry saved = faqRepository.save(entity);
+        knowledgeBaseVersionService.bump(tenantId);
+        return toDto(saved);
     }
 
     @Transactional
@@ -68,12 +71,17 @@ public class FaqService {
         );
         entity.setEmbedding(embedding);
 
-        return toDto(faqRepository.save(entity));
+        FaqEntry saved = faqRepository.save(entity);
+        knowledgeBaseVersionService.bump(saved.getTenantId());
+        return toDto(saved);
     }
 
     @Transactional
     public void deleteFaq(Long id) {
-        faqRepository.deleteById(id);
+        faqRepository.findById(id).ifPresent(entity -> {
+            faqRepository.delete(entity);
+            knowledgeBaseVersionService.bump(entity.getTenantId());
+        });
     }
 
     /**
@@ -111,6 +119,7 @@ public class FaqService {
 
         // Batch save all FAQs in single transaction
         List<FaqEntry> savedEntities = faqRepository.saveAll(entities);
+        knowledgeBaseVersionService.bump(tenantId);
 
         log.info("Successfully created {} FAQs in batch", savedEntities.size());
 
@@ -0,0 +1,284 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.enums.DocumentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressable storage for uploaded files.
+ * Uploads are hashed (SHA-256) while they are streamed to a temp file and then moved to
+ * {@code blobs/{hash[0..2]}/{hash}}; a file that is already stored is not written again. The
+ * file_blobs table counts the documents referencing each blob, and a blob is deleted with its
+ * last document. Row locks on file_blobs serialize storing and deleting the same content.
+ * <p>
+ * Next to each blob, the extracted text is cached as a sidecar (gzipped JSON lines of
+ * {@link TextBlock}s), so documents with the same file skip extraction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileBlobStore {
+
+    // Bump when extraction output changes, so stale text sidecars are ignored
+    private static final int TEXT_CACHE_VERSION = 1;
+
+    private static final String ACQUIRE = """
+        INSERT INTO file_blobs (hash, size, ref_count) VALUES (:hash, :size, 1)
+        ON CONFLICT (hash) DO UPDATE SET ref_count = file_blobs.ref_count + 1
+        """;
+
+    private static final String RELEASE =
+        "UPDATE file_blobs SET ref_count = ref_count - 1 WHERE hash = :hash RETURNING ref_count";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${document.storage.path:./uploads}")
+    private String storageBasePath;
+
+    /**
+     * A stored file. {@code duplicate} is true if the content was already stored.
+     */
+    public record StoredBlob(String hash, Path path, long size, boolean duplicate) {
+    }
+
+    /**
+     * Store an upload and add a reference to it. Joins the caller's transaction; the blob's row
+     * stays locked until it commits.
+     */
+    @Transactional
+    public StoredBlob store(MultipartFile file) throws IOException {
+        Path tempDir = blobRoot().resolve("tmp");
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".tmp");
+
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            // Waits for a concurrent store or release of the same content
+            jdbcTemplate.update(ACQUIRE, new MapSqlParameterSource("hash", hash).addValue("size", size));
+
+            Path path = path(hash);
+            boolean duplicate = Files.exists(path);
+            if (duplicate) {
+                log.info("Upload {} already stored as blob {}", file.getOriginalFilename(), hash);
+            } else {
+                Files.createDirectories(path.getParent());
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Stored upload {} as blob {} ({} bytes)", file.getOriginalFilename(), hash, size);
+            }
+            return new StoredBlob(hash, path, size, duplicate);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remove a reference to a blob; the last reference deletes the file and its text sidecars
+     */
+    @Transactional
+    public void release(String hash) {
+        List<Integer> refCount = jdbcTemplate.queryForList(RELEASE, new MapSqlParameterSource("hash", hash), Integer.class);
+        if (refCount.isEmpty() || refCount.get(0) > 0) {
+            return;
+        }
+
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE hash = :hash", new MapSqlParameterSource("hash", hash));
+        Path path = path(hash);
+        try (var sidecars = Files.newDirectoryStream(path.getParent(), hash + ".*")) {
+            for (Path sidecar : sidecars) {
+                Files.deleteIfExists(sidecar);
+            }
+            Files.deleteIfExists(path);
+            log.info("Deleted blob {}", hash);
+        } catch (IOException e) {
+            log.warn("Failed to delete blob {}", hash, e);
+        }
+    }
+
+    /**
+     * Add a reference to a stored blob. Returns false if the blob was deleted in the meantime.
+     */
+    @Transactional
+    public boolean acquire(String hash) {
+        return jdbcTemplate.update("UPDATE file_blobs SET ref_count = ref_count + 1 WHERE hash = :hash",
+                                   new MapSqlParameterSource("hash", hash)) > 0;
+    }
+
+    /**
+     * Remove a reference once the caller's transaction has committed, so a rollback keeps
+     * the blob that is still referenced
+     */
+    public void releaseAfterCommit(String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(hash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // The committed transaction's resources are still bound, so the release needs its own
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transaction.executeWithoutResult(status -> release(hash));
+            }
+        });
+    }
+
+    public Path path(String hash) {
+        return blobRoot().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Replay the cached text of a blob into the sink. Returns false if no text is cached.
+     */
+    public boolean readText(String hash, DocumentType documentType, Consumer<TextBlock> sink) throws IOException {
+        Path sidecar = textPath(hash, documentType);
+        if (!Files.exists(sidecar)) {
+            return false;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 new GZIPInputStream(Files.newInputStream(sidecar)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sink.accept(objectMapper.readValue(line, TextBlock.class));
+            }
+        } catch (NoSuchFileException e) {
+            return false; // Deleted in the meantime
+        }
+        return true;
+    }
+
+    /**
+     * Start caching the extracted text of a blob. Blocks passed to the writer are stored once
+     * {@link TextCacheWriter#commit()} is called; writing errors only disable the cache.
+     */
+    public TextCacheWriter openTextCache(String hash, DocumentType documentType) {
+        return new TextCacheWriter(textPath(hash, documentType));
+    }
+
+    private Path textPath(String hash, DocumentType documentType) {
+        return path(hash).resolveSibling(hash + "." + documentType.name().toLowerCase() + ".text-v"
+                                         + TEXT_CACHE_VERSION + ".jsonl.gz");
+    }
+
+    private Path blobRoot() {
+        return Paths.get(storageBasePath, "blobs");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Writes a text sidecar to a temp file and moves it into place on commit
+     */
+    public class TextCacheWriter implements Consumer<TextBlock>, AutoCloseable {
+
+        private final Path target;
+        private Path temp;
+        private Writer writer;
+
+        private TextCacheWriter(Path target) {
+            this.target = target;
+            try {
+                Files.createDirectories(target.getParent());
+                temp = Files.createTempFile(target.getParent(), "text-", ".tmp");
+                writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                disable(e);
+            }
+        }
+
+        @Override
+        public void accept(TextBlock block) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(objectMapper.writeValueAsString(block));
+                writer.write('\n');
+            } catch (IOException e) {
+                disable(e);
+            }
+        }
+
+        public void commit() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                writer = null;
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                temp = null;
+            } catch (IOException e) {
+                disable(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            disable(null);
+        }
+
+        private void disable(IOException cause) {
+            if (cause != null) {
+                log.warn("Failed to cache extracted text {}: {}", target.getFileName(), cause.getMessage());
+            }
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                log.debug("Failed to clean up text cache temp file", e);
+            }
+            writer = null;
+            temp = null;
+        }
+    }
+}
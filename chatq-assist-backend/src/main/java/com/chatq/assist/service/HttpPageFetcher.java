@@ -0,0 +1,73 @@
+package com.chatq.assist.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * {@link PageFetcher} on the JDK HTTP client. Follows redirects, supports conditional GET and
+ * caps response bodies at {@code document.fetch.max-bytes}.
+ */
+@Component
+@Slf4j
+public class HttpPageFetcher implements PageFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; " + SitemapCrawler.ROBOTS_AGENT + "/1.0)";
+
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final int maxBytes;
+
+    public HttpPageFetcher(@Value("${document.fetch.timeout-ms:10000}") long timeoutMs,
+                           @Value("${document.fetch.max-bytes:10485760}") int maxBytes) {
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.maxBytes = maxBytes;
+        this.httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    @Override
+    public FetchedPage fetch(URI uri, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("User-Agent", USER_AGENT)
+            .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        HttpRequest request = builder.build();
+
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                byte[] content = body.readNBytes(maxBytes + 1);
+                if (content.length > maxBytes) {
+                    throw new IOException("Response of " + uri + " exceeds " + maxBytes + " bytes");
+                }
+                HttpHeaders headers = response.headers();
+                return new FetchedPage(response.uri(), response.statusCode(),
+                                       headers.firstValue("Content-Type").orElse(null),
+                                       headers.firstValue("ETag").orElse(null),
+                                       headers.firstValue("Last-Modified").orElse(null),
+                                       content);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Fetch of " + uri + " interrupted", e);
+        }
+    }
+}
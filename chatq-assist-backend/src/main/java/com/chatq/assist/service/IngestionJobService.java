@@ -0,0 +1,283 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.entity.Document;
+import com.chatq.assist.domain.entity.IngestionJob;
+import com.chatq.assist.domain.enums.DocumentStatus;
+import com.chatq.assist.domain.enums.IngestionJobStatus;
+import com.chatq.assist.repository.DocumentRepository;
+import com.chatq.assist.repository.IngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Persistent queue of document ingestion jobs (ingestion_jobs table).
+ * Jobs are claimed with FOR UPDATE SKIP LOCKED, so any number of workers and instances can poll
+ * the same table. Failed jobs are retried with exponential backoff; running jobs whose worker stops
+ * sending heartbeats are recovered as failed attempts.
+ * <p>
+ * A document has at most one queued job. Re-queueing it while a job runs adds a follow-up job,
+ * which is only claimed once the running one has ended.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionJobService {
+
+    private final IngestionJobRepository jobRepository;
+    private final DocumentRepository documentRepository;
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
+    private final FileBlobStore blobStore;
+
+    @Value("${document.ingestion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${document.ingestion.backoff-base-ms:10000}")
+    private long backoffBaseMs;
+
+    @Value("${document.ingestion.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${document.ingestion.lock-timeout-ms:300000}")
+    private long lockTimeoutMs;
+
+    /**
+     * Queue a document for ingestion. Joins the caller's transaction, so the job only becomes
+     * visible to workers once the document itself is committed.
+     */
+    @Transactional
+    public IngestionJob enqueue(Document document) {
+        return enqueue(document, null, null);
+    }
+
+    /**
+     * Queue a URL document for ingestion of a page that was already fetched. The page's validators and
+     * text hash are recorded on the document once the job succeeds.
+     */
+    @Transactional
+    public IngestionJob enqueue(Document document, PageFetcher.FetchedPage page, String sourceText) {
+        IngestionJob job = new IngestionJob();
+        if (page != null) {
+            job.setSourceText(sourceText);
+            job.setFetchState(page.etag(), page.lastModified(), DocumentChunkWriter.contentHash(sourceText));
+        }
+        job.setTenantId(document.getTenantId());
+        job.setDocumentId(document.getId());
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setMaxAttempts(maxAttempts);
+        job.setNextAttemptAt(Instant.now());
+
+        job = jobRepository.save(job);
+        log.debug("Queued ingestion job {} for document {}", job.getId(), document.getId());
+        return job;
+    }
+
+    /**
+     * Whether a document has a job waiting to be claimed. A queued job reads the document's
+     * current source when it starts, so it does not need a follow-up.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasQueuedJob(Long documentId) {
+        return jobRepository.existsByDocumentIdAndStatus(documentId, IngestionJobStatus.QUEUED);
+    }
+
+    /**
+     * Claim up to {@code limit} due jobs for a worker
+     */
+    @Transactional
+    public List<IngestionJob> claim(String workerId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        Instant now = Instant.now();
+        List<IngestionJob> jobs = jobRepository.lockDueJobs(now, limit);
+        for (IngestionJob job : jobs) {
+            job.setStatus(IngestionJobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(workerId);
+            job.setLockedAt(now);
+        }
+        return jobs;
+    }
+
+    /**
+     * Refresh the lock of a running job and record the document's progress.
+     * Returns false if the job is no longer owned by this worker (it was recovered as stale).
+     */
+    @Transactional
+    public boolean heartbeat(IngestionJob job, String workerId, int progress) {
+        if (jobRepository.refreshLock(job.getId(), workerId, Instant.now()) == 0) {
+            return false;
+        }
+        documentRepository.updateProgress(job.getDocumentId(), progress);
+        return true;
+    }
+
+    /**
+     * Add a reference to the blob a running job reads, so it is kept until the attempt ends
+     * even if the document's file is replaced in the meantime
+     */
+    @Transactional
+    public void pinFile(IngestionJob job, String workerId, String fileHash) {
+        if (!blobStore.acquire(fileHash)) {
+            throw new IllegalStateException("Blob " + fileHash + " no longer exists");
+        }
+        if (jobRepository.pinFile(job.getId(), workerId, fileHash) == 0) {
+            throw new IllegalStateException("Lost lock on ingestion job " + job.getId());
+        }
+    }
+
+    /**
+     * Release the blobs pinned by a document's jobs; their rows are deleted with the document
+     */
+    @Transactional
+    public void releasePinnedFiles(Long documentId) {
+        jobRepository.findByDocumentIdAndFileHashIsNotNull(documentId).forEach(this::releasePinnedFile);
+    }
+
+    /**
+     * Mark a job as done
+     */
+    @Transactional
+    public void markSucceeded(Long jobId, String workerId) {
+        jobRepository.findById(jobId)
+            .filter(job -> isOwnedBy(job, workerId))
+            .ifPresent(job -> {
+                job.setStatus(IngestionJobStatus.SUCCEEDED);
+                job.setLockedBy(null);
+                job.setLockedAt(null);
+                job.setLastError(null);
+                job.setSourceText(null);
+                releasePinnedFile(job);
+            });
+    }
+
+    /**
+     * Record a failed attempt: the job is retried with backoff until its attempts are used up,
+     * then the job is marked as failed, and so is its document unless it was completed before
+     */
+    @Transactional
+    public void markFailed(Long jobId, String workerId, String error) {
+        jobRepository.findById(jobId)
+            .filter(job -> isOwnedBy(job, workerId))
+            .ifPresent(job -> fail(job, error));
+    }
+
+    /**
+     * Recover running jobs whose worker stopped sending heartbeats
+     */
+    @Scheduled(fixedDelayString = "${document.ingestion.recovery-interval-ms:60000}")
+    @Transactional
+    public void recoverStaleJobs() {
+        List<IngestionJob> staleJobs = jobRepository.lockStaleJobs(Instant.now().minusMillis(lockTimeoutMs));
+        for (IngestionJob job : staleJobs) {
+            log.warn("Recovering stale ingestion job {} (document {}, worker {})",
+                     job.getId(), job.getDocumentId(), job.getLockedBy());
+            fail(job, "Worker " + job.getLockedBy() + " stopped responding");
+        }
+    }
+
+    /**
+     * Queue documents left in PENDING or PROCESSING without an active job,
+     * e.g. documents uploaded before the job queue existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recoverOrphanedDocuments() {
+        // Instances starting together skip each other's rows. A row locked after another instance committed
+        // its jobs still matched the older snapshot of the query, so the jobs are checked again under the lock.
+        List<Document> orphaned = documentRepository.lockWithoutActiveIngestionJob(
+                List.of(DocumentStatus.PENDING.name(), DocumentStatus.PROCESSING.name())).stream()
+            .filter(document -> !jobRepository.existsByDocumentIdAndStatusIn(document.getId(),
+                List.of(IngestionJobStatus.QUEUED, IngestionJobStatus.RUNNING)))
+            .toList();
+
+        orphaned.forEach(this::enqueue);
+        if (!orphaned.isEmpty()) {
+            log.info("Queued {} orphaned documents for ingestion", orphaned.size());
+        }
+    }
+
+    /**
+     * Record a failed attempt. A completed document stays searchable with the chunks it has;
+     * the attempt may have written part of the new ones, so the tenant's knowledge base version is bumped.
+     */
+    private void fail(IngestionJob job, String error) {
+        job.setLockedBy(null);
+        job.setLockedAt(null);
+        job.setLastError(error);
+        releasePinnedFile(job);
+
+        Document document = documentRepository.findById(job.getDocumentId()).orElse(null);
+        boolean completed = document != null && document.getStatus() == DocumentStatus.COMPLETED;
+        if (completed) {
+            knowledgeBaseVersionService.bump(document.getTenantId());
+        }
+
+        // The document's source changed while this job ran; the follow-up job ingests it anyway
+        if (jobRepository.existsByDocumentIdAndStatusAndIdNot(job.getDocumentId(), IngestionJobStatus.QUEUED, job.getId())) {
+            job.setStatus(IngestionJobStatus.FAILED);
+            job.setSourceText(null);
+            log.warn("Ingestion job {} failed and is superseded by a queued job: {}", job.getId(), error);
+            return;
+        }
+
+        if (job.getAttempts() >= job.getMaxAttempts()) {
+            job.setStatus(IngestionJobStatus.FAILED);
+            job.setSourceText(null);
+            if (document != null) {
+                if (!completed) {
+                    document.setStatus(DocumentStatus.FAILED);
+                }
+                document.setErrorMessage((completed ? "Re-ingestion failed: " : "Processing failed: ") + error);
+            }
+            log.error("Ingestion job {} failed permanently after {} attempts: {}", job.getId(), job.getAttempts(), error);
+            return;
+        }
+
+        Duration backoff = backoff(job.getAttempts());
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setNextAttemptAt(Instant.now().plus(backoff));
+        if (document != null) {
+            if (!completed) {
+                document.setStatus(DocumentStatus.PENDING);
+            }
+            document.setErrorMessage("Attempt " + job.getAttempts() + " failed, retrying: " + error);
+        }
+        log.warn("Ingestion job {} attempt {} failed, retrying in {}s: {}",
+                 job.getId(), job.getAttempts(), backoff.toSeconds(), error);
+    }
+
+    private void releasePinnedFile(IngestionJob job) {
+        if (job.getFileHash() != null) {
+            blobStore.releaseAfterCommit(job.getFileHash());
+            job.setFileHash(null);
+        }
+    }
+
+    /**
+     * Exponential backoff: base * 2^(attempt - 1), capped
+     */
+    private Duration backoff(int attempt) {
+        long delay = backoffBaseMs << Math.min(Math.max(attempt - 1, 0), 20);
+        return Duration.ofMillis(Math.min(delay, backoffMaxMs));
+    }
+
+    private boolean isOwnedBy(IngestionJob job, String workerId) {
+        if (job.getStatus() != IngestionJobStatus.RUNNING || !workerId.equals(job.getLockedBy())) {
+            log.warn("Ingestion job {} is no longer owned by worker {} - ignoring result", job.getId(), workerId);
+            return false;
+        }
+        return true;
+    }
+}
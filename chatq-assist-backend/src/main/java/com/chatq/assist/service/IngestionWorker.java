@@ -0,0 +1,191 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.entity.Document;
+import com.chatq.assist.domain.entity.IngestionJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes queued ingestion jobs on a bounded pool of worker threads.
+ * Each poll claims at most as many jobs as there are idle workers, so jobs never wait in memory
+ * and stay claimable by other instances. Documents are streamed from extraction through the chunker
+ * into {@link DocumentChunkWriter}. While a job runs, a timer refreshes its lock every
+ * {@code heartbeat-interval-ms} and records the progress reported by the extraction, independent of
+ * how often (or whether) the extraction reports progress.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionWorker {
+
+    private final IngestionJobService ingestionJobService;
+    private final DocumentService documentService;
+    private final DocumentChunkWriter chunkWriter;
+
+    @Value("${document.ingestion.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document.ingestion.workers:4}")
+    private int workers;
+
+    // Well below document.ingestion.lock-timeout-ms, so a few missed heartbeats do not make a job stale
+    @Value("${document.ingestion.heartbeat-interval-ms:10000}")
+    private long heartbeatIntervalMs;
+
+    private final AtomicInteger activeJobs = new AtomicInteger();
+
+    private String workerId;
+    private ExecutorService executor;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    @PostConstruct
+    void init() {
+        workerId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("Ingestion worker {} {} ({} threads)", workerId, enabled ? "started" : "disabled", workers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupted jobs keep their lock and are recovered once it times out
+        heartbeatScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Claim due jobs for idle worker threads
+     */
+    @Scheduled(fixedDelayString = "${document.ingestion.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        int idle = workers - activeJobs.get();
+        if (idle <= 0) {
+            return;
+        }
+
+        List<IngestionJob> jobs = ingestionJobService.claim(workerId, idle);
+        for (IngestionJob job : jobs) {
+            activeJobs.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    process(job);
+                } finally {
+                    activeJobs.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void process(IngestionJob job) {
+        Long documentId = job.getDocumentId();
+        log.info("Worker {} processing ingestion job {} (document {}, attempt {}/{})",
+                 workerId, job.getId(), documentId, job.getAttempts(), job.getMaxAttempts());
+
+        try (Heartbeat heartbeat = new Heartbeat(job)) {
+            Document document = documentService.beginIngestion(job, workerId);
+
+            DocumentChunkWriter.Result result;
+            try (DocumentChunkWriter.Session chunks = chunkWriter.open(documentId, document.getTenantId())) {
+                documentService.extractChunks(document, job, chunk -> {
+                    heartbeat.checkOwned();
+                    chunks.add(chunk);
+                }, heartbeat::progress);
+                result = chunks.finish();
+            }
+
+            heartbeat.checkOwned();
+            documentService.completeIngestion(job, result);
+            ingestionJobService.markSucceeded(job.getId(), workerId);
+
+        } catch (Exception e) {
+            log.error("Ingestion job {} (document {}) failed", job.getId(), documentId, e);
+            ingestionJobService.markFailed(job.getId(), workerId, e.getMessage());
+        }
+    }
+
+    /**
+     * Lock heartbeat of a running job. The extraction only records its progress here; the timer writes it
+     * with the lock refresh. Once the lock is lost (the job was recovered as stale), the job stops at the
+     * next chunk instead of writing on.
+     */
+    private class Heartbeat implements AutoCloseable {
+
+        private final IngestionJob job;
+        private final ScheduledFuture<?> timer;
+        private volatile int progress; // Stays below 100 until completed
+        private volatile boolean lost;
+
+        Heartbeat(IngestionJob job) {
+            this.job = job;
+            this.timer = heartbeatScheduler.scheduleAtFixedRate(this::beat, heartbeatIntervalMs, heartbeatIntervalMs,
+                                                                TimeUnit.MILLISECONDS);
+        }
+
+        void progress(int percent) {
+            progress = Math.max(progress, Math.min(percent, 99));
+        }
+
+        void checkOwned() {
+            if (lost) {
+                throw new IllegalStateException("Lost lock on ingestion job " + job.getId());
+            }
+        }
+
+        private void beat() {
+            try {
+                if (!ingestionJobService.heartbeat(job, workerId, progress)) {
+                    log.warn("Ingestion job {} was taken over - stopping", job.getId());
+                    lost = true;
+                    timer.cancel(false);
+                }
+            } catch (Exception e) {
+                // Retried with the next beat; the lock only times out after several missed beats
+                log.warn("Heartbeat of ingestion job {} failed: {}", job.getId(), e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            timer.cancel(false);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.repository.TenantRepository;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the knowledge base version of each tenant.
+ * The version is stored in tenants.kb_version and bumped on every FAQ or document change,
+ * so caches keyed by version never serve results from before the change.
+ *
+ * The database version is cached and refreshed every few seconds; other instances therefore see a change
+ * after about that delay, while this instance sees it immediately after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KnowledgeBaseVersionService {
+
+    private final TenantRepository tenantRepository;
+    private final CacheFactory cacheFactory;
+
+    // Local bumps on top of the database version; also covers tenants without a tenants row
+    private final ConcurrentMap<String, AtomicLong> localBumps = new ConcurrentHashMap<>();
+
+    private LoadingCache<String, Long> databaseVersions;
+
+    @PostConstruct
+    void init() {
+        // Refreshed in the background per chat.cache.specs.kb-versions.*
+        databaseVersions = cacheFactory.build("kb-versions", (String tenantId, Long version) -> 1,
+            tenantId -> tenantRepository.findKbVersionByTenantId(tenantId).orElse(0L));
+    }
+
+    /**
+     * Get the current knowledge base version of a tenant
+     */
+    public long currentVersion(String tenantId) {
+        AtomicLong local = localBumps.get(tenantId);
+        return databaseVersions.get(tenantId) + (local != null ? local.get() : 0L);
+    }
+
+    /**
+     * Bump the knowledge base version of a tenant.
+     * The database update joins the caller's transaction; the local view is refreshed after commit.
+     */
+    @Transactional
+    public void bump(String tenantId) {
+        tenantRepository.incrementKbVersion(tenantId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocally(tenantId);
+                }
+            });
+        } else {
+            applyLocally(tenantId);
+        }
+    }
+
+    private void applyLocally(String tenantId) {
+        localBumps.computeIfAbsent(tenantId, id -> new AtomicLong()).incrementAndGet();
+        databaseVersions.invalidate(tenantId);
+        log.debug("Knowledge base version bumped for tenant: {}", tenantId);
+    }
+}
@@ -0,0 +1,197 @@
+package com.chatq.assist.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming chat completions from the OpenAI API on the JDK HTTP client.
+ * Unlike the langchain4j streaming model, a running stream can be cancelled from another thread,
+ * which aborts the HTTP exchange, so an abandoned chat stops consuming tokens and its connection.
+ * Tokens are read on the calling thread (a virtual thread of {@link ChatExecutor}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenAiStreamingClient {
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    @Value("${openai.api.key}")
+    private String apiKey;
+
+    @Value("${openai.api.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${openai.model.chat:gpt-4}")
+    private String model;
+
+    @Value("${openai.stream.timeout-ms:60000}")
+    private long timeoutMs; // Until the response headers arrive
+
+    /**
+     * Prepare a streaming completion of a single user prompt. Cancellation callbacks can be registered
+     * before {@link StreamingCall#execute(Consumer)} starts it.
+     */
+    public StreamingCall newCall(String prompt) {
+        return new StreamingCall(prompt);
+    }
+
+    /**
+     * One streaming completion. {@link #cancel(String)} may be called from any thread, at any time.
+     */
+    public final class StreamingCall {
+
+        private final String prompt;
+        private volatile String cancelReason;
+        private volatile CompletableFuture<HttpResponse<InputStream>> pending;
+        private volatile InputStream body;
+
+        private StreamingCall(String prompt) {
+            this.prompt = prompt;
+        }
+
+        /**
+         * Send the request and pass each content token to the consumer until the stream ends.
+         *
+         * @return the complete answer
+         * @throws CancellationException if the call was cancelled; tokens read before were already passed on
+         * @throws IOException           if the request fails
+         */
+        public String execute(Consumer<String> onToken) throws IOException {
+            ObjectNode request = objectMapper.createObjectNode()
+                .put("model", model)
+                .put("temperature", 0.7)
+                .put("stream", true);
+            request.putArray("messages").addObject()
+                .put("role", "user")
+                .put("content", prompt);
+
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/completions"))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request)))
+                .build();
+
+            pending = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+            if (isCancelled()) {
+                pending.cancel(true);
+            }
+
+            StringBuilder answer = new StringBuilder();
+            try (InputStream in = await(pending)) {
+                body = in;
+                if (isCancelled()) {
+                    throw new CancellationException(cancelReason);
+                }
+
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String data = line.substring(5).trim();
+                    if (data.equals("[DONE]")) {
+                        break;
+                    }
+
+                    JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                    if (content.isTextual() && !content.asText().isEmpty()) {
+                        answer.append(content.asText());
+                        onToken.accept(content.asText());
+                    }
+                }
+            } catch (IOException e) {
+                if (isCancelled()) {
+                    throw new CancellationException(cancelReason);
+                }
+                throw e;
+            }
+
+            if (isCancelled()) {
+                throw new CancellationException(cancelReason);
+            }
+            return answer.toString();
+        }
+
+        /**
+         * Abort the call; the first reason wins
+         */
+        public void cancel(String reason) {
+            if (cancelReason != null) {
+                return;
+            }
+            cancelReason = reason;
+
+            CompletableFuture<HttpResponse<InputStream>> request = pending;
+            if (request != null) {
+                request.cancel(true);
+            }
+            InputStream in = body;
+            if (in != null) {
+                try {
+                    in.close(); // Unblocks the reading thread and aborts the exchange
+                } catch (IOException e) {
+                    log.debug("Failed to close cancelled OpenAI stream", e);
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelReason != null;
+        }
+
+        public String cancelReason() {
+            return cancelReason;
+        }
+
+        private InputStream await(CompletableFuture<HttpResponse<InputStream>> request) throws IOException {
+            HttpResponse<InputStream> response;
+            try {
+                response = request.get();
+            } catch (CancellationException e) {
+                throw new CancellationException(cancelReason);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for OpenAI", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException("OpenAI request failed", e.getCause());
+            }
+
+            if (response.statusCode() != 200) {
+                String error;
+                try (InputStream in = response.body()) {
+                    error = new String(in.readNBytes(1000), StandardCharsets.UTF_8);
+                }
+                throw new IOException("OpenAI returned HTTP " + response.statusCode() + ": " + error);
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.chatq.assist.service;
+
+import org.jsoup.Jsoup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Fetches web resources (pages, sitemaps) for ingestion. The default implementation is
+ * {@link HttpPageFetcher}; any other bean replaces it, e.g. a stand-in serving local files.
+ */
+public interface PageFetcher {
+
+    default FetchedPage fetch(URI uri) throws IOException {
+        return fetch(uri, null, null);
+    }
+
+    /**
+     * Conditional GET: sends If-None-Match / If-Modified-Since for the given validators (if not null),
+     * so an unchanged resource is answered with 304 Not Modified and no body
+     */
+    FetchedPage fetch(URI uri, String etag, String lastModified) throws IOException;
+
+    /**
+     * Response of a fetch. {@code uri} is the final URI after redirects; {@code etag} and
+     * {@code lastModified} are the response's validators, if any.
+     */
+    record FetchedPage(URI uri, int status, String contentType, String etag, String lastModified, byte[] body) {
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        public boolean isNotModified() {
+            return status == 304;
+        }
+
+        public boolean isHtml() {
+            return contentType == null || contentType.toLowerCase().contains("html");
+        }
+
+        /**
+         * Parse the body as HTML; the charset is taken from the document or detected
+         */
+        public org.jsoup.nodes.Document parseHtml() throws IOException {
+            return Jsoup.parse(new ByteArrayInputStream(body), null, uri.toString());
+        }
+    }
+}
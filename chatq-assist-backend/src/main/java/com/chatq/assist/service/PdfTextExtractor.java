@@ -0,0 +1,197 @@
+package com.chatq.assist.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Streaming PDF text extraction with Apache PDFBox.
+ * Pages are extracted in ranges of {@code page-range-size}, up to {@code parallelism} ranges at a
+ * time. PDFBox documents are not thread-safe, so each concurrent range needs its own PDDocument; the
+ * file is parsed once per concurrent range and the instances are reused for the following ranges. PDFBox buffers
+ * parsed streams in temp files instead of the heap. Pages are emitted in order, one
+ * {@link TextBlock} per page, so at most {@code parallelism} ranges of text are held in memory.
+ */
+@Component
+@Slf4j
+public class PdfTextExtractor {
+
+    @Value("${document.pdf.page-range-size:16}")
+    private int pageRangeSize;
+
+    @Value("${document.pdf.parallelism:0}")
+    private int parallelism; // 0 = number of available processors
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-extract-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Extract the pages of a PDF in order.
+     *
+     * @param sink     receives one block per page, on the calling thread
+     * @param progress receives the percentage of pages extracted
+     */
+    public void extract(File file, Consumer<TextBlock> sink, IntConsumer progress) throws IOException {
+        log.debug("Extracting text from PDF: {}", file.getName());
+
+        Deque<Future<List<TextBlock>>> inFlight = new ArrayDeque<>();
+        try (DocumentPool documents = new DocumentPool(file)) {
+            int pageCount = documents.pageCount();
+            int nextPage = 1;
+            int pagesDone = 0;
+
+            try {
+                while (pagesDone < pageCount) {
+                    while (inFlight.size() < parallelism && nextPage <= pageCount) {
+                        int first = nextPage;
+                        int last = Math.min(nextPage + pageRangeSize - 1, pageCount);
+                        inFlight.add(executor.submit(() -> extractRange(documents, first, last)));
+                        nextPage = last + 1;
+                    }
+
+                    List<TextBlock> pages = await(inFlight.poll());
+                    pages.forEach(sink);
+                    pagesDone += pages.size();
+                    progress.accept(pagesDone * 100 / pageCount);
+                }
+            } finally {
+                // Ranges not started yet are skipped; the documents are closed once no range uses them anymore
+                documents.abort();
+                inFlight.forEach(PdfTextExtractor::awaitQuietly);
+            }
+
+            log.debug("Extracted {} pages from PDF ({} parsed instances)", pageCount, documents.opened.size());
+        }
+    }
+
+    private List<TextBlock> extractRange(DocumentPool documents, int firstPage, int lastPage) throws IOException {
+        PDDocument document = documents.borrow();
+        try {
+            PDFTextStripper stripper = new PDFTextStripper();
+            List<TextBlock> pages = new ArrayList<>(lastPage - firstPage + 1);
+            for (int page = firstPage; page <= lastPage; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pages.add(new TextBlock(stripper.getText(document), page, null));
+            }
+            return pages;
+        } finally {
+            documents.giveBack(document);
+        }
+    }
+
+    /**
+     * Parsed instances of one PDF, one per concurrently extracted range. A range borrows an idle instance
+     * or parses the file again if all are in use, which happens at most {@code parallelism} times.
+     */
+    private class DocumentPool implements Closeable {
+
+        private final File file;
+        private final Queue<PDDocument> idle = new ConcurrentLinkedQueue<>();
+        private final List<PDDocument> opened = new CopyOnWriteArrayList<>();
+        private volatile boolean aborted;
+
+        DocumentPool(File file) throws IOException {
+            this.file = file;
+            idle.add(open());
+        }
+
+        int pageCount() {
+            return opened.get(0).getNumberOfPages();
+        }
+
+        PDDocument borrow() throws IOException {
+            if (aborted) {
+                throw new IOException("PDF extraction aborted");
+            }
+            PDDocument document = idle.poll();
+            return document != null ? document : open();
+        }
+
+        void giveBack(PDDocument document) {
+            idle.add(document);
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        private PDDocument open() throws IOException {
+            PDDocument document = load(file);
+            opened.add(document);
+            return document;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (PDDocument document : opened) {
+                document.close();
+            }
+        }
+    }
+
+    private PDDocument load(File file) throws IOException {
+        return Loader.loadPDF(file, IOUtils.createTempFileOnlyStreamCache());
+    }
+
+    private static void awaitQuietly(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Only waiting for the range to release its document
+        }
+    }
+
+    private static List<TextBlock> await(Future<List<TextBlock>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF extraction interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("PDF extraction failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.PgVectorCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent second tier of the embedding cache, stored in the embedding_cache table.
+ * Sits behind the in-memory "embeddings" cache: lookups read through to the table,
+ * new embeddings and last-used timestamps are written behind in batches.
+ * Entries are keyed by SHA-256 of (model name, normalized text), so a model change never
+ * serves stale vectors. When the table exceeds its byte budget, least recently used entries are evicted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PersistentEmbeddingCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.embedding.persistent-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openai.model.embedding:text-embedding-3-small}")
+    private String modelName;
+
+    @Value("${chat.embedding.persistent-cache.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${chat.embedding.persistent-cache.max-pending-writes:10000}")
+    private int maxPendingWrites;
+
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWriteCount = new AtomicInteger();
+    private final Set<String> touchedKeys = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("embedding.cache.persistent.requests").tag("result", "hit")
+            .description("Persistent embedding cache lookups").register(meterRegistry);
+        misses = Counter.builder("embedding.cache.persistent.requests").tag("result", "miss")
+            .description("Persistent embedding cache lookups").register(meterRegistry);
+        Gauge.builder("embedding.cache.persistent.entries", entryCount, AtomicLong::get)
+            .description("Entries in the persistent embedding cache").register(meterRegistry);
+        Gauge.builder("embedding.cache.persistent.bytes", totalBytes, AtomicLong::get)
+            .description("Embedding bytes in the persistent embedding cache").register(meterRegistry);
+
+        log.info("Persistent embedding cache {} (model: {}, max bytes: {})",
+                 enabled ? "enabled" : "disabled", modelName, maxBytes);
+    }
+
+    /**
+     * Look up the embedding of a text
+     */
+    public Optional<float[]> get(String text) {
+        return Optional.ofNullable(getAll(List.of(text)).get(text));
+    }
+
+    /**
+     * Look up the embeddings of several texts in one query. Texts without an entry are missing from the result.
+     */
+    public Map<String, float[]> getAll(Collection<String> texts) {
+        if (!enabled || texts.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, String> textsByKey = new HashMap<>();
+        for (String text : texts) {
+            textsByKey.put(cacheKey(text), text);
+        }
+
+        Map<String, float[]> result = new HashMap<>();
+        try {
+            jdbcTemplate.query(
+                "SELECT cache_key, embedding FROM embedding_cache WHERE cache_key IN (:keys)",
+                new MapSqlParameterSource("keys", textsByKey.keySet()),
+                rs -> {
+                    String key = rs.getString("cache_key");
+                    result.put(textsByKey.get(key), PgVectorCodec.decode(rs.getBytes("embedding")));
+                    touchedKeys.add(key);
+                });
+        } catch (DataAccessException e) {
+            log.warn("Persistent embedding cache lookup failed - treating as miss: {}", e.getMessage());
+            return Map.of();
+        }
+
+        hits.increment(result.size());
+        misses.increment(textsByKey.size() - result.size());
+        return result;
+    }
+
+    /**
+     * Queue an embedding for writing; it is persisted by the next flush
+     */
+    public void put(String text, float[] embedding) {
+        if (!enabled || embedding.length == 0) {
+            return;
+        }
+        if (pendingWriteCount.incrementAndGet() > maxPendingWrites) {
+            pendingWriteCount.decrementAndGet();
+            log.debug("Persistent embedding cache write queue full - dropping entry");
+            return;
+        }
+        pendingWrites.add(new PendingWrite(cacheKey(text), PgVectorCodec.encode(embedding)));
+    }
+
+    /**
+     * Write queued embeddings and last-used timestamps in batches
+     */
+    @Scheduled(fixedDelayString = "${chat.embedding.persistent-cache.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        PendingWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            pendingWriteCount.decrementAndGet();
+            inserts.add(new MapSqlParameterSource()
+                .addValue("key", write.key())
+                .addValue("model", modelName)
+                .addValue("embedding", write.embedding())
+                .addValue("size", write.embedding().length));
+        }
+
+        List<String> touched = new ArrayList<>(touchedKeys);
+        touchedKeys.removeAll(touched);
+
+        try {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("""
+                    INSERT INTO embedding_cache (cache_key, model, embedding, size_bytes)
+                    VALUES (:key, :model, :embedding, :size)
+                    ON CONFLICT (cache_key) DO NOTHING
+                    """, inserts.toArray(SqlParameterSource[]::new));
+            }
+            if (!touched.isEmpty()) {
+                jdbcTemplate.update(
+                    "UPDATE embedding_cache SET last_used_at = CURRENT_TIMESTAMP WHERE cache_key IN (:keys)",
+                    new MapSqlParameterSource("keys", touched));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Persistent embedding cache flush failed ({} inserts, {} touches dropped): {}",
+                     inserts.size(), touched.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh size accounting and evict least recently used entries above the byte budget
+     * (down to 90% of it, so eviction does not run on every cycle)
+     */
+    @Scheduled(fixedDelayString = "${chat.embedding.persistent-cache.eviction-interval-ms:600000}",
+               initialDelayString = "${chat.embedding.persistent-cache.eviction-interval-ms:600000}")
+    public void evict() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            refreshSize();
+            long excessBytes = totalBytes.get() - (long) (maxBytes * 0.9);
+            if (totalBytes.get() <= maxBytes || entryCount.get() == 0) {
+                return;
+            }
+
+            long averageSize = Math.max(1, totalBytes.get() / entryCount.get());
+            long toDelete = excessBytes / averageSize + 1;
+            int deleted = jdbcTemplate.update("""
+                DELETE FROM embedding_cache WHERE cache_key IN (
+                    SELECT cache_key FROM embedding_cache ORDER BY last_used_at ASC LIMIT :limit
+                )
+                """, new MapSqlParameterSource("limit", toDelete));
+
+            log.info("Evicted {} entries from persistent embedding cache", deleted);
+            refreshSize();
+        } catch (DataAccessException e) {
+            log.warn("Persistent embedding cache eviction failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void refreshSize() {
+        jdbcTemplate.query(
+            "SELECT COUNT(*) AS entries, COALESCE(SUM(size_bytes), 0) AS bytes FROM embedding_cache",
+            rs -> {
+                entryCount.set(rs.getLong("entries"));
+                totalBytes.set(rs.getLong("bytes"));
+            });
+    }
+
+    private String cacheKey(String text) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record PendingWrite(String key, byte[] embedding) {
+    }
+}
@@ -0,0 +1,197 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.dto.ChatRequest;
+import com.chatq.assist.domain.entity.Message;
+import com.chatq.assist.domain.enums.AnswerSource;
+import com.chatq.assist.domain.enums.ConversationStatus;
+import com.chatq.assist.domain.enums.MessageRole;
+import com.chatq.assist.service.ChatPersistenceService.ChatTurn;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistence units of a chat turn on R2DBC, for the reactive chat stack.
+ * Same rows as {@link ChatPersistenceService}; statements that belong together are combined into one
+ * statement (data-modifying CTEs), so they are atomic without a reactive transaction manager.
+ * Timestamps are written in UTC like Hibernate writes Instants.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveChatPersistenceService {
+
+    private static final String FIND_CONVERSATION =
+        "SELECT id FROM conversations WHERE session_id = :sessionId AND tenant_id = :tenantId";
+
+    private static final String INSERT_CONVERSATION = """
+        INSERT INTO conversations (session_id, tenant_id, user_email, status, last_activity_at, created_at, updated_at)
+        VALUES (:sessionId, :tenantId, :userEmail, 'ACTIVE', :now, :now, :now)
+        RETURNING id
+        """;
+
+    // Last messages before the current question, newest first
+    private static final String RECENT_MESSAGES = """
+        SELECT role, content FROM messages
+        WHERE conversation_id = :conversationId
+        ORDER BY created_at DESC
+        LIMIT 5
+        """;
+
+    private static final String INSERT_MESSAGE = """
+        WITH message AS (
+            INSERT INTO messages (conversation_id, role, content, confidence_score, faq_entry_id, metadata, tenant_id,
+                                  created_at, updated_at)
+            VALUES (:conversationId, :role, :content, :confidenceScore, :faqEntryId, :metadata, :tenantId, :now, :now)
+            RETURNING id
+        ), conversation AS (
+            UPDATE conversations SET last_activity_at = :now, status = COALESCE(:status, status)
+            WHERE id = :conversationId
+        ), faq AS (
+            UPDATE faq_entries SET usage_count = COALESCE(usage_count, 0) + 1
+            WHERE id = :usedFaqEntryId
+        )
+        SELECT id FROM message
+        """;
+
+    private static final String FAIL_MESSAGE =
+        "UPDATE messages SET metadata = '{\"status\":\"FAILED\"}' WHERE id = :messageId";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Load or create the conversation, read the recent history and save the user message
+     */
+    public Mono<ChatTurn> startTurn(ChatRequest request, String tenantId) {
+        return getOrCreateConversation(request, tenantId)
+            .flatMap(conversation -> databaseClient.sql(RECENT_MESSAGES)
+                .bind("conversationId", conversation.id())
+                .map((row, metadata) -> {
+                    Message message = new Message();
+                    message.setRole(MessageRole.valueOf(row.get("role", String.class)));
+                    message.setContent(row.get("content", String.class));
+                    return message;
+                })
+                .all()
+                .collectList()
+                .flatMap(history -> {
+                    Collections.reverse(history);
+                    return insertMessage(conversation.id(), tenantId, MessageRole.USER, request.getQuestion(),
+                                         null, null, null, null, false)
+                        .map(messageId -> new ChatTurn(conversation.id(), conversation.sessionId(), tenantId,
+                                                       messageId, history));
+                }));
+    }
+
+    /**
+     * Save the assistant answer, count FAQ usage and update the conversation
+     */
+    public Mono<Long> completeTurn(ChatTurn turn, String answer, Double confidenceScore, Long faqEntryId,
+                                   AnswerSource answerSource) {
+        return insertMessage(turn.conversationId(), turn.tenantId(), MessageRole.ASSISTANT, answer, confidenceScore,
+                             faqEntryId, answerMetadata(answerSource, null), null, true);
+    }
+
+    /**
+     * Save the fallback answer and hand the conversation off to a human agent
+     */
+    public Mono<Long> handoffTurn(ChatTurn turn, String answer, Double confidenceScore) {
+        return insertMessage(turn.conversationId(), turn.tenantId(), MessageRole.ASSISTANT, answer, confidenceScore,
+                             null, answerMetadata(AnswerSource.FALLBACK, null), ConversationStatus.HANDED_OFF, false);
+    }
+
+    /**
+     * Mark the user message of a turn as failed when no answer could be generated
+     */
+    public Mono<Void> failTurn(ChatTurn turn, Throwable error) {
+        return databaseClient.sql(FAIL_MESSAGE)
+            .bind("messageId", turn.userMessageId())
+            .fetch().rowsUpdated()
+            .doOnSuccess(updated -> log.warn("Chat turn failed for session: {} - {}", turn.sessionId(), error.getMessage()))
+            .then();
+    }
+
+    /**
+     * Save the part of an answer that was streamed before the stream was cancelled, marked as truncated.
+     * FAQ usage is not counted for an answer the user did not receive completely.
+     */
+    public Mono<Void> truncateTurn(ChatTurn turn, String partialAnswer, Double confidenceScore, Long faqEntryId) {
+        if (partialAnswer.isBlank()) {
+            return failTurn(turn, new IllegalStateException("Stream cancelled before the first token"));
+        }
+        return insertMessage(turn.conversationId(), turn.tenantId(), MessageRole.ASSISTANT, partialAnswer,
+                             confidenceScore, faqEntryId, answerMetadata(AnswerSource.LLM, "TRUNCATED"), null, false)
+            .then();
+    }
+
+    private Mono<ConversationRef> getOrCreateConversation(ChatRequest request, String tenantId) {
+        String sessionId = request.getSessionId();
+        Mono<ConversationRef> existing = sessionId != null && !sessionId.isBlank()
+            ? databaseClient.sql(FIND_CONVERSATION)
+                .bind("sessionId", sessionId)
+                .bind("tenantId", tenantId)
+                .map((row, metadata) -> new ConversationRef(row.get("id", Long.class), sessionId))
+                .one()
+            : Mono.empty();
+
+        return existing.switchIfEmpty(Mono.defer(() -> {
+            // Create new conversation
+            String newSessionId = sessionId != null && !sessionId.isBlank() ? sessionId : UUID.randomUUID().toString();
+            DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_CONVERSATION)
+                .bind("sessionId", newSessionId)
+                .bind("tenantId", tenantId)
+                .bind("now", now());
+            insert = request.getUserEmail() != null
+                ? insert.bind("userEmail", request.getUserEmail())
+                : insert.bindNull("userEmail", String.class);
+            return insert
+                .map((row, metadata) -> new ConversationRef(row.get("id", Long.class), newSessionId))
+                .one();
+        }));
+    }
+
+    private Mono<Long> insertMessage(Long conversationId, String tenantId, MessageRole role, String content,
+                                     Double confidenceScore, Long faqEntryId, String metadata,
+                                     ConversationStatus status, boolean countFaqUsage) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_MESSAGE)
+            .bind("conversationId", conversationId)
+            .bind("tenantId", tenantId)
+            .bind("role", role.name())
+            .bind("content", content)
+            .bind("now", now());
+        insert = bindNullable(insert, "confidenceScore", confidenceScore, Double.class);
+        insert = bindNullable(insert, "faqEntryId", faqEntryId, Long.class);
+        insert = bindNullable(insert, "metadata", metadata, String.class);
+        insert = bindNullable(insert, "status", status != null ? status.name() : null, String.class);
+        insert = bindNullable(insert, "usedFaqEntryId", countFaqUsage ? faqEntryId : null, Long.class);
+
+        return insert
+            .map((row, rowMetadata) -> row.get("id", Long.class))
+            .one();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static String answerMetadata(AnswerSource answerSource, String status) {
+        return "{\"answerSource\":\"" + answerSource.name() + "\""
+               + (status != null ? ",\"status\":\"" + status + "\"" : "") + "}";
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private record ConversationRef(Long id, String sessionId) {
+    }
+}
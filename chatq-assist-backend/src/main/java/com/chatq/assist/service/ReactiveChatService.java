@@ -0,0 +1,341 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.dto.ChatRequest;
+import com.chatq.assist.domain.dto.ChatResponse;
+import com.chatq.assist.domain.enums.AnswerSource;
+import com.chatq.assist.repository.ReactiveSimilarityRepository;
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+import com.chatq.assist.service.ChatPersistenceService.ChatTurn;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking chat pipeline behind {@code /api/v2/chat}.
+ * Same answer logic as {@link ChatServiceLLM} (semantic cache, FAQ fast path, RAG with GPT-4, handoff),
+ * but no event loop thread waits: conversations, messages and vector search go through R2DBC and the
+ * LLM is streamed with WebClient. The question embedding (which waits for the embedding batcher), the
+ * cached tenant settings and the knowledge base version (which may load through JPA on a cache miss)
+ * are read on the bounded elastic scheduler.
+ * <p>
+ * Retrieval follows {@link RetrievalService}: results are shared through {@link RetrievalCache}, and each
+ * search branch has its own timeout, after which the turn continues with the other branch's matches.
+ * <p>
+ * A stream whose subscriber cancels (client disconnected) cancels the LLM request at once and saves
+ * the answer so far as truncated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveChatService {
+
+    private static final int MAX_SIMILAR_FAQS = 3;
+    private static final int MAX_SIMILAR_DOCUMENT_CHUNKS = 5;
+    private static final int MAX_TOKENS_PER_EVENT = 64;
+
+    private static final String FALLBACK_MESSAGE =
+        "Entschuldigung, ich konnte in unserer Wissensdatenbank keine passende Antwort finden.";
+    private static final String HANDOFF_ANSWER = FALLBACK_MESSAGE +
+        " Ich verbinde Sie gerne mit einem unserer Mitarbeiter, der Ihnen weiterhelfen kann.";
+
+    private final ReactiveChatPersistenceService chatPersistenceService;
+    private final ReactiveSimilarityRepository similarityRepository;
+    private final ReactiveOpenAiClient openAiClient;
+    private final EmbeddingService embeddingService;
+    private final RetrievalCache retrievalCache;
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
+    private final TenantSettingsService tenantSettingsService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    @Value("${chat.fast-path.max-distance:0.05}")
+    private double fastPathMaxDistance;
+
+    @Value("${chat.retrieval.embedding-timeout-ms:10000}")
+    private long embeddingTimeoutMs;
+
+    @Value("${chat.retrieval.faq-timeout-ms:2000}")
+    private long faqTimeoutMs;
+
+    @Value("${chat.retrieval.document-timeout-ms:2000}")
+    private long documentTimeoutMs;
+
+    @Value("${chat.stream.flush-interval-ms:40}")
+    private long flushIntervalMs;
+
+    /**
+     * How a turn is answered. LLM answers carry the prompt, all others the final answer.
+     */
+    private record Plan(AnswerSource answerSource, String answer, String prompt,
+                        List<ChatResponse.SourceReference> sources, Double confidenceScore, Long faqEntryId,
+                        long kbVersion) {
+    }
+
+    /**
+     * Answer a question with a single response
+     */
+    public Mono<ChatResponse> chat(ChatRequest request, String tenantId) {
+        return startTurn(request, tenantId).flatMap(started -> {
+            ChatTurn turn = started.turn();
+            return plan(turn, request.getQuestion(), started.embedding())
+                .flatMap(plan -> switch (plan.answerSource()) {
+                    case FALLBACK -> chatPersistenceService.handoffTurn(turn, HANDOFF_ANSWER, plan.confidenceScore())
+                        .thenReturn(response(turn, plan, HANDOFF_ANSWER, true));
+                    case LLM -> openAiClient.stream(plan.prompt())
+                        .collect(StringBuilder::new, StringBuilder::append)
+                        .map(StringBuilder::toString)
+                        .flatMap(answer -> complete(turn, started.embedding(), plan, answer)
+                            .thenReturn(response(turn, plan, answer, false)));
+                    default -> complete(turn, started.embedding(), plan, plan.answer())
+                        .thenReturn(response(turn, plan, plan.answer(), false));
+                })
+                .onErrorResume(error -> chatPersistenceService.failTurn(turn, error).then(Mono.error(error)));
+        });
+    }
+
+    /**
+     * Answer a question as server-sent events - the same events as {@code /api/chat/stream}
+     */
+    public Flux<ServerSentEvent<Object>> chatStream(ChatRequest request, String tenantId) {
+        return startTurn(request, tenantId).flatMapMany(started -> {
+            ChatTurn turn = started.turn();
+            return plan(turn, request.getQuestion(), started.embedding())
+                .flatMapMany(plan -> switch (plan.answerSource()) {
+                    case FALLBACK -> Flux.concat(
+                        Mono.just(event("message", plan.answer())),
+                        Mono.just(event("metadata", metadata(turn, plan, true))),
+                        persist(chatPersistenceService.handoffTurn(turn, plan.answer(), plan.confidenceScore()))
+                            .then(Mono.<ServerSentEvent<Object>>empty()));
+                    case LLM -> streamAnswer(turn, started.embedding(), plan);
+                    default -> Flux.concat(
+                        Mono.just(event("token", plan.answer())),
+                        Mono.just(event("metadata", metadata(turn, plan, false))),
+                        persist(complete(turn, started.embedding(), plan, plan.answer()))
+                            .map(messageId -> event("messageId", Map.of("messageId", messageId))));
+                })
+                .onErrorResume(error -> chatPersistenceService.failTurn(turn, error).then(Mono.error(error)));
+        });
+    }
+
+    private record StartedTurn(ChatTurn turn, float[] embedding) {
+    }
+
+    /**
+     * Persist the question while the embedding is generated
+     */
+    private Mono<StartedTurn> startTurn(ChatRequest request, String tenantId) {
+        log.info("Processing reactive chat request for tenant: {}, question: {}", tenantId, request.getQuestion());
+
+        Mono<float[]> embedding = Mono.fromCallable(() -> embeddingService.generateEmbedding(request.getQuestion()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .timeout(Duration.ofMillis(embeddingTimeoutMs));
+        return chatPersistenceService.startTurn(request, tenantId)
+            .zipWith(embedding, StartedTurn::new);
+    }
+
+    private Mono<Plan> plan(ChatTurn turn, String question, float[] embedding) {
+        String tenantId = turn.tenantId();
+        return Mono.fromCallable(() -> Map.entry(knowledgeBaseVersionService.currentVersion(tenantId),
+                                                 tenantSettingsService.getRetrievalSettings(tenantId)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(context -> {
+                long kbVersion = context.getKey();
+                TenantSettingsService.RetrievalSettings settings = context.getValue();
+
+                // Near-duplicate questions without prior context are answered from the semantic cache
+                if (!turn.hasPriorContext()) {
+                    Optional<SemanticAnswerCache.CachedAnswer> cached =
+                        semanticAnswerCache.lookup(tenantId, kbVersion, embedding);
+                    if (cached.isPresent()) {
+                        SemanticAnswerCache.CachedAnswer answer = cached.get();
+                        return Mono.just(new Plan(AnswerSource.SEMANTIC_CACHE, answer.answer(), null, answer.sources(),
+                                                  answer.confidenceScore(), answer.faqEntryId(), kbVersion));
+                    }
+                }
+
+                return retrieve(tenantId, kbVersion, embedding, settings.maxDistance())
+                    .map(retrieval -> plan(turn, question, retrieval, settings, kbVersion));
+            });
+    }
+
+    private Plan plan(ChatTurn turn, String question, RetrievalResult retrieval,
+                      TenantSettingsService.RetrievalSettings settings, long kbVersion) {
+        double confidenceScore = retrieval.confidence();
+
+        // Near-identical FAQ - answer with its stored answer without rephrasing it through the LLM
+        SimilarFaq bestFaq = retrieval.bestFaq();
+        if (fastPathEnabled && bestFaq != null && bestFaq.getDistance() != null
+            && bestFaq.getDistance() <= fastPathMaxDistance) {
+            return new Plan(AnswerSource.FAQ_DIRECT, bestFaq.getAnswer(), null,
+                            ChatPrompts.buildSources(List.of(bestFaq), List.of()), 1.0 - bestFaq.getDistance(),
+                            bestFaq.getId(), kbVersion);
+        }
+
+        if (retrieval.isEmpty() || confidenceScore < settings.minConfidence()) {
+            log.warn("No sufficiently similar FAQs found for session: {} (confidence: {}, minimum: {})",
+                     turn.sessionId(), confidenceScore, settings.minConfidence());
+            return new Plan(AnswerSource.FALLBACK, FALLBACK_MESSAGE, null, List.of(), confidenceScore, null, kbVersion);
+        }
+
+        String context = ChatPrompts.buildContextFromFaqsAndDocuments(retrieval.faqs(), retrieval.documentChunks());
+        return new Plan(AnswerSource.LLM, null, ChatPrompts.buildPrompt(question, context, turn.history()),
+                        ChatPrompts.buildSources(retrieval.faqs(), retrieval.documentChunks()), confidenceScore,
+                        bestFaq != null ? bestFaq.getId() : null, kbVersion);
+    }
+
+    /**
+     * FAQ and document chunk similarity searches, run concurrently. A branch that times out or fails
+     * contributes no matches and marks the result as partial; only if both fail is the turn failed.
+     * Complete results are cached like those of {@link RetrievalService#retrieve}.
+     */
+    private Mono<RetrievalResult> retrieve(String tenantId, long kbVersion, float[] embedding, double maxDistance) {
+        RetrievalCache.Key cacheKey = RetrievalCache.key(tenantId, kbVersion, maxDistance, embedding);
+        RetrievalResult cached = retrievalCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("Retrieval cache hit for tenant: {}", tenantId);
+            return Mono.just(cached);
+        }
+
+        return Mono.zip(
+                branch("faq", similarityRepository.findSimilarFaqs(
+                    tenantId, embedding, maxDistance, MAX_SIMILAR_FAQS, faqTimeoutMs), faqTimeoutMs),
+                branch("document", similarityRepository.findSimilarDocumentChunks(
+                    tenantId, embedding, maxDistance, MAX_SIMILAR_DOCUMENT_CHUNKS, documentTimeoutMs), documentTimeoutMs))
+            .flatMap(results -> {
+                Optional<List<SimilarFaq>> faqs = results.getT1();
+                Optional<List<SimilarDocumentChunk>> chunks = results.getT2();
+                if (faqs.isEmpty() && chunks.isEmpty()) {
+                    return Mono.error(new IllegalStateException("Knowledge base retrieval failed for tenant: " + tenantId));
+                }
+
+                boolean partial = faqs.isEmpty() || chunks.isEmpty();
+                RetrievalResult result = new RetrievalResult(faqs.orElse(List.of()), chunks.orElse(List.of()), partial);
+
+                // Partial results are not cached, the next identical question retries the missing branch
+                if (!partial) {
+                    retrievalCache.put(cacheKey, result);
+                }
+                return Mono.just(result);
+            });
+    }
+
+    /**
+     * Collect a retrieval branch until its timeout; empty if the branch timed out or failed
+     */
+    private <T> Mono<Optional<List<T>>> branch(String branch, Flux<T> query, long timeoutMs) {
+        return query.collectList()
+            .timeout(Duration.ofMillis(timeoutMs))
+            .map(Optional::of)
+            .onErrorResume(error -> {
+                if (error instanceof TimeoutException) {
+                    log.warn("Retrieval branch '{}' timed out after {}ms - continuing with partial results", branch, timeoutMs);
+                } else {
+                    log.error("Retrieval branch '{}' failed - continuing with partial results", branch, error);
+                }
+                return Mono.just(Optional.empty());
+            });
+    }
+
+    /**
+     * Stream the LLM answer: tokens are coalesced into one event per flush interval, followed by the
+     * metadata and, once the answer is saved, the message id
+     */
+    private Flux<ServerSentEvent<Object>> streamAnswer(ChatTurn turn, float[] embedding, Plan plan) {
+        StringBuilder answer = new StringBuilder();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        Flux<ServerSentEvent<Object>> tokens = openAiClient.stream(plan.prompt())
+            .doOnNext(answer::append)
+            .bufferTimeout(MAX_TOKENS_PER_EVENT, Duration.ofMillis(flushIntervalMs))
+            .map(batch -> event("token", String.join("", batch)));
+
+        Mono<ServerSentEvent<Object>> messageId = Mono.defer(() -> {
+            completed.set(true);
+            return persist(complete(turn, embedding, plan, answer.toString()));
+        }).map(id -> event("messageId", Map.of("messageId", id)));
+
+        return Flux.concat(tokens, Mono.fromSupplier(() -> event("metadata", metadata(turn, plan, false))), messageId)
+            .doOnCancel(() -> {
+                if (completed.get()) {
+                    return;
+                }
+                meterRegistry.counter("chat.streams.abandoned", "reason", "disconnect").increment();
+                log.info("Reactive chat stream cancelled for session: {} after {} characters",
+                         turn.sessionId(), answer.length());
+                chatPersistenceService.truncateTurn(turn, answer.toString(), plan.confidenceScore(), plan.faqEntryId())
+                    .subscribe(null, error -> log.warn("Failed to save truncated answer for session: {}",
+                                                       turn.sessionId(), error));
+            });
+    }
+
+    /**
+     * Save the answer and put LLM answers to first questions into the semantic cache
+     */
+    private Mono<Long> complete(ChatTurn turn, float[] embedding, Plan plan, String answer) {
+        return chatPersistenceService.completeTurn(turn, answer, plan.confidenceScore(), plan.faqEntryId(),
+                                                   plan.answerSource())
+            .doOnSuccess(messageId -> {
+                if (plan.answerSource() == AnswerSource.LLM && !turn.hasPriorContext()) {
+                    semanticAnswerCache.store(turn.tenantId(), plan.kbVersion(), embedding, answer, plan.sources(),
+                                              plan.confidenceScore(), plan.faqEntryId());
+                }
+                log.info("Reactive chat completed for session: {}, source: {}", turn.sessionId(), plan.answerSource());
+            });
+    }
+
+    /**
+     * Run a write to completion even if the stream is cancelled while it is in flight
+     */
+    private static <T> Mono<T> persist(Mono<T> write) {
+        return Mono.defer(() -> Mono.fromFuture(write.toFuture(), true));
+    }
+
+    private static ChatResponse response(ChatTurn turn, Plan plan, String answer, boolean handoffTriggered) {
+        return ChatResponse.builder()
+            .sessionId(turn.sessionId())
+            .answer(answer)
+            .confidenceScore(plan.confidenceScore())
+            .sources(new ArrayList<>(plan.sources()))
+            .handoffTriggered(handoffTriggered)
+            .handoffMessage(handoffTriggered ? "Keine passende Antwort gefunden. Ein Mitarbeiter wird sich bei Ihnen melden." : null)
+            .answerSource(plan.answerSource())
+            .build();
+    }
+
+    private static Map<String, Object> metadata(ChatTurn turn, Plan plan, boolean handoffTriggered) {
+        return handoffTriggered
+            ? Map.of(
+                "sessionId", turn.sessionId(),
+                "handoffTriggered", true,
+                "confidenceScore", plan.confidenceScore(),
+                "answerSource", plan.answerSource())
+            : Map.of(
+                "sessionId", turn.sessionId(),
+                "confidenceScore", plan.confidenceScore(),
+                "sources", ChatPrompts.toSourceData(plan.sources()),
+                "handoffTriggered", false,
+                "answerSource", plan.answerSource());
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.chatq.assist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Non-blocking streaming chat completions from the OpenAI API on WebClient, for the reactive chat stack.
+ * The token stream is cold: the request is sent on subscription, and cancelling the subscription
+ * (e.g. because the client disconnected) closes the HTTP exchange.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOpenAiClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+        new ParameterizedTypeReference<>() {
+        };
+
+    private final WebClient.Builder webClientBuilder;
+    private final ObjectMapper objectMapper;
+
+    @Value("${openai.api.key}")
+    private String apiKey;
+
+    @Value("${openai.api.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${openai.model.chat:gpt-4}")
+    private String model;
+
+    @Value("${openai.stream.timeout-ms:60000}")
+    private long timeoutMs; // Maximum wait for the first and each further token
+
+    private WebClient webClient;
+
+    @PostConstruct
+    void init() {
+        webClient = webClientBuilder
+            .baseUrl(baseUrl)
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+            .build();
+    }
+
+    /**
+     * Stream the completion of a single user prompt as content tokens
+     */
+    public Flux<String> stream(String prompt) {
+        ObjectNode request = objectMapper.createObjectNode()
+            .put("model", model)
+            .put("temperature", 0.7)
+            .put("stream", true);
+        request.putArray("messages").addObject()
+            .put("role", "user")
+            .put("content", prompt);
+
+        return webClient.post()
+            .uri("/chat/completions")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request)
+            .retrieve()
+            .bodyToFlux(EVENT_TYPE)
+            .map(ServerSentEvent::data)
+            .filter(Objects::nonNull)
+            .takeWhile(data -> !data.trim().equals("[DONE]"))
+            .<String>handle((data, sink) -> {
+                try {
+                    JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                    if (content.isTextual() && !content.asText().isEmpty()) {
+                        sink.next(content.asText());
+                    }
+                } catch (JsonProcessingException e) {
+                    sink.error(new IllegalStateException("Invalid OpenAI stream event: " + e.getOriginalMessage(), e));
+                }
+            })
+            .timeout(Duration.ofMillis(timeoutMs));
+    }
+}
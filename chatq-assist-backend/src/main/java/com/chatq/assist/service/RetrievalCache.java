@@ -0,0 +1,79 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.config.CacheWeights;
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Cache for retrieval results (similar FAQs and document chunks).
+ * Keyed by tenant, knowledge base version, distance cutoff and a fingerprint of the question embedding,
+ * so an FAQ or document change makes all older entries of the tenant unreachable.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetrievalCache {
+
+    private final CacheFactory cacheFactory;
+
+    private Cache<Key, RetrievalResult> cache;
+
+    @PostConstruct
+    void init() {
+        // Sized by chat.cache.specs.retrieval.*
+        cache = cacheFactory.build("retrieval", RetrievalCache::weigh);
+    }
+
+    public RetrievalResult get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, RetrievalResult result) {
+        cache.put(key, result);
+    }
+
+    public static Key key(String tenantId, long kbVersion, double maxDistance, float[] embedding) {
+        return new Key(tenantId, kbVersion, maxDistance, fingerprint(embedding));
+    }
+
+    /**
+     * SHA-256 over the raw float bits - identical embeddings map to the same key,
+     * and unlike Arrays.hashCode collisions are not a practical concern
+     */
+    static String fingerprint(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES);
+        buffer.asFloatBuffer().put(embedding);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(buffer.array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static int weigh(Key key, RetrievalResult result) {
+        long weight = 200; // key, record and list overhead
+        for (SimilarFaq faq : result.faqs()) {
+            weight += 100 + CacheWeights.of(nullToEmpty(faq.getQuestion())) + CacheWeights.of(nullToEmpty(faq.getAnswer()));
+        }
+        for (SimilarDocumentChunk chunk : result.documentChunks()) {
+            weight += 150 + CacheWeights.of(nullToEmpty(chunk.getContent())) + CacheWeights.of(nullToEmpty(chunk.getDocumentTitle()));
+        }
+        return CacheWeights.clamp(weight);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    public record Key(String tenantId, long kbVersion, double maxDistance, String embeddingFingerprint) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+
+/**
+ * Result of the retrieval stage of a chat turn.
+ * {@code partial} is set when at least one retrieval branch timed out or failed
+ * and its matches are missing from this result.
+ */
+public record RetrievalResult(List<SimilarFaq> faqs, List<SimilarDocumentChunk> documentChunks, boolean partial) {
+
+    private static final int CONFIDENCE_TOP_K = 3;
+    private static final double BEST_MATCH_WEIGHT = 0.7;
+
+    public boolean isEmpty() {
+        return faqs.isEmpty() && documentChunks.isEmpty();
+    }
+
+    public SimilarFaq bestFaq() {
+        return faqs.isEmpty() ? null : faqs.get(0);
+    }
+
+    /**
+     * Confidence derived from the cosine distances of the closest matches (FAQs and chunks together):
+     * 70% the similarity of the best match, 30% the mean similarity of the top 3.
+     * A single strong hit dominates, but a lone match among weak ones scores lower than a consistent set.
+     * Returns 0 when there are no matches.
+     */
+    public double confidence() {
+        double[] similarities = Stream.concat(
+                faqs.stream().map(SimilarFaq::getDistance),
+                documentChunks.stream().map(SimilarDocumentChunk::getDistance))
+            .filter(distance -> distance != null)
+            .mapToDouble(distance -> 1.0 - distance)
+            .sorted()
+            .toArray();
+
+        if (similarities.length == 0) {
+            return 0.0;
+        }
+
+        int topK = Math.min(CONFIDENCE_TOP_K, similarities.length);
+        double best = similarities[similarities.length - 1];
+        double meanTopK = DoubleStream.of(similarities)
+            .skip(similarities.length - topK)
+            .average()
+            .orElse(best);
+
+        double confidence = BEST_MATCH_WEIGHT * best + (1 - BEST_MATCH_WEIGHT) * meanTopK;
+        return Math.max(0.0, Math.min(1.0, confidence));
+    }
+}
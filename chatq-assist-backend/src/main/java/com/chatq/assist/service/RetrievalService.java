@@ -0,0 +1,198 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.repository.DocumentChunkRepository;
+import com.chatq.assist.repository.FaqRepository;
+import com.chatq.assist.repository.SimilarDocumentChunk;
+import com.chatq.assist.repository.SimilarFaq;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Retrieval stage of the chat pipeline.
+ * Runs the question embedding and the FAQ / document chunk vector searches on a
+ * bounded executor so that slow branches overlap instead of adding up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetrievalService {
+
+    private static final int MAX_SIMILAR_FAQS = 3;
+    private static final int MAX_SIMILAR_DOCUMENT_CHUNKS = 5;
+
+    private final FaqRepository faqRepository;
+    private final DocumentChunkRepository documentChunkRepository;
+    private final EmbeddingService embeddingService;
+    private final RetrievalCache retrievalCache;
+    private final KnowledgeBaseVersionService knowledgeBaseVersionService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${chat.retrieval.pool-size:16}")
+    private int poolSize;
+
+    @Value("${chat.retrieval.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${chat.retrieval.embedding-timeout-ms:10000}")
+    private long embeddingTimeoutMs;
+
+    @Value("${chat.retrieval.faq-timeout-ms:2000}")
+    private long faqTimeoutMs;
+
+    @Value("${chat.retrieval.document-timeout-ms:2000}")
+    private long documentTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        // Bounded pool and queue; when saturated the caller runs the branch itself,
+        // which degrades to the old sequential behaviour instead of queueing without limit
+        executor = new ThreadPoolExecutor(
+            poolSize, poolSize,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "retrieval-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        log.info("Retrieval executor initialized with {} threads (queue capacity: {})", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start embedding the question in the background so that the caller can persist
+     * the conversation and user message in the meantime
+     */
+    public CompletableFuture<float[]> embedAsync(String question) {
+        return CompletableFuture.supplyAsync(() -> embeddingService.generateEmbedding(question), executor);
+    }
+
+    /**
+     * Wait for an embedding started with {@link #embedAsync(String)}
+     */
+    public float[] awaitEmbedding(CompletableFuture<float[]> embeddingFuture) {
+        try {
+            return embeddingFuture.get(embeddingTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            embeddingFuture.cancel(true);
+            throw new IllegalStateException("Embedding generation timed out after " + embeddingTimeoutMs + "ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Embedding generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for embedding", e);
+        }
+    }
+
+    /**
+     * Run FAQ and document chunk similarity searches in parallel, keeping matches closer than maxDistance.
+     * Each branch has its own timeout, which also bounds its query on the server. A branch that times out or
+     * fails contributes no matches and marks the result as partial; only if every branch fails is the turn failed.
+     * Complete results are cached per knowledge base version, so repeated questions skip pgvector.
+     */
+    public RetrievalResult retrieve(float[] embedding, String tenantId, double maxDistance) {
+        RetrievalCache.Key cacheKey = RetrievalCache.key(
+            tenantId, knowledgeBaseVersionService.currentVersion(tenantId), maxDistance, embedding);
+        RetrievalResult cached = retrievalCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("Retrieval cache hit for tenant: {}", tenantId);
+            return cached;
+        }
+
+        long startNanos = System.nanoTime();
+
+        Future<List<SimilarFaq>> faqFuture = executor.submit(() -> withDeadline(startNanos, faqTimeoutMs, () ->
+            faqRepository.findSimilarByEmbedding(tenantId, embedding, maxDistance, MAX_SIMILAR_FAQS)));
+        Future<List<SimilarDocumentChunk>> chunkFuture = executor.submit(() -> withDeadline(startNanos, documentTimeoutMs, () ->
+            documentChunkRepository.findSimilarCompletedDocumentChunks(tenantId, embedding, maxDistance, MAX_SIMILAR_DOCUMENT_CHUNKS)));
+
+        List<SimilarFaq> faqs = awaitBranch("faq", faqFuture, startNanos, faqTimeoutMs);
+        List<SimilarDocumentChunk> chunks = awaitBranch("document", chunkFuture, startNanos, documentTimeoutMs);
+
+        if (faqs == null && chunks == null) {
+            throw new IllegalStateException("Knowledge base retrieval failed for tenant: " + tenantId);
+        }
+
+        boolean partial = faqs == null || chunks == null;
+        RetrievalResult result = new RetrievalResult(
+            faqs != null ? List.copyOf(faqs) : List.of(),
+            chunks != null ? List.copyOf(chunks) : List.of(),
+            partial
+        );
+
+        log.debug("Retrieval finished in {}ms - faqs: {}, chunks: {}, partial: {}",
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                  result.faqs().size(), result.documentChunks().size(), partial);
+
+        // Partial results are not cached, the next identical question retries the missing branch
+        if (!partial) {
+            retrievalCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Run a branch query with the time left until its deadline as statement_timeout.
+     * Cancelling the future does not stop a running query (pgjdbc ignores interrupts), so without this a
+     * timed-out query would keep its pool thread and connection until Postgres finishes it.
+     */
+    private <T> List<T> withDeadline(long startNanos, long timeoutMs, Supplier<List<T>> query) {
+        long remainingMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (remainingMs <= 0) {
+            throw new IllegalStateException("Deadline passed before the query started");
+        }
+        return transactionTemplate.execute(status -> {
+            // Transaction-local (SET LOCAL), so the pooled connection gets its default back on commit
+            jdbcTemplate.queryForObject("SELECT set_config('statement_timeout', :timeout, true)",
+                                        Map.of("timeout", remainingMs + "ms"), String.class);
+            return query.get();
+        });
+    }
+
+    /**
+     * Wait for a retrieval branch until its deadline (measured from the start of the fan-out).
+     * Returns null if the branch timed out or failed.
+     */
+    private <T> List<T> awaitBranch(String branch, Future<List<T>> future, long startNanos, long timeoutMs) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs) - (System.nanoTime() - startNanos);
+        try {
+            return future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Retrieval branch '{}' timed out after {}ms - continuing with partial results", branch, timeoutMs);
+        } catch (ExecutionException e) {
+            log.error("Retrieval branch '{}' failed - continuing with partial results", branch, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            log.warn("Interrupted while waiting for retrieval branch '{}'", branch);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.chatq.assist.service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Rules of a robots.txt for one user agent (RFC 9309): the group naming the agent, or the "*" group.
+ * The longest matching Allow / Disallow path wins, Allow on a tie; {@code *} and a trailing {@code $}
+ * are supported. Crawl-delay is not part of the RFC but widely used, so it is read as well.
+ */
+final class RobotsTxt {
+
+    static final RobotsTxt ALLOW_ALL = new RobotsTxt(List.of(), 0);
+
+    // For an unreachable robots.txt (server error or network failure)
+    static final RobotsTxt DISALLOW_ALL = new RobotsTxt(List.of(new Rule("/", false)), 0);
+
+    private final List<Rule> rules;
+    private final long crawlDelayMs;
+
+    private RobotsTxt(List<Rule> rules, long crawlDelayMs) {
+        this.rules = rules;
+        this.crawlDelayMs = crawlDelayMs;
+    }
+
+    static RobotsTxt parse(String content, String agent) {
+        String agentToken = agent.toLowerCase(Locale.ROOT);
+        Group matching = new Group();
+        Group wildcard = new Group();
+
+        Set<String> groupAgents = new HashSet<>();
+        boolean readingAgents = false;
+        for (String line : content.split("\\r?\\n|\\r")) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            if (key.equals("user-agent")) {
+                if (!readingAgents) {
+                    groupAgents.clear();
+                }
+                String groupAgent = value.toLowerCase(Locale.ROOT);
+                groupAgents.add(groupAgent);
+                matching.found |= groupAgent.equals(agentToken);
+                readingAgents = true;
+                continue;
+            }
+            readingAgents = false;
+
+            Group group = groupAgents.contains(agentToken) ? matching : groupAgents.contains("*") ? wildcard : null;
+            if (group == null) {
+                continue;
+            }
+            switch (key) {
+                case "allow", "disallow" -> {
+                    if (!value.isEmpty()) {
+                        group.rules.add(new Rule(value, key.equals("allow")));
+                    }
+                }
+                case "crawl-delay" -> {
+                    try {
+                        group.crawlDelayMs = (long) (Double.parseDouble(value) * 1000);
+                    } catch (NumberFormatException e) {
+                        // Ignored like any other invalid line
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        Group group = matching.found ? matching : wildcard;
+        return new RobotsTxt(List.copyOf(group.rules), Math.max(0, group.crawlDelayMs));
+    }
+
+    boolean allows(URI uri) {
+        String path = (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath())
+            + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+
+        Rule best = null;
+        for (Rule rule : rules) {
+            if (rule.matches(path) && (best == null || rule.length() > best.length()
+                                       || rule.length() == best.length() && rule.allow())) {
+                best = rule;
+            }
+        }
+        return best == null || best.allow();
+    }
+
+    long crawlDelayMs() {
+        return crawlDelayMs;
+    }
+
+    private static final class Group {
+        private final List<Rule> rules = new ArrayList<>();
+        private long crawlDelayMs;
+        private boolean found;
+    }
+
+    private record Rule(Pattern pattern, int length, boolean allow) {
+
+        Rule(String path, boolean allow) {
+            this(toPattern(path), path.length(), allow);
+        }
+
+        boolean matches(String path) {
+            return pattern.matcher(path).lookingAt();
+        }
+
+        private static Pattern toPattern(String path) {
+            boolean anchored = path.endsWith("$");
+            String body = anchored ? path.substring(0, path.length() - 1) : path;
+            StringBuilder regex = new StringBuilder();
+            for (String part : body.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            return Pattern.compile(anchored ? regex + "$" : regex.toString());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.config.CacheWeights;
+import com.chatq.assist.domain.dto.ChatResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tenant-scoped semantic cache for generated answers.
+ * A new question is answered from the cache when its embedding is close enough (cosine similarity)
+ * to a previously answered question of the same tenant and knowledge base version.
+ * Only answers generated without prior conversation context are stored or served.
+ * <p>
+ * Answers of all tenants share one cache sized and expired by {@code chat.cache.specs.answers.*}; each
+ * tenant keeps at most {@code max-entries-per-tenant} of them, so one busy tenant cannot take it over.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticAnswerCache {
+
+    private final CacheFactory cacheFactory;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.answer-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.answer-cache.similarity-threshold:0.95}")
+    private double similarityThreshold;
+
+    @Value("${chat.answer-cache.max-entries-per-tenant:500}")
+    private int maxEntriesPerTenant;
+
+    private final AtomicLong entrySequence = new AtomicLong();
+
+    // Keys of each tenant's answers, oldest first; keys of evicted answers are dropped on lookup
+    private final Map<String, Deque<Key>> tenantKeys = new ConcurrentHashMap<>();
+
+    private Cache<Key, CachedAnswer> answers;
+    private Counter hits;
+    private Counter misses;
+    private Counter stores;
+
+    @PostConstruct
+    void init() {
+        answers = cacheFactory.build("answers", SemanticAnswerCache::weigh);
+
+        hits = Counter.builder("chat.answer.cache.requests").tag("result", "hit")
+            .description("Semantic answer cache lookups").register(meterRegistry);
+        misses = Counter.builder("chat.answer.cache.requests").tag("result", "miss")
+            .description("Semantic answer cache lookups").register(meterRegistry);
+        stores = Counter.builder("chat.answer.cache.stores")
+            .description("Answers stored in the semantic answer cache").register(meterRegistry);
+
+        log.info("Semantic answer cache {} (threshold: {}, max entries per tenant: {})",
+                 enabled ? "enabled" : "disabled", similarityThreshold, maxEntriesPerTenant);
+    }
+
+    /**
+     * Find the cached answer whose question is most similar to the given embedding
+     */
+    public Optional<CachedAnswer> lookup(String tenantId, long kbVersion, float[] questionEmbedding) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Deque<Key> keys = tenantKeys.get(tenantId);
+        if (keys == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        float[] normalized = normalize(questionEmbedding);
+        CachedAnswer best = null;
+        double bestSimilarity = similarityThreshold;
+
+        for (Key key : keys) {
+            // asMap().get does not count as a cache hit; hits are counted per lookup below
+            CachedAnswer candidate = answers.asMap().get(key);
+            if (candidate == null) {
+                keys.remove(key); // Evicted or expired
+                continue;
+            }
+            if (candidate.kbVersion() != kbVersion) {
+                // Answer was generated from an older knowledge base
+                answers.invalidate(key);
+                keys.remove(key);
+                continue;
+            }
+            double similarity = dot(normalized, candidate.embedding());
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                best = candidate;
+            }
+        }
+
+        if (best == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        log.debug("Semantic answer cache hit for tenant: {} (similarity: {})", tenantId, bestSimilarity);
+        return Optional.of(best);
+    }
+
+    /**
+     * Store a generated answer for later near-duplicate questions
+     */
+    public void store(String tenantId, long kbVersion, float[] questionEmbedding, String answer,
+                      List<ChatResponse.SourceReference> sources, Double confidenceScore, Long faqEntryId) {
+        if (!enabled || questionEmbedding.length == 0) {
+            return;
+        }
+
+        CachedAnswer cachedAnswer = new CachedAnswer(
+            normalize(questionEmbedding), answer, List.copyOf(sources), confidenceScore, faqEntryId, kbVersion);
+        Key key = new Key(tenantId, entrySequence.incrementAndGet());
+        answers.put(key, cachedAnswer);
+        Deque<Key> keys = tenantKeys.computeIfAbsent(tenantId, id -> new ConcurrentLinkedDeque<>());
+        keys.add(key);
+        stores.increment();
+
+        // Size of a concurrent deque is O(n), but bounded by the per-tenant limit
+        while (keys.size() > maxEntriesPerTenant) {
+            Key oldest = keys.poll();
+            if (oldest == null) {
+                break;
+            }
+            answers.invalidate(oldest);
+        }
+    }
+
+    private static int weigh(Key key, CachedAnswer answer) {
+        long weight = 150 + CacheWeights.of(key.tenantId()) + CacheWeights.of(answer.embedding())
+            + CacheWeights.of(answer.answer());
+        for (ChatResponse.SourceReference source : answer.sources()) {
+            weight += 80 + CacheWeights.of(nullToEmpty(source.getTitle())) + CacheWeights.of(nullToEmpty(source.getUrl()));
+        }
+        return CacheWeights.clamp(weight);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Key(String tenantId, long sequence) {
+    }
+
+    /**
+     * Cached answer together with the normalized embedding of the question it answered
+     */
+    public record CachedAnswer(float[] embedding, String answer, List<ChatResponse.SourceReference> sources,
+                               Double confidenceScore, Long faqEntryId, long kbVersion) {
+    }
+}
@@ -0,0 +1,352 @@
+package com.chatq.assist.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Crawls the pages listed in a sitemap (or sitemap index) for SITEMAP documents.
+ * Pages are fetched in parallel, with at most {@code per-host-concurrency} requests and
+ * {@code politeness-delay-ms} between request starts per host. Pages are emitted in sitemap
+ * order on the calling thread, deduplicated by canonical URL, so only a bounded window of
+ * fetched pages is held in memory. Pages disallowed by the host's robots.txt are skipped, and its
+ * Crawl-delay (up to {@code max-crawl-delay-ms}) raises the politeness delay.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SitemapCrawler {
+
+    // Product token matched against robots.txt user-agent lines, see HttpPageFetcher
+    static final String ROBOTS_AGENT = "ChatQ-Assist";
+
+    private final PageFetcher pageFetcher;
+
+    @Value("${document.sitemap.max-pages:5000}")
+    private int maxPages;
+
+    @Value("${document.sitemap.max-depth:3}")
+    private int maxDepth; // Nesting of sitemap indexes
+
+    @Value("${document.sitemap.concurrency:8}")
+    private int concurrency;
+
+    @Value("${document.sitemap.per-host-concurrency:2}")
+    private int perHostConcurrency;
+
+    @Value("${document.sitemap.politeness-delay-ms:250}")
+    private long politenessDelayMs;
+
+    @Value("${document.sitemap.respect-robots:true}")
+    private boolean respectRobots;
+
+    @Value("${document.sitemap.max-crawl-delay-ms:5000}")
+    private long maxCrawlDelayMs;
+
+    private final ConcurrentMap<String, HostSlot> hostSlots = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "sitemap-crawl-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A crawled page. {@code canonicalUrl} is the page's rel=canonical link, or its final URL.
+     */
+    public record CrawledPage(String url, String canonicalUrl, String title, String text) {
+    }
+
+    /**
+     * Crawl all pages of a sitemap.
+     *
+     * @param sink     receives each page with text, in sitemap order, on the calling thread
+     * @param progress receives the percentage of pages fetched
+     * @throws IOException if the sitemap cannot be read or no page could be crawled
+     */
+    public void crawl(String sitemapUrl, Consumer<CrawledPage> sink, IntConsumer progress) throws IOException {
+        List<URI> pages = new ArrayList<>(readSitemap(sitemapUrl));
+        log.info("Sitemap {} lists {} pages", sitemapUrl, pages.size());
+        if (pages.isEmpty()) {
+            throw new IOException("Sitemap lists no pages: " + sitemapUrl);
+        }
+
+        Set<String> seenCanonical = new HashSet<>();
+        ConcurrentMap<String, RobotsTxt> robots = new ConcurrentHashMap<>(); // By scheme and authority
+        Deque<Future<CrawledPage>> inFlight = new ArrayDeque<>();
+        int window = concurrency * 2;
+        int next = 0;
+        int done = 0;
+        int emitted = 0;
+
+        try {
+            while (next < pages.size() || !inFlight.isEmpty()) {
+                while (next < pages.size() && inFlight.size() < window) {
+                    URI page = pages.get(next++);
+                    inFlight.add(executor.submit(() -> fetchPage(page, robots)));
+                }
+
+                CrawledPage page = await(inFlight.poll());
+                done++;
+                if (page != null && seenCanonical.add(page.canonicalUrl())) {
+                    sink.accept(page);
+                    emitted++;
+                }
+                progress.accept(done * 100 / pages.size());
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        log.info("Crawled {} of {} pages from sitemap {}", emitted, pages.size(), sitemapUrl);
+        if (emitted == 0) {
+            throw new IOException("No page of sitemap could be crawled: " + sitemapUrl);
+        }
+    }
+
+    /**
+     * Collect the page URLs of a sitemap, following sitemap indexes up to {@code max-depth}
+     */
+    private Set<URI> readSitemap(String sitemapUrl) throws IOException {
+        Set<URI> pages = new LinkedHashSet<>();
+        Set<URI> visitedSitemaps = new HashSet<>();
+        Deque<Map.Entry<URI, Integer>> queue = new ArrayDeque<>();
+        queue.add(Map.entry(normalize(sitemapUrl, null), 0));
+
+        while (!queue.isEmpty() && pages.size() < maxPages) {
+            Map.Entry<URI, Integer> entry = queue.poll();
+            URI sitemap = entry.getKey();
+            if (!visitedSitemaps.add(sitemap)) {
+                continue;
+            }
+
+            PageFetcher.FetchedPage response = pageFetcher.fetch(sitemap);
+            if (!response.isSuccess()) {
+                throw new IOException("Sitemap " + sitemap + " returned HTTP " + response.status());
+            }
+
+            SitemapContent content = parseSitemap(response.body());
+            for (String loc : content.locations()) {
+                URI uri = normalize(loc, sitemap);
+                if (uri == null) {
+                    continue;
+                }
+                if (!content.index()) {
+                    pages.add(uri);
+                    if (pages.size() >= maxPages) {
+                        log.warn("Sitemap {} exceeds {} pages, ignoring the rest", sitemapUrl, maxPages);
+                        break;
+                    }
+                } else if (entry.getValue() < maxDepth) {
+                    queue.add(Map.entry(uri, entry.getValue() + 1));
+                } else {
+                    log.warn("Ignoring sitemap {} nested deeper than {}", uri, maxDepth);
+                }
+            }
+        }
+        return pages;
+    }
+
+    private SitemapContent parseSitemap(byte[] body) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        List<String> locations = new ArrayList<>();
+        boolean index = false;
+        try (InputStream in = openSitemap(body)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    switch (reader.getLocalName()) {
+                        case "sitemapindex" -> index = true;
+                        case "loc" -> locations.add(reader.getElementText().trim());
+                        default -> { }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid sitemap XML: " + e.getMessage(), e);
+        }
+        return new SitemapContent(index, locations);
+    }
+
+    /**
+     * Sitemaps may be served gzipped (sitemap.xml.gz) without a Content-Encoding header
+     */
+    private InputStream openSitemap(byte[] body) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        if (body.length > 2 && (body[0] & 0xff) == 0x1f && (body[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    /**
+     * Fetch and parse one page; returns null if the page is skipped
+     */
+    private CrawledPage fetchPage(URI uri, ConcurrentMap<String, RobotsTxt> robots) throws InterruptedException {
+        RobotsTxt rules = respectRobots
+            ? robots.computeIfAbsent(uri.getScheme() + "://" + uri.getRawAuthority(), origin -> fetchRobots(uri))
+            : RobotsTxt.ALLOW_ALL;
+        if (!rules.allows(uri)) {
+            log.info("Skipping page {} (disallowed by robots.txt)", uri);
+            return null;
+        }
+
+        HostSlot slot = hostSlots.computeIfAbsent(uri.getHost(), host -> new HostSlot(perHostConcurrency));
+        slot.permits.acquire();
+        try {
+            long delay = slot.reserve(Math.max(politenessDelayMs, Math.min(rules.crawlDelayMs(), maxCrawlDelayMs)));
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            PageFetcher.FetchedPage response = pageFetcher.fetch(uri);
+            if (!response.isSuccess() || !response.isHtml()) {
+                log.info("Skipping page {} (HTTP {}, {})", uri, response.status(), response.contentType());
+                return null;
+            }
+
+            org.jsoup.nodes.Document html = response.parseHtml();
+            String text = html.body() != null ? html.body().text() : "";
+            if (text.isBlank()) {
+                return null;
+            }
+
+            Element canonicalLink = html.selectFirst("link[rel=canonical][href]");
+            URI canonical = canonicalLink != null ? normalize(canonicalLink.absUrl("href"), null) : null;
+            if (canonical == null) {
+                canonical = normalize(response.uri().toString(), null);
+            }
+
+            return new CrawledPage(uri.toString(), String.valueOf(canonical), html.title(), text);
+        } catch (IOException e) {
+            log.warn("Skipping page {}: {}", uri, e.getMessage());
+            return null;
+        } finally {
+            slot.permits.release();
+        }
+    }
+
+    /**
+     * robots.txt of a page's origin. A missing one (4xx) allows everything; an unreachable one
+     * (5xx, network error) disallows everything, so the crawl fails and the job is retried later.
+     */
+    private RobotsTxt fetchRobots(URI page) {
+        URI uri = page.resolve("/robots.txt");
+        try {
+            PageFetcher.FetchedPage response = pageFetcher.fetch(uri);
+            if (response.isSuccess()) {
+                return RobotsTxt.parse(new String(response.body(), StandardCharsets.UTF_8), ROBOTS_AGENT);
+            }
+            if (response.status() >= 400 && response.status() < 500) {
+                return RobotsTxt.ALLOW_ALL;
+            }
+            log.warn("{} returned HTTP {} - not crawling its host", uri, response.status());
+        } catch (IOException e) {
+            log.warn("Failed to fetch {} - not crawling its host: {}", uri, e.getMessage());
+        }
+        return RobotsTxt.DISALLOW_ALL;
+    }
+
+    private CrawledPage await(Future<CrawledPage> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sitemap crawl interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Sitemap crawl failed", e.getCause());
+        }
+    }
+
+    /**
+     * Normalize a URL for deduplication: absolute http(s), lower-case scheme and host,
+     * no default port and no fragment. Returns null for unusable URLs.
+     */
+    static URI normalize(String url, URI base) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = base != null ? base.resolve(url.trim()) : new URI(url.trim());
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+            if (!"http".equals(scheme) && !"https".equals(scheme) || uri.getHost() == null) {
+                return null;
+            }
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return new URI(scheme, null, uri.getHost().toLowerCase(Locale.ROOT), port, null, null, null)
+                .resolve(path + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record SitemapContent(boolean index, List<String> locations) {
+    }
+
+    /**
+     * Per-host limit on concurrent requests and the earliest start of the next request
+     */
+    private static final class HostSlot {
+
+        private final Semaphore permits;
+        private long nextStart;
+
+        private HostSlot(int permits) {
+            this.permits = new Semaphore(permits);
+        }
+
+        /**
+         * Reserve the next start time; returns how long to wait for it in milliseconds
+         */
+        private synchronized long reserve(long delayMs) {
+            long now = System.currentTimeMillis();
+            long start = Math.max(now, nextStart);
+            nextStart = start + delayMs;
+            return start - now;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.chatq.assist.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces streamed LLM tokens into fewer SSE "token" events.
+ * Tokens are buffered and sent once {@code flush-bytes} are pending or {@code flush-interval-ms} has
+ * passed since the last event, so a stream sends a few dozen events per second at most instead of one
+ * write and flush per token. A token arriving after a pause is sent at once, so the first token is not delayed.
+ */
+@Component
+public class SseTokenWriter {
+
+    @Value("${chat.stream.flush-interval-ms:40}")
+    private long flushIntervalMs;
+
+    @Value("${chat.stream.flush-bytes:512}")
+    private int flushBytes;
+
+    private long flushIntervalNanos;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Start writing the tokens of one answer to a chat stream
+     */
+    public Session open(ChatStreamRegistry.ChatStream stream) {
+        return new Session(stream);
+    }
+
+    /**
+     * Token buffer of one stream. Tokens are appended by the streaming thread; flushes due while no
+     * tokens arrive run on a virtual thread, so a slow client cannot hold up other streams.
+     */
+    public class Session {
+
+        private final ChatStreamRegistry.ChatStream stream;
+
+        // Not synchronized: sending blocks, which would pin the virtual thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private final StringBuilder buffer = new StringBuilder(256);
+        private int bufferedBytes;
+        private long lastFlushNanos = System.nanoTime() - flushIntervalNanos;
+        private ScheduledFuture<?> scheduledFlush;
+        private boolean closed;
+
+        private Session(ChatStreamRegistry.ChatStream stream) {
+            this.stream = stream;
+        }
+
+        public void append(String token) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                buffer.append(token);
+                bufferedBytes += utf8Length(token);
+
+                long sinceLastFlush = System.nanoTime() - lastFlushNanos;
+                if (bufferedBytes >= flushBytes || sinceLastFlush >= flushIntervalNanos) {
+                    flush();
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = scheduler.schedule(() -> Thread.startVirtualThread(this::scheduledFlush),
+                                                        flushIntervalNanos - sinceLastFlush, TimeUnit.NANOSECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Send the remaining tokens and close the session
+         */
+        public void finish() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    flush();
+                    closed = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Close the session without sending buffered tokens
+         */
+        public void discard() {
+            lock.lock();
+            try {
+                cancelScheduledFlush();
+                buffer.setLength(0);
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void scheduledFlush() {
+            lock.lock();
+            try {
+                scheduledFlush = null;
+                if (!closed) {
+                    flush();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void flush() {
+            cancelScheduledFlush();
+            lastFlushNanos = System.nanoTime();
+            if (buffer.isEmpty()) {
+                return;
+            }
+
+            String data = buffer.toString();
+            buffer.setLength(0);
+            bufferedBytes = 0;
+            stream.send("token", data);
+        }
+
+        private void cancelScheduledFlush() {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+    }
+
+    /**
+     * UTF-8 length of a string without encoding it
+     */
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -81,6 +81,7 @@ public class SupportTicketService {
     /**
      * Get paginated tickets for a tenant with optional status filter
      */
+    @Transactional(readOnly = true)
     public Page<TicketResponseDto> getTickets(String tenantId, TicketStatus status, Pageable pageable) {
         log.info("Fetching tickets for tenant: {}, status: {}, page: {}", tenantId, status, pageable.getPageNumber());
 
@@ -97,6 +98,7 @@ public class SupportTicketService {
     /**
      * Get a single ticket by ID with tenant validation
      */
+    @Transactional(readOnly = true)
     public TicketResponseDto getTicketById(Long id, String tenantId) {
         log.info("Fetching ticket with ID: {} for tenant: {}", id, tenantId);
 
@@ -22,6 +22,7 @@ public class TenantService {
     private final TenantRepository tenantRepository;
     private final UserRepository userRepository;
     private final DocumentRepository documentRepository;
+    private final TenantSettingsService tenantSettingsService;
 
     /**
      * Get all tenants
@@ -119,6 +120,7 @@ public class TenantService {
         }
 
         tenant = tenantRepository.save(tenant);
+        tenantSettingsService.evict(tenant.getTenantId());
         log.info("Updated tenant: {}", tenant.getTenantId());
 
         return toDto(tenant);
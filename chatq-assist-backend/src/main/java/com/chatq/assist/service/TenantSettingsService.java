@@ -0,0 +1,114 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.domain.entity.Tenant;
+import com.chatq.assist.repository.TenantRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Typed access to the chat related keys of {@code Tenant.settings} (a JSON object).
+ * Supported keys:
+ * <ul>
+ *   <li>{@code retrievalMaxDistance} - cosine distance cutoff for FAQ and document matches</li>
+ *   <li>{@code minConfidence} - answers below this confidence are handed off instead of sent to the LLM</li>
+ * </ul>
+ * Missing keys fall back to the application defaults. Without a configured minimum confidence it is derived
+ * from the tenant's distance cutoff, see {@link #defaultMinConfidence(double)}. Parsed settings are cached briefly,
+ * and evicted immediately when the tenant is updated on this instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantSettingsService {
+
+    private final TenantRepository tenantRepository;
+    private final ObjectMapper objectMapper;
+    private final CacheFactory cacheFactory;
+
+    @Value("${chat.retrieval.max-distance:0.25}")
+    private double defaultMaxDistance;
+
+    @Value("${chat.confidence.min:#{null}}")
+    private Double defaultMinConfidence;
+
+    @Value("${chat.confidence.margin:0.2}")
+    private double confidenceMargin;
+
+    private LoadingCache<String, RetrievalSettings> retrievalSettings;
+
+    @PostConstruct
+    void init() {
+        // Refreshed in the background per chat.cache.specs.tenant-settings.*
+        retrievalSettings = cacheFactory.build("tenant-settings", (String tenantId, RetrievalSettings settings) -> 1,
+            this::loadRetrievalSettings);
+    }
+
+    /**
+     * Get the retrieval and routing settings of a tenant
+     */
+    public RetrievalSettings getRetrievalSettings(String tenantId) {
+        return retrievalSettings.get(tenantId);
+    }
+
+    /**
+     * Drop the cached settings of a tenant after its settings changed
+     */
+    public void evict(String tenantId) {
+        retrievalSettings.invalidate(tenantId);
+    }
+
+    private RetrievalSettings loadRetrievalSettings(String tenantId) {
+        JsonNode settings = tenantRepository.findByTenantId(tenantId)
+            .map(Tenant::getSettings)
+            .map(json -> parse(tenantId, json))
+            .orElse(null);
+
+        double maxDistance = readDouble(settings, "retrievalMaxDistance", defaultMaxDistance);
+        return new RetrievalSettings(
+            maxDistance,
+            readDouble(settings, "minConfidence", defaultMinConfidence(maxDistance))
+        );
+    }
+
+    /**
+     * Every match within the cutoff has a confidence above {@code 1 - maxDistance}, so a minimum at or below that
+     * would never hand off. The derived minimum hands off turns whose matches all lie in the outer
+     * {@code chat.confidence.margin} of the distance range, e.g. 0.8 for the default cutoff of 0.25.
+     */
+    private double defaultMinConfidence(double maxDistance) {
+        if (defaultMinConfidence != null) {
+            return defaultMinConfidence;
+        }
+        return 1.0 - maxDistance * (1.0 - confidenceMargin);
+    }
+
+    private JsonNode parse(String tenantId, String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid settings JSON for tenant: {} - using defaults", tenantId);
+            return null;
+        }
+    }
+
+    private double readDouble(JsonNode settings, String key, double defaultValue) {
+        if (settings == null || !settings.path(key).isNumber()) {
+            return defaultValue;
+        }
+        return settings.path(key).asDouble();
+    }
+
+    /**
+     * Retrieval cutoff and minimum answer confidence of a tenant
+     */
+    public record RetrievalSettings(double maxDistance, double minConfidence) {
+    }
+}
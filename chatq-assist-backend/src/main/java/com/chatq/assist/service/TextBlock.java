@@ -0,0 +1,17 @@
+package com.chatq.assist.service;
+
+/**
+ * A piece of extracted document text (a page, paragraph or table cell) with its position
+ * in the source document. Page number, heading and source URL (for multi-page sources such as
+ * sitemaps) are null when unknown.
+ */
+public record TextBlock(String text, Integer pageNumber, String heading, String sourceUrl) {
+
+    public TextBlock(String text, Integer pageNumber, String heading) {
+        this(text, pageNumber, heading, null);
+    }
+
+    public static TextBlock of(String text) {
+        return new TextBlock(text, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.chatq.assist.service;
+
+/**
+ * A chunk produced by {@link TextChunker}, with the page range, heading and source URL it was taken
+ * from (null when unknown). Stored as a DocumentChunk row with this information as metadata.
+ */
+public record TextChunk(String content, Integer firstPage, Integer lastPage, String heading, String sourceUrl) {
+}
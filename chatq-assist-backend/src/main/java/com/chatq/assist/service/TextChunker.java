@@ -0,0 +1,21 @@
+package com.chatq.assist.service;
+
+/**
+ * Incremental chunker: text blocks are appended as they are extracted, and chunks are emitted
+ * to the sink given at creation as soon as they are complete. Implementations buffer only about
+ * one chunk of text, independent of the document size. Not thread-safe; one instance per document.
+ *
+ * @see ChunkerFactory
+ */
+public interface TextChunker {
+
+    /**
+     * Append a block of text, emitting all chunks that are complete
+     */
+    void accept(TextBlock block);
+
+    /**
+     * Emit the remaining buffered text
+     */
+    void finish();
+}
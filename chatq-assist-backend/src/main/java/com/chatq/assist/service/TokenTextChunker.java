@@ -0,0 +1,203 @@
+package com.chatq.assist.service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Token-budgeted, structure-aware chunker (document.chunk.strategy=token).
+ * Blocks are split into sentences, and chunks are filled with whole sentences up to
+ * {@code maxTokens} tokens of the embedding model's tokenizer:
+ * <ul>
+ *   <li>a heading or source URL change always starts a new chunk, without overlap</li>
+ *   <li>a paragraph that does not fit starts a new chunk if the current one is at least half full</li>
+ *   <li>otherwise chunks are cut between sentences; only sentences longer than the budget are cut by tokens</li>
+ *   <li>consecutive chunks overlap by the trailing sentences that fit into {@code overlapTokens}</li>
+ * </ul>
+ */
+public class TokenTextChunker implements TextChunker {
+
+    private final TokenCounter tokenCounter;
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final Consumer<TextChunk> sink;
+
+    private final BreakIterator sentenceIterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+
+    private final List<Sentence> buffer = new ArrayList<>();
+    private int bufferedTokens;
+    private int newSentences; // Sentences in the buffer that were not part of the previous chunk
+    private String heading;
+    private String sourceUrl;
+
+    public TokenTextChunker(TokenCounter tokenCounter, int maxTokens, int overlapTokens, Consumer<TextChunk> sink) {
+        this.tokenCounter = tokenCounter;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.sink = sink;
+    }
+
+    @Override
+    public void accept(TextBlock block) {
+        if (block.text() == null || block.text().isBlank()) {
+            return;
+        }
+
+        if (!Objects.equals(block.heading(), heading) || !Objects.equals(block.sourceUrl(), sourceUrl)) {
+            emit();
+            clear();
+            heading = block.heading();
+            sourceUrl = block.sourceUrl();
+        }
+
+        List<Sentence> paragraph = splitSentences(block);
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        int paragraphTokens = paragraph.stream().mapToInt(Sentence::tokens).sum();
+
+        // Prefer the paragraph boundary over cutting the paragraph, unless the chunk would stay small
+        if (bufferedTokens + paragraphTokens > maxTokens && bufferedTokens >= maxTokens / 2) {
+            cut(paragraph.get(0).tokens());
+        }
+
+        for (Sentence sentence : paragraph) {
+            if (bufferedTokens + sentence.tokens() > maxTokens) {
+                cut(sentence.tokens());
+            }
+            buffer.add(sentence);
+            bufferedTokens += sentence.tokens();
+            newSentences++;
+        }
+    }
+
+    @Override
+    public void finish() {
+        emit();
+        clear();
+    }
+
+    /**
+     * Emit the buffer as a chunk and keep its trailing sentences as overlap,
+     * as far as they leave room for the next sentence
+     */
+    private void cut(int incomingTokens) {
+        emit();
+
+        int overlapBudget = Math.min(overlapTokens, maxTokens - incomingTokens);
+        int keep = 0;
+        int keptTokens = 0;
+        for (int i = buffer.size() - 1; i >= 0; i--) {
+            int tokens = buffer.get(i).tokens();
+            if (keptTokens + tokens > overlapBudget) {
+                break;
+            }
+            keptTokens += tokens;
+            keep++;
+        }
+
+        buffer.subList(0, buffer.size() - keep).clear();
+        bufferedTokens = keptTokens;
+        newSentences = 0;
+    }
+
+    private void emit() {
+        if (newSentences == 0) {
+            return; // Nothing but overlap of the previous chunk
+        }
+
+        StringBuilder content = new StringBuilder();
+        Integer firstPage = null;
+        Integer lastPage = null;
+        for (Sentence sentence : buffer) {
+            if (!content.isEmpty()) {
+                content.append(sentence.startsParagraph() ? "\n\n" : " ");
+            }
+            content.append(sentence.text());
+            if (sentence.pageNumber() != null) {
+                firstPage = firstPage != null ? firstPage : sentence.pageNumber();
+                lastPage = sentence.pageNumber();
+            }
+        }
+        sink.accept(new TextChunk(content.toString(), firstPage, lastPage, heading, sourceUrl));
+    }
+
+    private void clear() {
+        buffer.clear();
+        bufferedTokens = 0;
+        newSentences = 0;
+    }
+
+    private List<Sentence> splitSentences(TextBlock block) {
+        List<Sentence> sentences = new ArrayList<>();
+        String text = block.text();
+
+        sentenceIterator.setText(text);
+        int start = sentenceIterator.first();
+        for (int end = sentenceIterator.next(); end != BreakIterator.DONE; start = end, end = sentenceIterator.next()) {
+            String sentence = text.substring(start, end).trim();
+            if (sentence.isEmpty()) {
+                continue;
+            }
+
+            int tokens = tokenCounter.count(sentence);
+            if (tokens <= maxTokens) {
+                sentences.add(new Sentence(sentence, tokens, block.pageNumber(), sentences.isEmpty()));
+            } else {
+                splitByTokens(sentence, block.pageNumber(), sentences);
+            }
+        }
+        return sentences;
+    }
+
+    /**
+     * Last resort for sentences longer than the budget (tables, lists without punctuation, ...).
+     * Parts of up to {@code maxTokens} tokens are cut from the UTF-8 bytes; a cut inside a character
+     * that spans two tokens is moved to the start of that character.
+     */
+    private void splitByTokens(String sentence, Integer pageNumber, List<Sentence> sentences) {
+        byte[] bytes = sentence.getBytes(StandardCharsets.UTF_8);
+        int[] tokenEnds = tokenCounter.tokenByteLengths(sentence);
+        for (int i = 1; i < tokenEnds.length; i++) {
+            tokenEnds[i] += tokenEnds[i - 1];
+        }
+
+        int start = 0;
+        int firstToken = 0;
+        while (firstToken < tokenEnds.length) {
+            int lastToken = Math.min(firstToken + maxTokens, tokenEnds.length) - 1;
+            int end = tokenEnds[lastToken];
+            while (end > start && end < bytes.length && isContinuationByte(bytes[end])) {
+                end--;
+            }
+            if (end == start) {
+                // Budget smaller than one character: take the whole character
+                end = tokenEnds[lastToken];
+                while (end < bytes.length && isContinuationByte(bytes[end])) {
+                    end++;
+                }
+            }
+
+            String text = new String(bytes, start, end - start, StandardCharsets.UTF_8).trim();
+            if (!text.isEmpty()) {
+                sentences.add(new Sentence(text, tokenCounter.count(text), pageNumber, sentences.isEmpty()));
+            }
+
+            start = end;
+            while (firstToken < tokenEnds.length && tokenEnds[firstToken] <= start) {
+                firstToken++;
+            }
+        }
+    }
+
+    private static boolean isContinuationByte(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private record Sentence(String text, int tokens, Integer pageNumber, boolean startsParagraph) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.entity.Document;
+import com.chatq.assist.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Keeps URL documents up to date. Documents not checked for {@code max-age-ms} are claimed in
+ * batches with FOR UPDATE SKIP LOCKED (so every instance can run the refresh without checking a
+ * page twice) and checked with a conditional GET. Unchanged pages - 304 Not Modified, or the same
+ * extracted text - only update their fetch state; changed pages are queued for incremental
+ * re-ingestion of the text fetched here, and stay searchable with their current chunks meanwhile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UrlRefreshService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final PageFetcher pageFetcher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${document.refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document.refresh.max-age-ms:86400000}")
+    private long maxAgeMs;
+
+    @Value("${document.refresh.batch-size:20}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${document.refresh.interval-ms:300000}",
+               initialDelayString = "${document.refresh.interval-ms:300000}")
+    public void refreshDueDocuments() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Document> documents = claim();
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        int changed = 0;
+        for (Document document : documents) {
+            try {
+                if (check(document)) {
+                    changed++;
+                }
+            } catch (Exception e) {
+                log.warn("Refresh check of document {} ({}) failed: {}",
+                         document.getId(), document.getSourceUrl(), e.getMessage());
+            }
+        }
+        log.info("Checked {} URL documents for changes, {} queued for re-ingestion", documents.size(), changed);
+    }
+
+    /**
+     * Claim a batch of due documents by stamping them as checked, so other instances skip them
+     * until {@code max-age-ms} has passed again, even if the check itself fails
+     */
+    private List<Document> claim() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Document> documents = documentRepository.lockDueForRefresh(now.minusMillis(maxAgeMs), batchSize);
+            documents.forEach(document -> document.setLastCheckedAt(now));
+            return documents;
+        });
+    }
+
+    /**
+     * Check a document's source for changes; returns true if it was queued for re-ingestion
+     */
+    private boolean check(Document document) throws IOException {
+        PageFetcher.FetchedPage page = pageFetcher.fetch(URI.create(document.getSourceUrl()),
+                                                         document.getEtag(), document.getLastModified());
+
+        if (page.isNotModified()) {
+            log.debug("Document {} not modified (HTTP 304)", document.getId());
+            return false;
+        }
+        if (!page.isSuccess()) {
+            log.warn("Refresh of document {} returned HTTP {}", document.getId(), page.status());
+            return false;
+        }
+
+        String text = DocumentService.pageText(page);
+        String contentHash = DocumentChunkWriter.contentHash(text);
+        if (contentHash.equals(document.getContentHash())) {
+            // Same text, but the server may have sent new validators
+            documentRepository.updateFetchState(document.getId(), page.etag(), page.lastModified(),
+                                                contentHash, Instant.now());
+            log.debug("Document {} unchanged (same content hash)", document.getId());
+            return false;
+        }
+
+        documentService.refreshFetchedPage(document.getId(), page, text);
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+-- Add knowledge base version to tenants
+-- Bumped whenever FAQs or documents of the tenant change, so that cached
+-- retrieval results can be keyed by version instead of being evicted explicitly
+ALTER TABLE tenants
+ADD COLUMN kb_version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN tenants.kb_version IS 'Knowledge base version, incremented on every FAQ/document change of the tenant';
@@ -0,0 +1,13 @@
+-- Persistent second tier of the embedding cache (first tier is the in-memory Caffeine cache)
+-- Keyed by SHA-256 of embedding model name + normalized text, so it survives restarts and deploys
+CREATE TABLE embedding_cache (
+    cache_key CHAR(64) PRIMARY KEY,
+    model VARCHAR(100) NOT NULL,
+    embedding BYTEA NOT NULL, -- pgvector binary layout (see PgVectorCodec)
+    size_bytes INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Least recently used entries are evicted first
+CREATE INDEX idx_embedding_cache_last_used ON embedding_cache(last_used_at);
@@ -0,0 +1,28 @@
+-- Persistent ingestion job queue
+-- Workers claim QUEUED jobs with FOR UPDATE SKIP LOCKED, so several workers / instances never
+-- process the same document; RUNNING jobs whose lock is not refreshed are recovered after a timeout
+CREATE TABLE ingestion_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    tenant_id VARCHAR(255) NOT NULL,
+    document_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'QUEUED', -- QUEUED, RUNNING, SUCCEEDED, FAILED
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL DEFAULT 5,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(255),
+    locked_at TIMESTAMP, -- refreshed on every progress update (heartbeat)
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_ingestion_jobs_document FOREIGN KEY (document_id)
+        REFERENCES documents(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_ingestion_jobs_claim ON ingestion_jobs(status, next_attempt_at);
+CREATE INDEX idx_ingestion_jobs_document ON ingestion_jobs(document_id);
+
+-- Ingestion progress of a document in percent
+ALTER TABLE documents
+ADD COLUMN progress INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- SHA-256 (hex) of the chunk content, used to diff chunk sets on re-ingestion
+-- and to reuse embeddings of identical chunks within a tenant
+ALTER TABLE document_chunks
+ADD COLUMN content_hash CHAR(64);
+
+UPDATE document_chunks
+SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex');
+
+ALTER TABLE document_chunks
+ALTER COLUMN content_hash SET NOT NULL;
+
+CREATE INDEX idx_document_chunks_tenant_hash ON document_chunks(tenant_id, content_hash);
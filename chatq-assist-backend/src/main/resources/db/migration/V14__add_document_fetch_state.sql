@@ -0,0 +1,10 @@
+-- Fetch state of URL documents for scheduled refreshes with conditional GET:
+-- HTTP validators of the last response, SHA-256 (hex) of the extracted text,
+-- and when the source was last fetched or checked for changes
+ALTER TABLE documents
+ADD COLUMN etag VARCHAR(500),
+ADD COLUMN last_modified VARCHAR(100),
+ADD COLUMN content_hash CHAR(64),
+ADD COLUMN last_checked_at TIMESTAMP;
+
+CREATE INDEX idx_documents_refresh ON documents(document_type, last_checked_at);
@@ -0,0 +1,14 @@
+-- Content-addressable upload storage: files are stored once per SHA-256 (hex) under
+-- {document.storage.path}/blobs and shared by all documents with the same content
+CREATE TABLE file_blobs (
+    hash CHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL, -- documents referencing the blob; deleted with its file at 0
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Blob of an uploaded document (null for URL documents and files stored before blobs existed)
+ALTER TABLE documents
+ADD COLUMN file_hash CHAR(64);
+
+CREATE INDEX idx_documents_file_hash ON documents(file_hash);
@@ -0,0 +1,4 @@
+-- Blob read by the running attempt of an ingestion job. The attempt holds a reference on file_blobs,
+-- so replacing the document's file does not delete the blob while it is still being extracted
+ALTER TABLE ingestion_jobs
+ADD COLUMN file_hash CHAR(64);
@@ -0,0 +1,4 @@
+-- Text of a URL document's page as fetched by the scheduled refresh check, so the job ingests it
+-- without downloading the page again; cleared once the job has ended
+ALTER TABLE ingestion_jobs
+ADD COLUMN source_text TEXT;
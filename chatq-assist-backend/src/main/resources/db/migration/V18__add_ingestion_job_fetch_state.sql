@@ -0,0 +1,6 @@
+-- Fetch state of the page a URL document's job ingests (HTTP validators, SHA-256 (hex) of the text);
+-- written to the document once the job succeeds, so a failed job leaves the page due for re-ingestion
+ALTER TABLE ingestion_jobs
+ADD COLUMN source_etag VARCHAR(500),
+ADD COLUMN source_last_modified VARCHAR(100),
+ADD COLUMN source_content_hash CHAR(64);
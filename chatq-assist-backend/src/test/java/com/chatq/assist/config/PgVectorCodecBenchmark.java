@@ -0,0 +1,146 @@
+package com.chatq.assist.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of moving one embedding between Java and pgvector, per row read and per query parameter:
+ * the decimal text form used before ({@code String.split} / {@code vectorToString}) against the forms used now.
+ * Similarity queries bind the question embedding as {@code float[]} and cast it with
+ * {@code CAST(CAST(:embedding AS real[]) AS vector)}: Hibernate boxes the array and pgjdbc sends it as a
+ * binary {@code float4[]}, which {@link #queryParameterRealArray} runs with the driver's own encoder.
+ * {@link PgVectorCodec#encode} is only used for the bytea rows of the persistent embedding cache.
+ * Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=PgVectorCodec -Djmh.args="-prof gc"}
+ * to see the allocation per operation next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgVectorCodecBenchmark {
+
+    @Param({"1536"})
+    private int dimensions;
+
+    private float[] vector;
+    private String text;
+    private byte[] binary;
+    private MethodHandle float4ArrayEncoder;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        Random random = new Random(42);
+        vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        text = PgVectorCodec.toText(vector);
+        binary = PgVectorCodec.encode(vector);
+        float4ArrayEncoder = pgjdbcBinaryArrayEncoder();
+    }
+
+    @Benchmark
+    public float[] readRowTextSplit() {
+        return legacyParse(text);
+    }
+
+    @Benchmark
+    public float[] readRowText() {
+        return PgVectorCodec.parseText(text);
+    }
+
+    @Benchmark
+    public float[] readRowBinary() {
+        return PgVectorCodec.decode(binary);
+    }
+
+    @Benchmark
+    public String queryParameterText() {
+        return legacyFormat(vector);
+    }
+
+    @Benchmark
+    public byte[] queryParameterRealArray() throws Throwable {
+        // What Hibernate's ArrayJdbcType and PgConnection.createArrayOf do for a float[] parameter
+        Float[] boxed = new Float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            boxed[i] = vector[i];
+        }
+        return (byte[]) float4ArrayEncoder.invoke(boxed);
+    }
+
+    @Benchmark
+    public byte[] embeddingCacheWriteBinary() {
+        return PgVectorCodec.encode(vector);
+    }
+
+    /**
+     * pgjdbc's binary float4[] encoder for boxed arrays. ArrayEncoding is package-private, so it is looked
+     * up reflectively once; the connection argument is not used for numeric arrays.
+     */
+    private static MethodHandle pgjdbcBinaryArrayEncoder() throws ReflectiveOperationException {
+        int float4ArrayOid = 1021;
+        Method getEncoder = Class.forName("org.postgresql.jdbc.ArrayEncoding").getDeclaredMethod("getArrayEncoder", Object.class);
+        getEncoder.setAccessible(true);
+        Object encoder = getEncoder.invoke(null, (Object) new Float[0]);
+
+        Method supportsBinary = encoder.getClass().getMethod("supportBinaryRepresentation", int.class);
+        supportsBinary.setAccessible(true);
+        if (!(boolean) supportsBinary.invoke(encoder, float4ArrayOid)) {
+            throw new IllegalStateException("pgjdbc does not encode float4[] in binary");
+        }
+
+        Method toBinary = encoder.getClass().getMethod("toBinaryRepresentation",
+            Class.forName("org.postgresql.core.BaseConnection"), Object.class, int.class);
+        toBinary.setAccessible(true);
+        // (encoder, connection, array, oid) -> (array)
+        MethodHandle encode = MethodHandles.lookup().unreflect(toBinary);
+        return MethodHandles.insertArguments(MethodHandles.insertArguments(encode, 3, float4ArrayOid), 0, encoder, null);
+    }
+
+    /**
+     * Previous VectorType.parseVector
+     */
+    private static float[] legacyParse(String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        String[] parts = trimmed.split(",");
+        float[] result = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Float.parseFloat(parts[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Previous ChatServiceLLM.vectorToString
+     */
+    private static String legacyFormat(float[] embedding) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) sb.append(",");
+            sb.append(embedding[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.chatq.assist.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PgVectorCodecTest {
+
+    @Test
+    void encodesPgvectorBinaryLayout() {
+        byte[] bytes = PgVectorCodec.encode(new float[]{1.0f, -2.5f});
+
+        assertThat(bytes).hasSize(4 + 2 * Float.BYTES);
+        // int16 dimensions, int16 unused, then big-endian float4
+        assertThat(bytes).startsWith(0, 2, 0, 0, 0x3f, 0x80, 0, 0, 0xc0, 0x20, 0, 0);
+    }
+
+    @Test
+    void decodesWhatItEncodes() {
+        float[] vector = {0.1f, -0.25f, 3.5e-7f, Float.MAX_VALUE};
+
+        assertThat(PgVectorCodec.decode(PgVectorCodec.encode(vector))).containsExactly(vector);
+    }
+
+    @Test
+    void rejectsTruncatedBinary() {
+        byte[] bytes = PgVectorCodec.encode(new float[]{1, 2, 3});
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+        assertThatThrownBy(() -> PgVectorCodec.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PgVectorCodec.decode(new byte[2])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parsesTextForm() {
+        assertThat(PgVectorCodec.parseText(" [0.5, -1,2e-3] ")).containsExactly(0.5f, -1f, 0.002f);
+        assertThat(PgVectorCodec.parseText("[]")).isEmpty();
+    }
+
+    @Test
+    void formatsTextFormThatParsesBack() {
+        float[] vector = {0.123f, -4f, 1e-9f};
+
+        assertThat(PgVectorCodec.toText(new float[]{1f, -0.5f})).isEqualTo("[1.0,-0.5]");
+        assertThat(PgVectorCodec.parseText(PgVectorCodec.toText(vector))).containsExactly(vector);
+    }
+}
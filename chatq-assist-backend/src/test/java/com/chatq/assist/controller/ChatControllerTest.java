@@ -0,0 +1,64 @@
+package com.chatq.assist.controller;
+
+import com.chatq.assist.exception.ChatOverloadedException;
+import com.chatq.assist.exception.GlobalExceptionHandler;
+import com.chatq.assist.service.ChatServiceLLM;
+import com.chatq.assist.service.FeedbackService;
+import com.chatq.assist.service.SupportTicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChatControllerTest {
+
+    private final ChatServiceLLM chatService = mock(ChatServiceLLM.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+        .standaloneSetup(new ChatController(chatService, mock(FeedbackService.class), mock(SupportTicketService.class)))
+        .setControllerAdvice(new GlobalExceptionHandler())
+        .build();
+
+    @Test
+    void rejectsSaturatedStreamWith429ForEventStreamClients() throws Exception {
+        doThrow(new ChatOverloadedException("Chat capacity exhausted", 5))
+            .when(chatService).processChatStreaming(any(), eq("default-tenant"), any());
+
+        mockMvc.perform(post("/api/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{\"question\": \"When do you open?\"}"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+
+    @Test
+    void streamsAdmittedRequests() throws Exception {
+        mockMvc.perform(post("/api/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{\"question\": \"When do you open?\"}"))
+            .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void resumesStreamFromLastEventId() throws Exception {
+        mockMvc.perform(get("/api/chat/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "session:7:3"))
+            .andExpect(request().asyncStarted());
+
+        verify(chatService).resumeChatStreaming(eq("session:7:3"), eq("default-tenant"), any());
+    }
+}
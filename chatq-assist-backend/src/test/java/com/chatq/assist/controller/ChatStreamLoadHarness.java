@@ -0,0 +1,248 @@
+package com.chatq.assist.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Load test of the streaming chat endpoints against a running backend: opens {@code streams} concurrent
+ * streams on /api/chat/stream (v1, SseEmitter on virtual threads) and /api/v2/chat/stream (v2, reactive),
+ * one API after the other, and samples the server's live threads and used heap from the actuator while
+ * they are open. The growth over the idle baseline is reported per 1,000 open streams, next to
+ * rejections (429 or {@code overloaded} event) and time to the first event.
+ * <p>
+ * Metrics need a SUPER_ADMIN token; without it only the client-side numbers are reported. Virtual threads
+ * are not included in {@code jvm.threads.live}, so the v1 thread count shows carrier and platform threads.
+ * Use a question that reaches the LLM, so streams stay open long enough to overlap:
+ * {@code mvn -Ploadtest test -DskipTests -Dload.args="--streams=1000 --token=<jwt> --question='...'"}
+ */
+public class ChatStreamLoadHarness {
+
+    private static final Map<String, String> ENDPOINTS = Map.of("v1", "/api/chat/stream", "v2", "/api/v2/chat/stream");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Options options;
+    private final HttpClient client;
+
+    public record Options(URI baseUrl, int streams, Duration rampUp, List<String> apis, String question,
+                          String tenantId, String token, Duration sampleInterval) {
+
+        static Options parse(String... args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String arg : args) {
+                String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+                values.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+            return new Options(
+                URI.create(values.getOrDefault("url", "http://localhost:8080")),
+                Integer.parseInt(values.getOrDefault("streams", "1000")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("ramp-up-ms", "10000"))),
+                Arrays.asList(values.getOrDefault("apis", "v1,v2").split(",")),
+                values.getOrDefault("question", "Wie kann ich mein Passwort zurücksetzen?"),
+                values.getOrDefault("tenant", "default-tenant"),
+                values.get("token"),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("sample-interval-ms", "500"))));
+        }
+    }
+
+    /**
+     * Server threads and used heap; NaN if the metrics could not be read
+     */
+    public record Sample(double threads, double heapBytes) {
+
+        static final Sample UNKNOWN = new Sample(Double.NaN, Double.NaN);
+
+        Sample max(Sample other) {
+            return new Sample(max(threads, other.threads), max(heapBytes, other.heapBytes));
+        }
+
+        private static double max(double a, double b) {
+            return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.max(a, b);
+        }
+    }
+
+    public record Result(String api, int streams, int completed, int rejected, int failed, int peakOpen,
+                         Sample baseline, Sample peak, long firstEventP50Ms, long firstEventP95Ms) {
+
+        double threadsPer1000() {
+            return per1000(peak.threads() - baseline.threads());
+        }
+
+        double heapMbPer1000() {
+            return per1000((peak.heapBytes() - baseline.heapBytes()) / (1024 * 1024));
+        }
+
+        private double per1000(double growth) {
+            return peakOpen > 0 ? growth * 1000 / peakOpen : Double.NaN;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d streams, %d completed, %d rejected, %d failed, peak %d open%n"
+                                 + "  first event p50 %d ms / p95 %d ms%n"
+                                 + "  threads %.0f -> %.0f (%+.0f per 1,000 open streams)%n"
+                                 + "  heap %.0f -> %.0f MB (%+.0f MB per 1,000 open streams)",
+                                 api, ENDPOINTS.get(api), streams, completed, rejected, failed, peakOpen,
+                                 firstEventP50Ms, firstEventP95Ms,
+                                 baseline.threads(), peak.threads(), threadsPer1000(),
+                                 baseline.heapBytes() / (1024 * 1024), peak.heapBytes() / (1024 * 1024), heapMbPer1000());
+        }
+    }
+
+    public ChatStreamLoadHarness(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+        ChatStreamLoadHarness harness = new ChatStreamLoadHarness(options);
+        for (String api : options.apis()) {
+            System.out.println(harness.run(api));
+        }
+    }
+
+    public Result run(String api) throws InterruptedException {
+        String path = ENDPOINTS.get(api);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown API " + api + ", expected one of " + ENDPOINTS.keySet());
+        }
+
+        Sample baseline = sample();
+        AtomicReference<Sample> peak = new AtomicReference<>(baseline);
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger peakOpen = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> firstEventMs = new ConcurrentLinkedQueue<>();
+
+        // Only samples taken while streams are open count towards the peak
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleWithFixedDelay(() -> {
+            if (open.get() > 0) {
+                peak.accumulateAndGet(sample(), Sample::max);
+            }
+        }, 0, options.sampleInterval().toMillis(), TimeUnit.MILLISECONDS);
+
+        long delayNanos = options.rampUp().toNanos() / Math.max(1, options.streams());
+        try (ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.streams(); i++) {
+                streams.execute(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Stream<String>> response = client.send(streamRequest(path),
+                                                                             HttpResponse.BodyHandlers.ofLines());
+                        if (response.statusCode() == 429) {
+                            rejected.incrementAndGet();
+                            response.body().close();
+                            return;
+                        }
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            response.body().close();
+                            return;
+                        }
+
+                        peakOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                        try (Stream<String> lines = response.body()) {
+                            boolean first = true;
+                            boolean overloaded = false;
+                            for (String line : (Iterable<String>) lines::iterator) {
+                                if (!line.startsWith("event:")) {
+                                    continue;
+                                }
+                                if (first) {
+                                    firstEventMs.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                                    first = false;
+                                }
+                                overloaded |= line.substring(6).trim().equals("overloaded");
+                            }
+                            (overloaded ? rejected : completed).incrementAndGet();
+                        } finally {
+                            open.decrementAndGet();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        failed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        List<Long> sorted = new ArrayList<>(firstEventMs);
+        sorted.sort(null);
+        return new Result(api, options.streams(), completed.get(), rejected.get(), failed.get(), peakOpen.get(),
+                          baseline, peak.get(), percentile(sorted, 50), percentile(sorted, 95));
+    }
+
+    private HttpRequest streamRequest(String path) throws IOException {
+        return HttpRequest.newBuilder(options.baseUrl().resolve(path))
+            .header("Content-Type", "application/json")
+            .header("Accept", "text/event-stream")
+            .header("X-Tenant-ID", options.tenantId())
+            .POST(HttpRequest.BodyPublishers.ofString(
+                objectMapper.writeValueAsString(Map.of("question", options.question()))))
+            .build();
+    }
+
+    private Sample sample() {
+        return new Sample(metric("jvm.threads.live"), metric("jvm.memory.used?tag=area:heap"));
+    }
+
+    private double metric(String name) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(options.baseUrl().resolve("/actuator/metrics/" + name))
+            .timeout(Duration.ofSeconds(5));
+        if (options.token() != null) {
+            request.header("Authorization", "Bearer " + options.token());
+        }
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if (measurement.path("statistic").asText().equals("VALUE")) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (IOException e) {
+            // Reported as unknown
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Double.NaN;
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        return sorted.isEmpty() ? -1 : sorted.get(Math.min(sorted.size() - 1, sorted.size() * percent / 100));
+    }
+}
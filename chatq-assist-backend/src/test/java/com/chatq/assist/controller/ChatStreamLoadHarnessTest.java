@@ -0,0 +1,126 @@
+package com.chatq.assist.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatStreamLoadHarnessTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String base;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/chat/stream", exchange -> stream(exchange, requests.incrementAndGet() % 5 == 0));
+        server.createContext("/api/v2/chat/stream", exchange -> stream(exchange, false));
+        server.createContext("/actuator/metrics/", this::metric);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void countsOutcomesAndReportsGrowthPerOpenStream() throws InterruptedException {
+        ChatStreamLoadHarness harness = new ChatStreamLoadHarness(ChatStreamLoadHarness.Options.parse(
+            "--url=" + base, "--streams=40", "--ramp-up-ms=100", "--sample-interval-ms=20", "--token=test"));
+
+        ChatStreamLoadHarness.Result v1 = harness.run("v1");
+
+        // Every fifth request is answered with an overloaded event
+        assertThat(v1.completed()).isEqualTo(32);
+        assertThat(v1.rejected()).isEqualTo(8);
+        assertThat(v1.failed()).isZero();
+        assertThat(v1.peakOpen()).isGreaterThan(1);
+        assertThat(v1.firstEventP50Ms()).isNotNegative();
+        assertThat(v1.baseline().threads()).isEqualTo(10);
+        assertThat(v1.peak().threads()).isGreaterThan(10);
+        assertThat(v1.threadsPer1000()).isPositive();
+        assertThat(v1.toString()).contains("/api/chat/stream", "per 1,000 open streams");
+
+        ChatStreamLoadHarness.Result v2 = harness.run("v2");
+
+        assertThat(v2.completed()).isEqualTo(40);
+        assertThat(v2.rejected()).isZero();
+    }
+
+    @Test
+    void reportsUnknownMetricsWithoutToken() throws InterruptedException {
+        ChatStreamLoadHarness harness = new ChatStreamLoadHarness(ChatStreamLoadHarness.Options.parse(
+            "--url=" + base, "--streams=5", "--ramp-up-ms=0", "--apis=v2"));
+
+        ChatStreamLoadHarness.Result result = harness.run("v2");
+
+        assertThat(result.completed()).isEqualTo(5);
+        assertThat(result.peak().threads()).isNaN();
+        assertThat(result.threadsPer1000()).isNaN();
+    }
+
+    private void stream(HttpExchange exchange, boolean overloaded) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        openStreams.incrementAndGet();
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (overloaded) {
+                write(out, "event:overloaded\ndata:{\"retryAfterSeconds\":5}\n\n");
+                return;
+            }
+            for (int i = 0; i < 4; i++) {
+                write(out, "event:token\ndata:Hallo \n\n");
+                Thread.sleep(50);
+            }
+            write(out, "event:metadata\ndata:{}\n\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openStreams.decrementAndGet();
+        }
+    }
+
+    private void metric(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+            return;
+        }
+        double value = exchange.getRequestURI().getPath().endsWith("jvm.threads.live")
+            ? 10 + openStreams.get()
+            : 100 * 1024 * 1024;
+        byte[] body = ("{\"measurements\":[{\"statistic\":\"VALUE\",\"value\":" + value + "}]}")
+            .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void write(OutputStream out, String event) throws IOException {
+        out.write(event.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,76 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.exception.ChatOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatExecutor executor = new ChatExecutor(meterRegistry);
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(executor, "maxConcurrentStreams", 2);
+        ReflectionTestUtils.setField(executor, "retryAfterSeconds", 7L);
+        ReflectionTestUtils.setField(executor, "maxConcurrentEmbeddings", 1);
+        ReflectionTestUtils.setField(executor, "maxConcurrentDatabase", 1);
+        ReflectionTestUtils.setField(executor, "maxConcurrentLlm", 1);
+        ReflectionTestUtils.setField(executor, "acquireTimeoutMs", 10L);
+        executor.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsStreamsOnTheCallingThreadWhileAStageIsSaturated() throws InterruptedException {
+        ChatExecutor.Permit llm = executor.enter(ChatExecutor.Stage.LLM);
+
+        assertThatThrownBy(() -> executor.submitStream(() -> {
+        })).isInstanceOf(ChatOverloadedException.class)
+            .hasMessageContaining("LLM")
+            .extracting(e -> ((ChatOverloadedException) e).getRetryAfterSeconds()).isEqualTo(7L);
+
+        llm.close();
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.submitStream(ran::countDown);
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("chat.executor.rejections").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsStreamsBeyondTheLimitAndStagesThatStaySaturated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submitStream(() -> awaitQuietly(release));
+        executor.submitStream(() -> awaitQuietly(release));
+
+        assertThatThrownBy(() -> executor.submitStream(() -> {
+        })).isInstanceOf(ChatOverloadedException.class).hasMessageContaining("streams");
+
+        try (ChatExecutor.Permit ignored = executor.enter(ChatExecutor.Stage.DATABASE)) {
+            assertThatThrownBy(() -> executor.enter(ChatExecutor.Stage.DATABASE))
+                .isInstanceOf(ChatOverloadedException.class).hasMessageContaining("DATABASE");
+        }
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.exception.ResourceNotFoundException;
+import com.chatq.assist.service.ChatPersistenceService.ChatTurn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatStreamRegistryTest {
+
+    private final ChatStreamRegistry registry = new ChatStreamRegistry(new SimpleMeterRegistry());
+    private final ChatTurn turn = new ChatTurn(1L, "session", "tenant", 7L, List.of());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "maxEvents", 4);
+        ReflectionTestUtils.setField(registry, "graceMs", 60_000L);
+        ReflectionTestUtils.setField(registry, "retentionMs", 60_000L);
+        registry.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void replaysMissedEventsAndFollowsLiveAnswer() {
+        RecordingEmitter first = new RecordingEmitter();
+        ChatStreamRegistry.ChatStream stream = registry.open(turn, first);
+        AtomicReference<String> abandoned = new AtomicReference<>();
+        stream.onAbandon(abandoned::set);
+
+        stream.send("token", "Opening ");
+        stream.send("token", "hours ");
+        first.drop();
+        stream.send("token", "are 9 to 5");
+
+        // Event 2 was written but lost with the connection, so the client resumes after event 1
+        RecordingEmitter second = new RecordingEmitter();
+        registry.resume("session:7:1", "tenant", second);
+        stream.send("messageId", "42");
+        stream.complete();
+
+        assertThat(first.events).containsExactly("session:7:1 token Opening ", "session:7:2 token hours ");
+        assertThat(second.events).containsExactly(
+            "session:7:2 token hours ",
+            "session:7:3 token are 9 to 5",
+            "session:7:4 messageId 42");
+        assertThat(second.completed).isTrue();
+        assertThat(abandoned.get()).isNull();
+    }
+
+    @Test
+    void replaysFinishedStream() {
+        ChatStreamRegistry.ChatStream stream = registry.open(turn, new RecordingEmitter());
+        stream.send("token", "Hello");
+        stream.send("messageId", "42");
+        stream.complete();
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        registry.resume("session:7:1", "tenant", resumed);
+
+        assertThat(resumed.events).containsExactly("session:7:2 messageId 42");
+        assertThat(resumed.completed).isTrue();
+    }
+
+    @Test
+    void rejectsStreamsThatCannotBeResumed() {
+        ChatStreamRegistry.ChatStream stream = registry.open(turn, new RecordingEmitter());
+        for (int i = 0; i < 6; i++) {
+            stream.send("token", "t" + i);
+        }
+
+        // Events 2 and 3 were overwritten in the ring of 4
+        assertThatThrownBy(() -> registry.resume("session:7:1", "tenant", new RecordingEmitter()))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> registry.resume("session:7:5", "other-tenant", new RecordingEmitter()))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> registry.resume("unknown:1:1", "tenant", new RecordingEmitter()))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Records each event as "id name data"; after {@link #drop()} sends fail like a closed connection
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private volatile boolean completed;
+
+        void drop() {
+            dropped.set(true);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (dropped.get()) {
+                throw new IOException("Broken pipe");
+            }
+            String event = builder.build().stream()
+                .map(part -> part.getData().toString())
+                .collect(Collectors.joining());
+            events.add(field(event, "id:") + " " + field(event, "event:") + " " + field(event, "data:"));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private static String field(String event, String prefix) {
+            return event.lines()
+                .filter(line -> line.startsWith(prefix))
+                .map(line -> line.substring(prefix.length()))
+                .findFirst()
+                .orElse("");
+        }
+    }
+}
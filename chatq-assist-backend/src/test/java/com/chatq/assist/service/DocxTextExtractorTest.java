@@ -0,0 +1,144 @@
+package com.chatq.assist.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocxTextExtractorTest {
+
+    private static final String CONTENT_TYPES = """
+        <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+        <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">
+          <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>
+          <Default Extension="xml" ContentType="application/xml"/>
+          <Override PartName="/word/document.xml"
+                    ContentType="application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml"/>
+          <Override PartName="/word/styles.xml"
+                    ContentType="application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml"/>
+        </Types>
+        """;
+
+    private static final String PACKAGE_RELS = """
+        <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+        <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+          <Relationship Id="rId1" Target="word/document.xml"
+                        Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument"/>
+        </Relationships>
+        """;
+
+    private static final String DOCUMENT_RELS = """
+        <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+        <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+          <Relationship Id="rId1" Target="styles.xml"
+                        Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles"/>
+        </Relationships>
+        """;
+
+    // Localized style id, English built-in name
+    private static final String STYLES = """
+        <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+        <w:styles xmlns:w="http://schemas.openxmlformats.org/wordprocessingml/2006/main">
+          <w:style w:type="paragraph" w:styleId="berschrift1"><w:name w:val="heading 1"/></w:style>
+          <w:style w:type="paragraph" w:styleId="berschrift2"><w:name w:val="heading 2"/></w:style>
+        </w:styles>
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    private final DocxTextExtractor extractor = new DocxTextExtractor();
+
+    @Test
+    void ignoresTabStopDefinitions() throws IOException {
+        List<TextBlock> blocks = extract("""
+            <w:p>
+              <w:pPr><w:tabs><w:tab w:val="left" w:pos="720"/><w:tab w:val="right" w:pos="9000"/></w:tabs></w:pPr>
+              <w:r><w:t>Name</w:t></w:r><w:r><w:tab/><w:t>Value</w:t></w:r>
+            </w:p>
+            """);
+
+        assertThat(blocks).extracting(TextBlock::text).containsExactly("Name\tValue");
+    }
+
+    @Test
+    void keepsParagraphTextAroundNestedTextBox() throws IOException {
+        List<TextBlock> blocks = extract("""
+            <w:p>
+              <w:r><w:t xml:space="preserve">Before the box </w:t></w:r>
+              <w:r>
+                <w:pict><v:shape><v:textbox><w:txbxContent>
+                  <w:p><w:pPr><w:tabs><w:tab w:val="left" w:pos="720"/></w:tabs></w:pPr><w:r><w:t>Boxed</w:t></w:r></w:p>
+                </w:txbxContent></v:textbox></v:shape></w:pict>
+              </w:r>
+              <w:r><w:t>after the box</w:t></w:r>
+            </w:p>
+            """);
+
+        assertThat(blocks).extracting(TextBlock::text).containsExactly("Boxed", "Before the box after the box");
+    }
+
+    @Test
+    void tracksHeadingPathAndFlattensTableRows() throws IOException {
+        List<TextBlock> blocks = extract("""
+            <w:p><w:pPr><w:pStyle w:val="berschrift1"/></w:pPr><w:r><w:t>Installation</w:t></w:r></w:p>
+            <w:p><w:pPr><w:pStyle w:val="berschrift2"/></w:pPr><w:r><w:t>Requirements</w:t></w:r></w:p>
+            <w:tbl>
+              <w:tr>
+                <w:tc><w:p><w:r><w:t>Java</w:t></w:r></w:p></w:tc>
+                <w:tc><w:p><w:r><w:t>21</w:t></w:r></w:p><w:p><w:r><w:t>or newer</w:t></w:r></w:p></w:tc>
+              </w:tr>
+            </w:tbl>
+            <w:p><w:r><w:t>Line one</w:t><w:br/><w:t>Line two</w:t></w:r></w:p>
+            """);
+
+        assertThat(blocks).extracting(TextBlock::text)
+            .containsExactly("Installation", "Requirements", "Java | 21 or newer", "Line one\nLine two");
+        assertThat(blocks.get(2).heading()).isEqualTo("Installation > Requirements");
+    }
+
+    private List<TextBlock> extract(String body) throws IOException {
+        List<TextBlock> blocks = new ArrayList<>();
+        extractor.extract(docx(body), blocks::add);
+        return blocks;
+    }
+
+    private File docx(String body) throws IOException {
+        String document = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <w:document xmlns:w="http://schemas.openxmlformats.org/wordprocessingml/2006/main"
+                        xmlns:v="urn:schemas-microsoft-com:vml">
+              <w:body>
+            """ + body + """
+              </w:body>
+            </w:document>
+            """;
+
+        Path path = tempDir.resolve("test.docx");
+        try (OutputStream out = Files.newOutputStream(path); ZipOutputStream zip = new ZipOutputStream(out)) {
+            entry(zip, "[Content_Types].xml", CONTENT_TYPES);
+            entry(zip, "_rels/.rels", PACKAGE_RELS);
+            entry(zip, "word/_rels/document.xml.rels", DOCUMENT_RELS);
+            entry(zip, "word/styles.xml", STYLES);
+            entry(zip, "word/document.xml", document);
+        }
+        return path.toFile();
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.strip().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
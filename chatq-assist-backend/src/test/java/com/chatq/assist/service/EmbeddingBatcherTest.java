@@ -0,0 +1,138 @@
+package com.chatq.assist.service;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingBatcherTest {
+
+    private static final TokenCounter tokenCounter = new TokenCounter();
+
+    private final RecordingModel model = new RecordingModel();
+    private final EmbeddingBatcher batcher = new EmbeddingBatcher(model, tokenCounter);
+
+    @BeforeAll
+    static void initTokenizer() {
+        ReflectionTestUtils.setField(tokenCounter, "modelName", "text-embedding-3-small");
+        tokenCounter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        model.release.countDown();
+        batcher.shutdown();
+    }
+
+    @Test
+    void completesEachCallerFromOneRequest() throws Exception {
+        start(1, 64, 48);
+        model.release.countDown();
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.submit("text " + i, EmbeddingBatcher.Priority.BULK));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).containsExactly(("text " + i).length());
+        }
+        assertThat(model.batches.stream().mapToInt(List::size).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void interactiveTextsOvertakeQueuedBulkTexts() throws Exception {
+        start(1, 8, 6);
+
+        // Occupies the only request slot until released
+        CompletableFuture<float[]> blocking = batcher.submit("blocking", EmbeddingBatcher.Priority.BULK);
+        model.started.await(5, TimeUnit.SECONDS);
+
+        List<CompletableFuture<float[]>> bulk = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            bulk.add(batcher.submit("chunk " + i, EmbeddingBatcher.Priority.BULK));
+        }
+        CompletableFuture<float[]> question = batcher.submit("question", EmbeddingBatcher.Priority.INTERACTIVE);
+
+        model.release.countDown();
+        question.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(bulk.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        blocking.get(5, TimeUnit.SECONDS);
+
+        List<String> secondBatch = model.batches.get(1);
+        assertThat(secondBatch.get(0)).isEqualTo("question");
+        assertThat(model.batches).allSatisfy(batch ->
+            assertThat(batch.stream().filter(text -> text.startsWith("chunk")).count()).isLessThanOrEqualTo(6));
+    }
+
+    @Test
+    void limitsBatchesByCountedTokens() throws Exception {
+        // German compounds and umlauts take more tokens than characters / 4 estimated
+        String text = "Größenänderung der Übersichtsseite für Änderungsanträge".repeat(20);
+        int tokens = tokenCounter.count(text);
+        assertThat(tokens).isGreaterThan(text.length() / 4);
+
+        start(1, 64, 48, tokens * 3);
+        model.release.countDown();
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            futures.add(batcher.submit(text, EmbeddingBatcher.Priority.BULK));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(model.batches).hasSizeGreaterThanOrEqualTo(3)
+            .allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+    }
+
+    private void start(int concurrency, int maxBatchSize, int maxBulkPerBatch) {
+        start(concurrency, maxBatchSize, maxBulkPerBatch, 50_000);
+    }
+
+    private void start(int concurrency, int maxBatchSize, int maxBulkPerBatch, int maxBatchTokens) {
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "maxWaitMs", 5L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(batcher, "maxBulkPerBatch", maxBulkPerBatch);
+        ReflectionTestUtils.setField(batcher, "maxBatchTokens", maxBatchTokens);
+        ReflectionTestUtils.setField(batcher, "concurrency", concurrency);
+        batcher.init();
+    }
+
+    /**
+     * Embeds a text as its length and records the texts of each request; requests block until released
+     */
+    private static class RecordingModel implements EmbeddingModel {
+
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            batches.add(segments.stream().map(TextSegment::text).toList());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.from(segments.stream()
+                .map(segment -> Embedding.from(new float[]{segment.text().length()}))
+                .toList());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.chatq.assist.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfTextExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PdfTextExtractor extractor = new PdfTextExtractor();
+
+    @AfterEach
+    void tearDown() {
+        extractor.shutdown();
+    }
+
+    @Test
+    void extractsPagesInOrderAcrossParallelRanges() throws IOException {
+        start(3, 2);
+        File pdf = pdf(20);
+
+        List<TextBlock> blocks = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+        extractor.extract(pdf, blocks::add, progress::add);
+
+        assertThat(blocks).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(blocks.get(i).pageNumber()).isEqualTo(i + 1);
+            assertThat(blocks.get(i).text()).contains("Page " + (i + 1) + " text");
+        }
+        assertThat(progress).isSorted().endsWith(100);
+    }
+
+    @Test
+    void stopsOnSinkFailure() throws IOException {
+        start(2, 4);
+        File pdf = pdf(12);
+
+        assertThatThrownBy(() -> extractor.extract(pdf, block -> {
+            if (block.pageNumber() == 3) {
+                throw new IllegalStateException("sink failed");
+            }
+        }, percent -> {
+        })).hasMessage("sink failed");
+    }
+
+    private void start(int pageRangeSize, int parallelism) {
+        ReflectionTestUtils.setField(extractor, "pageRangeSize", pageRangeSize);
+        ReflectionTestUtils.setField(extractor, "parallelism", parallelism);
+        extractor.init();
+    }
+
+    private File pdf(int pages) throws IOException {
+        File file = tempDir.resolve("test.pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.newLineAtOffset(50, 700);
+                    content.showText("Page " + i + " text");
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+}
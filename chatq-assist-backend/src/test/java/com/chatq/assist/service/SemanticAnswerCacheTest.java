@@ -0,0 +1,66 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.config.CacheProperties;
+import com.chatq.assist.domain.dto.ChatResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticAnswerCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SemanticAnswerCache cache = new SemanticAnswerCache(new CacheFactory(answersSpec(), meterRegistry),
+                                                                      meterRegistry);
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "similarityThreshold", 0.95);
+        ReflectionTestUtils.setField(cache, "maxEntriesPerTenant", 2);
+        cache.init();
+    }
+
+    @Test
+    void answersSimilarQuestionsOfTheSameTenantAndVersion() {
+        cache.store("a", 1, new float[]{1, 0, 0}, "Answer", List.of(source()), 0.9, 7L);
+
+        assertThat(cache.lookup("a", 1, new float[]{0.99f, 0.05f, 0})).get()
+            .extracting(SemanticAnswerCache.CachedAnswer::answer).isEqualTo("Answer");
+        assertThat(cache.lookup("a", 1, new float[]{0, 1, 0})).isEmpty();
+        assertThat(cache.lookup("b", 1, new float[]{1, 0, 0})).isEmpty();
+        assertThat(cache.lookup("a", 2, new float[]{1, 0, 0})).isEmpty();
+        // The stale answer was dropped by the lookup with the new version
+        assertThat(cache.lookup("a", 1, new float[]{1, 0, 0})).isEmpty();
+    }
+
+    @Test
+    void keepsTheNewestAnswersPerTenantAndReportsCacheMetrics() {
+        cache.store("a", 1, new float[]{1, 0, 0}, "First", List.of(), 0.9, null);
+        cache.store("a", 1, new float[]{0, 1, 0}, "Second", List.of(), 0.9, null);
+        cache.store("a", 1, new float[]{0, 0, 1}, "Third", List.of(), 0.9, null);
+
+        assertThat(cache.lookup("a", 1, new float[]{1, 0, 0})).isEmpty();
+        assertThat(cache.lookup("a", 1, new float[]{0, 0, 1})).isPresent();
+        assertThat(meterRegistry.find("cache.size").tag("cache", "answers").gauge()).isNotNull();
+    }
+
+    private static CacheProperties answersSpec() {
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumWeight(DataSize.ofMegabytes(1));
+        CacheProperties properties = new CacheProperties();
+        properties.setSpecs(Map.of("answers", spec));
+        return properties;
+    }
+
+    private static ChatResponse.SourceReference source() {
+        return ChatResponse.SourceReference.builder().type("FAQ").title("Title").id(7L).build();
+    }
+}
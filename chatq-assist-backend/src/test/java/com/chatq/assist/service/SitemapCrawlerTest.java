@@ -0,0 +1,250 @@
+package com.chatq.assist.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SitemapCrawlerTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String base;
+
+    private final Map<String, Response> responses = new ConcurrentHashMap<>();
+    private final List<String> requested = new CopyOnWriteArrayList<>();
+    private final AtomicInteger activePageRequests = new AtomicInteger();
+    private final AtomicInteger maxActivePageRequests = new AtomicInteger();
+
+    private final SitemapCrawler crawler = new SitemapCrawler(new HttpPageFetcher(5000, 1 << 20));
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        crawler.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void crawlsNestedSitemapsInOrderAndSkipsFailedPages() throws IOException {
+        start(8, 2, 5000, 3);
+        xml("/sitemap.xml", index("/sitemaps/docs.xml.gz", "/sitemaps/blog.xml"));
+        responses.put("/sitemaps/docs.xml.gz", new Response(200, "application/x-gzip",
+                                                            gzip(urlset("/docs/a", "/docs/missing", "/docs/b"))));
+        xml("/sitemaps/blog.xml", urlset("/blog/file.pdf", "/blog/c", "/blog/a-copy", "/blog/empty"));
+        html("/docs/a", page("A", "Alpha text", null));
+        html("/docs/b", page("B", "Beta text", null));
+        html("/blog/c", page("C", "Gamma text", null));
+        html("/blog/a-copy", page("A copy", "Alpha text again", "/docs/a"));
+        html("/blog/empty", page("Empty", "", null));
+        responses.put("/blog/file.pdf", new Response(200, "application/pdf", new byte[]{'%', 'P', 'D', 'F'}));
+
+        List<SitemapCrawler.CrawledPage> pages = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+        crawler.crawl(base + "/sitemap.xml", pages::add, progress::add);
+
+        assertThat(pages).extracting(SitemapCrawler.CrawledPage::title).containsExactly("A", "B", "C");
+        assertThat(pages).extracting(SitemapCrawler.CrawledPage::text)
+            .containsExactly("Alpha text", "Beta text", "Gamma text");
+        assertThat(pages.get(0).canonicalUrl()).isEqualTo(base + "/docs/a");
+        assertThat(progress).hasSize(7).isSorted().endsWith(100);
+    }
+
+    @Test
+    void honorsRobotsTxtAndPerHostConcurrency() throws IOException {
+        start(8, 2, 5000, 3);
+        responses.put("/robots.txt", new Response(200, "text/plain", """
+            User-agent: *
+            Disallow: /
+
+            User-agent: chatq-assist
+            Disallow: /internal/
+            Allow: /internal/public$
+            """.getBytes(StandardCharsets.UTF_8)));
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            paths.add("/help/" + i);
+            html("/help/" + i, page("Help " + i, "Help text " + i, null));
+        }
+        paths.addAll(List.of("/internal/secret", "/internal/public", "/internal/public/more"));
+        html("/internal/secret", page("Secret", "Secret text", null));
+        html("/internal/public", page("Public", "Public text", null));
+        html("/internal/public/more", page("More", "More text", null));
+        xml("/sitemap.xml", urlset(paths.toArray(String[]::new)));
+
+        List<SitemapCrawler.CrawledPage> pages = new ArrayList<>();
+        crawler.crawl(base + "/sitemap.xml", pages::add, percent -> {
+        });
+
+        assertThat(pages).hasSize(13).extracting(SitemapCrawler.CrawledPage::title)
+            .contains("Public").doesNotContain("Secret", "More");
+        assertThat(requested).doesNotContain("/internal/secret", "/internal/public/more")
+            .filteredOn("/robots.txt"::equals).hasSize(1);
+        assertThat(maxActivePageRequests.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void limitsPagesAndSitemapDepth() throws IOException {
+        start(4, 4, 3, 1);
+        xml("/sitemap.xml", index("/level1.xml", "/pages.xml"));
+        xml("/level1.xml", index("/level2.xml"));
+        xml("/level2.xml", urlset("/too-deep"));
+        xml("/pages.xml", urlset("/p1", "/p2", "/p3", "/p4"));
+        for (String path : List.of("/p1", "/p2", "/p3", "/p4", "/too-deep")) {
+            html(path, page(path, "Text of " + path, null));
+        }
+
+        List<SitemapCrawler.CrawledPage> pages = new ArrayList<>();
+        crawler.crawl(base + "/sitemap.xml", pages::add, percent -> {
+        });
+
+        assertThat(pages).extracting(SitemapCrawler.CrawledPage::title).containsExactly("/p1", "/p2", "/p3");
+        assertThat(requested).doesNotContain("/level2.xml", "/too-deep", "/p4");
+    }
+
+    @Test
+    void failsIfTheSitemapOrEveryPageFails() {
+        start(4, 2, 5000, 3);
+
+        assertThatThrownBy(() -> crawler.crawl(base + "/sitemap.xml", page -> {
+        }, percent -> {
+        })).isInstanceOf(IOException.class).hasMessageContaining("HTTP 404");
+
+        xml("/sitemap.xml", urlset("/gone", "/broken"));
+        responses.put("/broken", new Response(500, "text/html", new byte[0]));
+        assertThatThrownBy(() -> crawler.crawl(base + "/sitemap.xml", page -> {
+        }, percent -> {
+        })).isInstanceOf(IOException.class).hasMessageContaining("No page of sitemap could be crawled");
+    }
+
+    @Test
+    void disallowsEverythingIfRobotsTxtIsUnreachable() {
+        start(4, 2, 5000, 3);
+        responses.put("/robots.txt", new Response(503, "text/plain", new byte[0]));
+        xml("/sitemap.xml", urlset("/p1"));
+        html("/p1", page("P1", "Text", null));
+
+        assertThatThrownBy(() -> crawler.crawl(base + "/sitemap.xml", page -> {
+        }, percent -> {
+        })).isInstanceOf(IOException.class);
+        assertThat(requested).doesNotContain("/p1");
+    }
+
+    private void start(int concurrency, int perHostConcurrency, int maxPages, int maxDepth) {
+        ReflectionTestUtils.setField(crawler, "concurrency", concurrency);
+        ReflectionTestUtils.setField(crawler, "perHostConcurrency", perHostConcurrency);
+        ReflectionTestUtils.setField(crawler, "maxPages", maxPages);
+        ReflectionTestUtils.setField(crawler, "maxDepth", maxDepth);
+        ReflectionTestUtils.setField(crawler, "politenessDelayMs", 0L);
+        ReflectionTestUtils.setField(crawler, "respectRobots", true);
+        ReflectionTestUtils.setField(crawler, "maxCrawlDelayMs", 0L);
+        crawler.init();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requested.add(path);
+        Response response = responses.get(path);
+
+        boolean page = response != null && response.contentType().startsWith("text/html");
+        if (page) {
+            int active = activePageRequests.incrementAndGet();
+            maxActivePageRequests.accumulateAndGet(active, Math::max);
+        }
+        try {
+            if (page) {
+                Thread.sleep(20); // Long enough for concurrent requests to overlap
+            }
+            if (response == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            exchange.sendResponseHeaders(response.status(), response.body().length > 0 ? response.body().length : -1);
+            if (response.body().length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response.body());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (page) {
+                activePageRequests.decrementAndGet();
+            }
+            exchange.close();
+        }
+    }
+
+    private void xml(String path, String content) {
+        responses.put(path, new Response(200, "application/xml", content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void html(String path, String content) {
+        responses.put(path, new Response(200, "text/html; charset=utf-8", content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String index(String... paths) {
+        StringBuilder xml = new StringBuilder("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+        for (String path : paths) {
+            xml.append("<sitemap><loc>").append(base).append(path).append("</loc></sitemap>");
+        }
+        return xml.append("</sitemapindex>").toString();
+    }
+
+    private String urlset(String... paths) {
+        StringBuilder xml = new StringBuilder("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+        for (String path : paths) {
+            xml.append("<url><loc>").append(base).append(path).append("</loc></url>");
+        }
+        return xml.append("</urlset>").toString();
+    }
+
+    private String page(String title, String text, String canonicalPath) {
+        String canonical = canonicalPath != null ? "<link rel=\"canonical\" href=\"" + base + canonicalPath + "\">" : "";
+        return "<html><head><title>" + title + "</title>" + canonical + "</head><body><p>" + text + "</p></body></html>";
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private record Response(int status, String contentType, byte[] body) {
+    }
+}
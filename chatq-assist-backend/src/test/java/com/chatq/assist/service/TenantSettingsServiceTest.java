@@ -0,0 +1,91 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.config.CacheFactory;
+import com.chatq.assist.config.CacheProperties;
+import com.chatq.assist.domain.entity.Tenant;
+import com.chatq.assist.repository.SimilarFaq;
+import com.chatq.assist.repository.TenantRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantSettingsServiceTest {
+
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+    private TenantSettingsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TenantSettingsService(tenantRepository, new ObjectMapper(),
+                                            new CacheFactory(new CacheProperties(), new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "defaultMaxDistance", 0.25);
+        ReflectionTestUtils.setField(service, "confidenceMargin", 0.2);
+        service.init();
+    }
+
+    @Test
+    void derivesMinimumConfidenceFromDefaultCutoff() {
+        TenantSettingsService.RetrievalSettings settings = service.getRetrievalSettings("unknown");
+
+        assertThat(settings.maxDistance()).isEqualTo(0.25);
+        assertThat(settings.minConfidence()).isCloseTo(0.8, within(1e-9));
+    }
+
+    @Test
+    void derivesMinimumConfidenceFromTenantCutoff() {
+        tenant("{\"retrievalMaxDistance\": 0.4}");
+
+        assertThat(service.getRetrievalSettings("tenant").minConfidence()).isCloseTo(0.68, within(1e-9));
+    }
+
+    @Test
+    void tenantMinimumConfidenceWins() {
+        tenant("{\"minConfidence\": 0.9}");
+
+        assertThat(service.getRetrievalSettings("tenant").minConfidence()).isEqualTo(0.9);
+    }
+
+    @Test
+    void configuredMinimumConfidenceWins() {
+        ReflectionTestUtils.setField(service, "defaultMinConfidence", 0.7);
+
+        assertThat(service.getRetrievalSettings("unknown").minConfidence()).isEqualTo(0.7);
+    }
+
+    @Test
+    void derivedMinimumSeparatesMatchesInsideTheCutoff() {
+        double minConfidence = service.getRetrievalSettings("unknown").minConfidence();
+
+        assertThat(result(0.05).confidence()).isGreaterThanOrEqualTo(minConfidence);
+        assertThat(result(0.22, 0.24).confidence()).isLessThan(minConfidence);
+    }
+
+    private void tenant(String settings) {
+        Tenant tenant = new Tenant();
+        tenant.setTenantId("tenant");
+        tenant.setSettings(settings);
+        when(tenantRepository.findByTenantId("tenant")).thenReturn(Optional.of(tenant));
+    }
+
+    private static RetrievalResult result(double... distances) {
+        List<SimilarFaq> faqs = Arrays.stream(distances)
+            .mapToObj(distance -> {
+                SimilarFaq faq = mock(SimilarFaq.class);
+                when(faq.getDistance()).thenReturn(distance);
+                return faq;
+            })
+            .toList();
+        return new RetrievalResult(faqs, List.of(), false);
+    }
+}
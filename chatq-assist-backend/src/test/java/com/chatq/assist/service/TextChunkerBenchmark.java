@@ -0,0 +1,175 @@
+package com.chatq.assist.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Throughput and chunk sizes of the token chunker against the character chunker, both with their default
+ * settings. Reports chunks/s next to corpus passes/s, and prints the token-size distribution of the chunks
+ * after each trial. The built-in corpus is generated German and English text with headings and a few long
+ * table rows; pass {@code -Djmh.args="-p corpus=/path/to/dir"} to chunk the .txt and .md files of a directory
+ * instead (paragraphs separated by blank lines, lines starting with '#' are headings):
+ * {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=TextChunker}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextChunkerBenchmark {
+
+    private static final int MAX_TOKENS = 300;
+    private static final int OVERLAP_TOKENS = 50;
+    private static final int CHUNK_SIZE = 1000;
+    private static final int CHUNK_OVERLAP = 200;
+
+    @Param({"token", "character"})
+    private String strategy;
+
+    @Param({""})
+    private String corpus;
+
+    private TokenCounter tokenCounter;
+    private List<TextBlock> blocks;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Chunks {
+        public long chunks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chunks = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        tokenCounter = new TokenCounter();
+        ReflectionTestUtils.setField(tokenCounter, "modelName", "text-embedding-3-small");
+        tokenCounter.init();
+        blocks = corpus.isEmpty() ? generatedCorpus() : readCorpus(Path.of(corpus));
+    }
+
+    @TearDown
+    public void printDistribution() {
+        List<TextChunk> chunks = new ArrayList<>();
+        run(chunks::add);
+
+        int[] tokens = chunks.stream().mapToInt(chunk -> tokenCounter.count(chunk.content())).sorted().toArray();
+        long overBudget = Arrays.stream(tokens).filter(count -> count > MAX_TOKENS).count();
+        System.out.printf("%n%s: %d chunks, tokens min %d / p10 %d / p50 %d / p90 %d / max %d, mean %.1f, "
+                          + "%d over %d tokens%n",
+                          strategy, tokens.length, tokens[0], percentile(tokens, 10), percentile(tokens, 50),
+                          percentile(tokens, 90), tokens[tokens.length - 1],
+                          Arrays.stream(tokens).average().orElse(0), overBudget, MAX_TOKENS);
+    }
+
+    @Benchmark
+    public void chunkCorpus(Chunks counters, Blackhole blackhole) {
+        run(chunk -> {
+            counters.chunks++;
+            blackhole.consume(chunk);
+        });
+    }
+
+    private void run(Consumer<TextChunk> sink) {
+        TextChunker chunker = strategy.equals("token")
+            ? new TokenTextChunker(tokenCounter, MAX_TOKENS, OVERLAP_TOKENS, sink)
+            : new CharacterTextChunker(CHUNK_SIZE, CHUNK_OVERLAP, sink);
+        blocks.forEach(chunker::accept);
+        chunker.finish();
+    }
+
+    private static int percentile(int[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static List<TextBlock> readCorpus(Path directory) throws IOException {
+        List<TextBlock> blocks = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.toString().endsWith(".txt") || file.toString().endsWith(".md"))
+                .sorted()
+                .forEach(file -> {
+                    String heading = null;
+                    try {
+                        for (String paragraph : Files.readString(file).split("\\n\\s*\\n")) {
+                            if (paragraph.startsWith("#")) {
+                                heading = paragraph.replaceFirst("^#+\\s*", "").trim();
+                                paragraph = "";
+                            }
+                            blocks.add(new TextBlock(paragraph, null, heading));
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        }
+        return blocks;
+    }
+
+    private static List<TextBlock> generatedCorpus() {
+        String[] german = ("Die Konfiguration der Anwendung erfolgt über Umgebungsvariablen und wird beim Start "
+            + "geprüft. Für größere Installationen empfiehlt sich eine getrennte Datenbank mit regelmäßigen "
+            + "Sicherungen sowie Überwachung der Antwortzeiten und Fehlerraten durch das Betriebsteam").split(" ");
+        String[] english = ("The service reads its settings from environment variables and validates them on "
+            + "startup. Larger deployments should use a dedicated database with regular backups and monitor "
+            + "response times and error rates of every tenant").split(" ");
+
+        Random random = new Random(42);
+        List<TextBlock> blocks = new ArrayList<>();
+        for (int section = 1; section <= 60; section++) {
+            String[] words = section % 2 == 0 ? german : english;
+            String heading = "Kapitel " + section;
+            blocks.add(new TextBlock(heading, section, heading));
+
+            for (int p = 0, paragraphs = 3 + random.nextInt(6); p < paragraphs; p++) {
+                StringBuilder paragraph = new StringBuilder();
+                for (int s = 0, sentences = 1 + random.nextInt(8); s < sentences; s++) {
+                    for (int w = 0, count = 5 + random.nextInt(20); w < count; w++) {
+                        paragraph.append(w == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+                    }
+                    paragraph.append(". ");
+                }
+                blocks.add(new TextBlock(paragraph.toString().trim(), section, heading));
+            }
+
+            if (section % 10 == 0) {
+                // Table rows without sentence punctuation, longer than the token budget
+                StringBuilder row = new StringBuilder();
+                for (int cell = 0; cell < 400; cell++) {
+                    row.append(words[random.nextInt(words.length)]).append(" | ");
+                }
+                blocks.add(new TextBlock(row.toString(), section, heading));
+            }
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,76 @@
+package com.chatq.assist.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenTextChunkerTest {
+
+    private static final TokenCounter tokenCounter = new TokenCounter();
+
+    @BeforeAll
+    static void initTokenizer() {
+        ReflectionTestUtils.setField(tokenCounter, "modelName", "text-embedding-3-small");
+        tokenCounter.init();
+    }
+
+    @Test
+    void cutsOverlongSentencesAtCharacterBoundaries() {
+        // Emoji, CJK and umlauts are encoded as several byte-level tokens each
+        String sentence = "Größenänderung 🚀🚀🚀 数据库连接池配置 Überprüfung 🎉 ".repeat(40).trim();
+
+        List<TextChunk> chunks = chunk(7, 0, new TextBlock(sentence, 1, null));
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk -> {
+            assertThat(chunk.content()).doesNotContain("�");
+            assertThat(tokenCounter.count(chunk.content())).isLessThanOrEqualTo(7);
+        });
+        assertThat(String.join("", chunks.stream().map(TextChunk::content).toList()).replaceAll("\\s", ""))
+            .isEqualTo(sentence.replaceAll("\\s", ""));
+    }
+
+    @Test
+    void startsNewChunkAtHeadingWithoutOverlap() {
+        List<TextChunk> chunks = chunk(40, 10,
+            new TextBlock("Die Installation dauert wenige Minuten. Danach ist das System bereit.", 1, "Installation"),
+            new TextBlock("Java 21 wird benötigt.", 2, "Voraussetzungen"));
+
+        assertThat(chunks).extracting(TextChunk::content)
+            .containsExactly("Die Installation dauert wenige Minuten. Danach ist das System bereit.",
+                             "Java 21 wird benötigt.");
+        assertThat(chunks).extracting(TextChunk::heading).containsExactly("Installation", "Voraussetzungen");
+    }
+
+    @Test
+    void overlapsByTrailingSentences() {
+        String text = "Erster Satz mit einigen Wörtern. Zweiter Satz mit einigen Wörtern. "
+            + "Dritter Satz mit einigen Wörtern. Vierter Satz mit einigen Wörtern.";
+        int sentenceTokens = Stream.of("Erster", "Zweiter", "Dritter", "Vierter")
+            .mapToInt(word -> tokenCounter.count(word + " Satz mit einigen Wörtern."))
+            .max().orElseThrow();
+
+        List<TextChunk> chunks = chunk(sentenceTokens * 2 + 1, sentenceTokens + 1, new TextBlock(text, 1, null));
+
+        assertThat(chunks).extracting(TextChunk::content).containsExactly(
+            "Erster Satz mit einigen Wörtern. Zweiter Satz mit einigen Wörtern.",
+            "Zweiter Satz mit einigen Wörtern. Dritter Satz mit einigen Wörtern.",
+            "Dritter Satz mit einigen Wörtern. Vierter Satz mit einigen Wörtern.");
+    }
+
+    private static List<TextChunk> chunk(int maxTokens, int overlapTokens, TextBlock... blocks) {
+        List<TextChunk> chunks = new ArrayList<>();
+        TokenTextChunker chunker = new TokenTextChunker(tokenCounter, maxTokens, overlapTokens, chunks::add);
+        for (TextBlock block : blocks) {
+            chunker.accept(block);
+        }
+        chunker.finish();
+        return chunks;
+    }
+}
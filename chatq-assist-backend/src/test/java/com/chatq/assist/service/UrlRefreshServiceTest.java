@@ -0,0 +1,138 @@
+package com.chatq.assist.service;
+
+import com.chatq.assist.domain.entity.Document;
+import com.chatq.assist.domain.entity.IngestionJob;
+import com.chatq.assist.domain.enums.DocumentStatus;
+import com.chatq.assist.domain.enums.DocumentType;
+import com.chatq.assist.domain.enums.IngestionJobStatus;
+import com.chatq.assist.repository.DocumentRepository;
+import com.chatq.assist.repository.IngestionJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UrlRefreshServiceTest {
+
+    private static final String OLD_TEXT = "Opening hours: 9 to 5";
+    private static final String NEW_TEXT = "Opening hours: 8 to 6";
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final IngestionJobRepository jobRepository = mock(IngestionJobRepository.class);
+    private final List<IngestionJob> jobs = new ArrayList<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final Document document = new Document();
+
+    private IngestionJobService ingestionJobService;
+    private DocumentService documentService;
+    private UrlRefreshService refreshService;
+
+    @BeforeEach
+    void setUp() {
+        document.setId(1L);
+        document.setTenantId("tenant");
+        document.setDocumentType(DocumentType.URL);
+        document.setSourceUrl("https://example.com/hours");
+        document.setStatus(DocumentStatus.COMPLETED);
+        document.setEtag("\"v1\"");
+        document.setContentHash(DocumentChunkWriter.contentHash(OLD_TEXT));
+
+        when(documentRepository.lockDueForRefresh(any(), anyInt())).thenReturn(List.of(document));
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            IngestionJob job = invocation.getArgument(0);
+            job.setId((long) jobs.size() + 1);
+            jobs.add(job);
+            return job;
+        });
+        when(jobRepository.findById(anyLong())).thenAnswer(invocation ->
+            jobs.stream().filter(job -> job.getId().equals(invocation.getArgument(0))).findFirst());
+        when(jobRepository.existsByDocumentIdAndStatus(eq(1L), eq(IngestionJobStatus.QUEUED))).thenAnswer(invocation ->
+            jobs.stream().anyMatch(job -> job.getStatus() == IngestionJobStatus.QUEUED));
+
+        ingestionJobService = new IngestionJobService(jobRepository, documentRepository,
+                                                      mock(KnowledgeBaseVersionService.class), mock(FileBlobStore.class));
+        ReflectionTestUtils.setField(ingestionJobService, "maxAttempts", 1);
+
+        // Serves the new text as "v2", and answers a conditional GET for "v2" with 304
+        PageFetcher pageFetcher = (uri, etag, lastModified) -> {
+            if ("\"v2\"".equals(etag)) {
+                notModified.incrementAndGet();
+                return new PageFetcher.FetchedPage(uri, 304, null, etag, null, new byte[0]);
+            }
+            byte[] body = ("<html><body>" + NEW_TEXT + "</body></html>").getBytes(StandardCharsets.UTF_8);
+            return new PageFetcher.FetchedPage(uri, 200, "text/html", "\"v2\"", null, body);
+        };
+
+        documentService = new DocumentService(documentRepository, mock(KnowledgeBaseVersionService.class),
+                                              ingestionJobService, mock(PdfTextExtractor.class),
+                                              mock(DocxTextExtractor.class), mock(ChunkerFactory.class),
+                                              mock(SitemapCrawler.class), pageFetcher, mock(FileBlobStore.class));
+
+        refreshService = new UrlRefreshService(documentRepository, documentService, pageFetcher,
+                                               new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(refreshService, "enabled", true);
+        ReflectionTestUtils.setField(refreshService, "maxAgeMs", 0L);
+        ReflectionTestUtils.setField(refreshService, "batchSize", 20);
+    }
+
+    @Test
+    void reingestsChangedPageAfterJobFailedPermanently() {
+        refreshService.refreshDueDocuments();
+
+        assertThat(jobs).hasSize(1);
+        IngestionJob job = jobs.get(0);
+        assertThat(job.getSourceText()).isEqualTo(NEW_TEXT);
+        assertThat(document.getEtag()).isEqualTo("\"v1\"");
+
+        run(job);
+        ingestionJobService.markFailed(job.getId(), "worker", "Embedding provider unavailable");
+        assertThat(job.getStatus()).isEqualTo(IngestionJobStatus.FAILED);
+        assertThat(document.getContentHash()).isEqualTo(DocumentChunkWriter.contentHash(OLD_TEXT));
+
+        refreshService.refreshDueDocuments();
+
+        assertThat(notModified).hasValue(0);
+        assertThat(jobs).hasSize(2);
+        assertThat(jobs.get(1).getSourceText()).isEqualTo(NEW_TEXT);
+    }
+
+    @Test
+    void recordsFetchStateOnceJobSucceeded() {
+        refreshService.refreshDueDocuments();
+        IngestionJob job = jobs.get(0);
+
+        run(job);
+        documentService.completeIngestion(job, new DocumentChunkWriter.Result(1, 1, 0, 1, 0));
+        ingestionJobService.markSucceeded(job.getId(), "worker");
+
+        assertThat(document.getEtag()).isEqualTo("\"v2\"");
+        assertThat(document.getContentHash()).isEqualTo(DocumentChunkWriter.contentHash(NEW_TEXT));
+
+        refreshService.refreshDueDocuments();
+
+        assertThat(notModified).hasValue(1);
+        assertThat(jobs).hasSize(1);
+    }
+
+    private void run(IngestionJob job) {
+        job.setStatus(IngestionJobStatus.RUNNING);
+        job.setAttempts(1);
+        job.setLockedBy("worker");
+    }
+}
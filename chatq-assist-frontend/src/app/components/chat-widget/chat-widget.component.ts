@@ -206,6 +206,8 @@ export class ChatWidgetComponent implements OnInit, OnChanges {
           // Store message ID for feedback
           assistantMessage.id = streamEvent.messageId;
           assistantMessage.feedbackGiven = null;
+        } else if (streamEvent.type === 'overloaded') {
+          assistantMessage.content = streamEvent.error ?? 'Server busy, please try again later';
         } else if (streamEvent.type === 'complete') {
           this.isLoading = false;
           this.typingStatus = 'Typing...';
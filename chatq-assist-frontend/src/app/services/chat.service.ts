@@ -25,7 +25,7 @@ export interface SourceReference {
 }
 
 export interface StreamingChatResponse {
-  type: 'token' | 'metadata' | 'messageId' | 'complete' | 'error';
+  type: 'token' | 'metadata' | 'messageId' | 'overloaded' | 'complete' | 'error';
   token?: string;
   metadata?: {
     sessionId: string;
@@ -60,6 +60,17 @@ export interface HandoffRequest {
   question?: string;
 }
 
+/**
+ * Position of a streamed answer, for resuming it after a dropped connection
+ */
+interface StreamState {
+  lastEventId: string | null;
+  finished: boolean; // The answer's last event was received
+}
+
+const MAX_STREAM_RECONNECTS = 3;
+const STREAM_RECONNECT_DELAY_MS = 1000;
+
 @Injectable({
   providedIn: 'root'
 })
@@ -80,87 +91,156 @@ export class ChatService {
   sendMessageStreaming(request: ChatRequest): Observable<StreamingChatResponse> {
     const subject = new Subject<StreamingChatResponse>();
 
-    fetch(`${this.apiUrl}/stream`, {
+    this.streamAnswer(request, subject).then(() => {
+      subject.next({ type: 'complete' });
+      subject.complete();
+    }).catch(error => {
+      subject.next({ type: 'error', error: error.message });
+      subject.error(error);
+    });
+
+    return subject.asObservable();
+  }
+
+  /**
+   * Stream an answer, reconnecting if the connection drops before its last event: the server replays the
+   * events after the last received id (Last-Event-ID) and continues the live answer.
+   */
+  private async streamAnswer(request: ChatRequest, subject: Subject<StreamingChatResponse>): Promise<void> {
+    const stream: StreamState = { lastEventId: null, finished: false };
+
+    let response: Response | null = await fetch(`${this.apiUrl}/stream`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
         'X-Tenant-ID': 'default-tenant'
       },
       body: JSON.stringify(request)
-    }).then(response => {
-      const reader = response.body?.getReader();
-      const decoder = new TextDecoder();
-      let buffer = '';
-
-      const readStream = () => {
-        reader?.read().then(({ done, value }) => {
-          if (done) {
-            subject.next({ type: 'complete' });
-            subject.complete();
-            return;
+    });
+
+    for (let reconnects = 0; ; reconnects++) {
+      if (response) {
+        if (!response.ok) {
+          const retryAfter = response.headers.get('Retry-After');
+          throw new Error(response.status === 429
+            ? `Server busy, please retry in ${retryAfter ?? 'a few'} seconds`
+            : `Request failed with status ${response.status}`);
+        }
+
+        try {
+          await this.readEvents(response, stream, subject);
+        } catch (error) {
+          // Dropped before the first event - there is nothing to resume
+          if (stream.lastEventId === null) {
+            throw error;
           }
+        }
+      }
+      const lastEventId = stream.lastEventId;
+      if (stream.finished || lastEventId === null) {
+        return;
+      }
 
-          buffer += decoder.decode(value, { stream: true });
-          const events = buffer.split('\n\n');
-
-          // Keep the last incomplete event in buffer
-          buffer = events.pop() || '';
-
-          events.forEach(eventText => {
-            if (!eventText.trim()) return;
-
-            const lines = eventText.split('\n');
-            let eventType = '';
-            let eventData = '';
-
-            lines.forEach(line => {
-              if (line.startsWith('event:')) {
-                eventType = line.substring(6).trim();
-              } else if (line.startsWith('data:')) {
-                // DON'T trim the data - preserve whitespace for tokens!
-                eventData = line.substring(5);
-              }
-            });
-
-            if (eventType && eventData !== '') {
-              if (eventType === 'token') {
-                // Token data is just a string, not JSON - preserve whitespace!
-                subject.next({ type: 'token', token: eventData });
-              } else if (eventType === 'metadata') {
-                try {
-                  const metadata = JSON.parse(eventData.trim());
-                  subject.next({ type: 'metadata', metadata });
-                } catch (e) {
-                  console.error('Failed to parse metadata:', e);
-                }
-              } else if (eventType === 'messageId') {
-                try {
-                  const data = JSON.parse(eventData.trim());
-                  subject.next({ type: 'messageId', messageId: data.messageId });
-                } catch (e) {
-                  console.error('Failed to parse messageId:', e);
-                }
-              } else if (eventType === 'message') {
-                // Fallback message
-                subject.next({ type: 'token', token: eventData });
-              }
-            }
-          });
+      if (reconnects >= MAX_STREAM_RECONNECTS) {
+        throw new Error('Connection to the server lost');
+      }
+      await new Promise(resolve => setTimeout(resolve, STREAM_RECONNECT_DELAY_MS * (reconnects + 1)));
+
+      response = await fetch(`${this.apiUrl}/stream`, {
+        headers: {
+          'X-Tenant-ID': 'default-tenant',
+          'Last-Event-ID': lastEventId
+        }
+      }).catch(() => null); // Still offline - try again after the next delay
+    }
+  }
 
-          readStream();
-        }).catch(error => {
-          subject.next({ type: 'error', error: error.message });
-          subject.error(error);
-        });
-      };
+  /**
+   * Read the events of a response until it ends, remembering the id of the last one received
+   */
+  private async readEvents(response: Response, stream: StreamState,
+                           subject: Subject<StreamingChatResponse>): Promise<void> {
+    const reader = response.body?.getReader();
+    if (!reader) {
+      return;
+    }
+    const decoder = new TextDecoder();
+    let buffer = '';
 
-      readStream();
-    }).catch(error => {
-      subject.next({ type: 'error', error: error.message });
-      subject.error(error);
-    });
+    while (true) {
+      const { done, value } = await reader.read();
+      if (done) {
+        return;
+      }
 
-    return subject.asObservable();
+      buffer += decoder.decode(value, { stream: true });
+      const events = buffer.split('\n\n');
+
+      // Keep the last incomplete event in buffer
+      buffer = events.pop() || '';
+
+      events.forEach(eventText => {
+        if (!eventText.trim()) return;
+
+        const lines = eventText.split('\n');
+        let eventType = '';
+        let eventId: string | null = null;
+        const dataLines: string[] = [];
+
+        for (const line of lines) {
+          if (line.startsWith('id:')) {
+            eventId = line.substring(3).trim();
+          } else if (line.startsWith('event:')) {
+            eventType = line.substring(6).trim();
+          } else if (line.startsWith('data:')) {
+            // DON'T trim the data - preserve whitespace for tokens!
+            dataLines.push(line.substring(5));
+          }
+        }
+        // Coalesced tokens containing line breaks arrive as several data lines
+        const eventData = dataLines.join('\n');
+
+        if (eventId !== null) {
+          stream.lastEventId = eventId;
+        }
+
+        if (eventType && eventData !== '') {
+          if (eventType === 'token') {
+            // Token data is just a string, not JSON - preserve whitespace!
+            subject.next({ type: 'token', token: eventData });
+          } else if (eventType === 'metadata') {
+            try {
+              const metadata = JSON.parse(eventData.trim());
+              // A handoff answer ends with its metadata
+              stream.finished = metadata.handoffTriggered === true;
+              subject.next({ type: 'metadata', metadata });
+            } catch (e) {
+              console.error('Failed to parse metadata:', e);
+            }
+          } else if (eventType === 'messageId') {
+            stream.finished = true;
+            try {
+              const data = JSON.parse(eventData.trim());
+              subject.next({ type: 'messageId', messageId: data.messageId });
+            } catch (e) {
+              console.error('Failed to parse messageId:', e);
+            }
+          } else if (eventType === 'overloaded') {
+            // A pipeline stage was saturated before the answer started
+            stream.finished = true;
+            try {
+              const data = JSON.parse(eventData.trim());
+              subject.next({ type: 'overloaded', error: `Server busy, please retry in ${data.retryAfterSeconds} seconds` });
+            } catch (e) {
+              console.error('Failed to parse overloaded event:', e);
+            }
+          } else if (eventType === 'message') {
+            // Fallback message
+            subject.next({ type: 'token', token: eventData });
+          }
+        }
+      });
+    }
   }
 
   getHistory(sessionId: string): Observable<MessageDto[]> {
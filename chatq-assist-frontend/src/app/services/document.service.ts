@@ -9,6 +9,7 @@ export interface DocumentDto {
   documentType: 'URL' | 'PDF' | 'DOCX' | 'TXT' | 'SITEMAP';
   status: 'PENDING' | 'PROCESSING' | 'COMPLETED' | 'FAILED';
   chunkCount?: number;
+  progress?: number;
   errorMessage?: string;
   createdAt: string;
   updatedAt: string;